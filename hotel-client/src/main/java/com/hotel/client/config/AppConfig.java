@@ -8,4 +8,9 @@ public class AppConfig {
     public static final String API_USERNAME = "admin";
     public static final String API_PASSWORD = "hotel123";
     public static final int API_TIMEOUT = 15000;
+    // Повторы запросов с ключом идемпотентности после таймаута или обрыва соединения
+    public static final int API_WRITE_RETRIES = 3;
+    public static final int API_RETRY_DELAY = 1000;
+    // Потоки фоновой загрузки данных для форм и виджетов
+    public static final int UI_LOADER_THREADS = 4;
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.hotel.client.model;
+
+import java.util.Map;
+
+/**
+ * Событие ленты изменений сервера (/api/events)
+ */
+public class ChangeEvent {
+    public static final String ROOM_STATUS = "room-status";
+    public static final String ROOM_CLEARED = "room-cleared";
+    public static final String ROOMS_RESET = "rooms-reset";
+    public static final String OCCUPANCY_CHANGED = "occupancy-changed";
+    public static final String CLIENT_SAVED = "client-saved";
+    public static final String CLIENT_REMOVED = "client-removed";
+    public static final String CLIENTS_RESET = "clients-reset";
+    public static final String BOOKING_ADDED = "booking-added";
+    public static final String BOOKING_COMPLETED = "booking-completed";
+    public static final String STAFF_ADDED = "staff-added";
+    public static final String STAFF_RESET = "staff-reset";
+    /** Часть событий потеряна - данные нужно перечитать целиком */
+    public static final String RESYNC = "resync";
+
+    private final String id;
+    private final String type;
+    private final Map<String, Object> data;
+
+    public ChangeEvent(String id, String type, Map<String, Object> data) {
+        this.id = id;
+        this.type = type;
+        this.data = data;
+    }
+
+    public String getId() { return id; }
+    public String getType() { return type; }
+    public Map<String, Object> getData() { return data; }
+
+    @Override
+    public String toString() {
+        return type + " " + data;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hotel.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Страница списка с курсором на следующую страницу
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Page<T> {
+    @JsonProperty("items")
+    private List<T> items = new ArrayList<>();
+
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
+    public Page() {}
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(new ArrayList<>(), null);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // Геттеры и сеттеры
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -1,34 +1,186 @@
 package com.hotel.client.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.hotel.client.config.AppConfig;
 import com.hotel.client.exception.HotelException;
 import com.hotel.client.exception.ServerException;
+import com.hotel.client.util.JsonUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.SocketTimeoutException;
-import java.net.URL;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
 import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
- * Сервис для выполнения HTTP запросов к API
- * После перехода на Jackson удалены ручные методы парсинга JSON
+ * Сервис для выполнения HTTP запросов к API.
+ * Все запросы идут через один HttpClient: соединения переиспользуются (keep-alive, HTTP/2, если сервер
+ * его поддерживает). Методы блокирующие: они ждут асинхронный обмен с сервером, и прерывание
+ * ожидающего потока отменяет запрос. Типизированные ответы без ETag
+ * разбираются Jackson прямо из потока ответа; ответы с ETag и строковые читаются в байты, которые хранит
+ * условный кэш
  */
 public class ApiService {
     private static ApiService instance;
     private static final Logger logger = LogManager.getLogger(ApiService.class);
 
-    public static ApiService getInstance() {
+    private static final String BASIC_AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString(
+            (AppConfig.API_USERNAME + ":" + AppConfig.API_PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(AppConfig.API_TIMEOUT))
+            .build();
+
+    // Токен доступа: пароль передается только при его получении
+    private static final long TOKEN_REFRESH_MARGIN_MS = 30_000;
+    private String accessToken;
+    private long accessTokenExpiresAt;
+    // Запрос токена, который уже выполняется: остальные запросы ждут его, а не запрашивают свой
+    private CompletableFuture<String> tokenRequest;
+    // HTTP-запрос токена и число ожидающих его обменов: отмена последнего из них отменяет запрос
+    private CompletableFuture<HttpResponse<byte[]>> tokenSend;
+    private int tokenWaiters;
+    // После неудачи не запрашиваем токен перед каждым запросом
+    private static final long TOKEN_RETRY_DELAY_MS = 60_000;
+    private long tokenRetryAfter;
+
+    // Последние ответы GET с ETag: повторный запрос условный, при 304 тело берется отсюда
+    private final Map<String, CachedResponse> conditionalCache = new ConcurrentHashMap<>();
+
+    // Слушатели успешных изменяющих запросов (получают endpoint), например DataStore
+    private final List<Consumer<String>> writeListeners = new CopyOnWriteArrayList<>();
+
+    private static final class CachedResponse {
+        final String etag;
+        final byte[] body;
+
+        CachedResponse(String etag, byte[] body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Тело ответа: прочитанные байты или поток, который разбирается по мере получения
+     */
+    private static final class ResponseBody {
+        final byte[] bytes;
+        final InputStream stream;
+
+        private ResponseBody(byte[] bytes, InputStream stream) {
+            this.bytes = bytes;
+            this.stream = stream;
+        }
+
+        static ResponseBody buffered(byte[] bytes) {
+            return new ResponseBody(bytes, null);
+        }
+
+        static ResponseBody streamed(InputStream stream) {
+            return new ResponseBody(null, stream);
+        }
+
+        InputStream open() {
+            return stream != null ? stream : new ByteArrayInputStream(bytes);
+        }
+
+        /**
+         * Тело, которое никто не прочитает: поток закрывается, освобождая соединение (поток HTTP/2)
+         */
+        void discard() {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    logger.debug("Ошибка закрытия непрочитанного ответа: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Результат обмена с сервером. Отмена отменяет и выполняемый сейчас этап - ожидание токена
+     * или сам HTTP-запрос, - а не только ожидание результата
+     */
+    private static final class Exchange extends CompletableFuture<ResponseBody> {
+        // Отмена текущего этапа; null - этап еще не начат
+        private Runnable cancelStage;
+
+        /**
+         * Начало этапа. Если обмен уже отменен, этап сразу отменяется
+         *
+         * @return false, если обмен отменен и продолжать его не нужно
+         */
+        boolean begin(Runnable cancel) {
+            synchronized (this) {
+                if (!isCancelled()) {
+                    cancelStage = cancel;
+                    return true;
+                }
+            }
+            cancel.run();
+            return false;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Runnable stage;
+            synchronized (this) {
+                stage = cancelStage;
+                cancelStage = null;
+            }
+            if (cancelled && stage != null) {
+                stage.run();
+            }
+            return cancelled;
+        }
+    }
+
+    /**
+     * Разбор тела ответа из потока
+     */
+    private interface BodyReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    public static synchronized ApiService getInstance() {
         if (instance == null) {
             instance = new ApiService();
         }
         return instance;
     }
 
+    /**
+     * Слушатель вызывается после каждого успешного запроса, кроме GET, до возврата результата вызывающему
+     */
+    public void addWriteListener(Consumer<String> listener) {
+        writeListeners.add(listener);
+    }
+
     /**
      * Выполняет HTTP запрос к серверу
      *
@@ -41,171 +193,440 @@ public class ApiService {
      */
     public String executeRequest(String endpoint, String method, String jsonBody)
             throws ServerException, HotelException {
-        HttpURLConnection connection = null;
-        BufferedReader reader = null;
-        BufferedWriter writer = null;
+        ResponseBody body = await(exchange(endpoint, method, jsonBody, null, true, false));
+        return new String(body.bytes, StandardCharsets.UTF_8);
+    }
 
-        try {
-            URL url = new URL(AppConfig.API_BASE_URL + endpoint);
-            connection = (HttpURLConnection) url.openConnection();
-
-            // Настройка соединения
-            connection.setRequestMethod(method);
-            connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-            connection.setRequestProperty("Accept", "application/json");
-
-            // Базовая аутентификация
-            String auth = AppConfig.API_USERNAME + ":" + AppConfig.API_PASSWORD;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
-            connection.setRequestProperty("Authorization", "Basic " + encodedAuth);
-
-            // Таймауты
-            connection.setConnectTimeout(AppConfig.API_TIMEOUT);
-            connection.setReadTimeout(AppConfig.API_TIMEOUT);
-
-            // Отправка тела запроса для POST/PUT
-            if (jsonBody != null && (method.equals("POST") || method.equals("PUT"))) {
-                connection.setDoOutput(true);
-                writer = new BufferedWriter(new OutputStreamWriter(
-                        connection.getOutputStream(), StandardCharsets.UTF_8));
-                writer.write(jsonBody);
-                writer.flush();
+    /**
+     * Выполняет запрос и разбирает ответ в объект типа type (см. JsonUtils.listType, JsonUtils.pageType)
+     */
+    public <T> T executeRequest(String endpoint, String method, String jsonBody, JavaType type)
+            throws ServerException, HotelException {
+        ResponseBody body = await(exchange(endpoint, method, jsonBody, null, true, true));
+        return read(body, in -> JsonUtils.fromJson(in, type), method, endpoint);
+    }
+
+    /**
+     * Выполняет изменяющий запрос с заголовком Idempotency-Key. После таймаута или обрыва
+     * соединения запрос повторяется с тем же ключом: если сервер уже выполнил его,
+     * он вернет сохраненный ответ, а не выполнит операцию второй раз
+     *
+     * @throws ServerException если все попытки завершились ошибкой
+     */
+    public String executeIdempotentRequest(String endpoint, String method, String jsonBody)
+            throws ServerException, HotelException {
+        String idempotencyKey = UUID.randomUUID().toString();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ResponseBody body = await(exchange(endpoint, method, jsonBody, idempotencyKey, true, false));
+                return new String(body.bytes, StandardCharsets.UTF_8);
+            } catch (ServerException e) {
+                if (attempt > AppConfig.API_WRITE_RETRIES || !isRetryable(e)) {
+                    throw e;
+                }
+                logger.warn("Повтор {} {} ({} из {}) после ошибки: {}",
+                        method, endpoint, attempt, AppConfig.API_WRITE_RETRIES, e.getMessage());
+                try {
+                    Thread.sleep((long) AppConfig.API_RETRY_DELAY * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
             }
+        }
+    }
+
+    /**
+     * Повторять можно, если ответ не получен (таймаут, сетевая ошибка), исходный запрос с тем же ключом
+     * еще выполняется на сервере (409) или сервер не выполнил его из-за временного сбоя БД (503)
+     */
+    private static boolean isRetryable(ServerException e) {
+        return e.getCause() instanceof IOException || e.getStatusCode() == 409 || e.getStatusCode() == 503;
+    }
 
-            // Получение ответа
-            int responseCode = connection.getResponseCode();
-            logger.debug("HTTP {} {} -> {}", method, endpoint, responseCode);
+    /**
+     * Один обмен с сервером: тело успешного ответа или исключение.
+     * Токен истек или сервер перезапущен с новым ключом - получаем новый и повторяем один раз.
+     * Отмена результата отменяет HTTP-запрос (или ожидание токена), а не только ожидание ответа
+     *
+     * @param streaming тело успешного ответа без ETag не читать в байты, а отдать потоком;
+     *                  такой поток вызывающий обязан прочитать или закрыть
+     */
+    private CompletableFuture<ResponseBody> exchange(String endpoint, String method, String jsonBody,
+                                                     String idempotencyKey, boolean retryUnauthorized,
+                                                     boolean streaming) {
+        Exchange exchange = new Exchange();
+        exchange(exchange, endpoint, method, jsonBody, idempotencyKey, retryUnauthorized, streaming);
+        return exchange;
+    }
 
-            // Обработка HTTP ошибок
-            if (responseCode >= 400) {
-                String errorMessage = readErrorResponse(connection);
-                logger.error("HTTP error {} for {} {}: {}", responseCode, method, endpoint, errorMessage);
-                throw new ServerException(responseCode, "HTTP " + responseCode + ": " + errorMessage);
+    private void exchange(Exchange exchange, String endpoint, String method, String jsonBody,
+                          String idempotencyKey, boolean retryUnauthorized, boolean streaming) {
+        CompletableFuture<String> tokenFuture = accessTokenAsync();
+        if (!tokenFuture.isDone()) {
+            waitForToken(tokenFuture);
+            if (!exchange.begin(() -> stopWaitingForToken(tokenFuture))) {
+                return;
+            }
+        }
+        tokenFuture.thenAccept(token -> {
+            if (exchange.isCancelled()) {
+                return;
+            }
+            CachedResponse cached = method.equals("GET") ? conditionalCache.get(endpoint) : null;
+            HttpRequest request = buildRequest(endpoint, method, jsonBody, idempotencyKey, token, cached);
+            CompletableFuture<HttpResponse<ResponseBody>> send = httpClient.sendAsync(request,
+                    bodyHandler(method, streaming));
+            if (!exchange.begin(() -> send.cancel(true))) {
+                return;
             }
+            send.handle((response, error) -> {
+                if (error != null) {
+                    // Ошибка отмененного обмена никому не нужна
+                    return exchange.isCancelled() ? null : failed(exchange, error, method, endpoint);
+                }
+                int responseCode = response.statusCode();
+                logger.debug("HTTP {} {} -> {} ({})", method, endpoint, responseCode, response.version());
+                if (responseCode == 401 && token != null && retryUnauthorized) {
+                    invalidateAccessToken(token);
+                    exchange(exchange, endpoint, method, jsonBody, idempotencyKey, false, streaming);
+                    return null;
+                }
+                ResponseBody body = handleResponse(endpoint, method, response, cached);
+                if (!exchange.complete(body)) {
+                    // Обмен отменен, пока шел ответ
+                    body.discard();
+                }
+                return null;
+            }).exceptionally(error -> failed(exchange, error, method, endpoint));
+        }).exceptionally(error -> failed(exchange, error, method, endpoint));
+    }
 
-            // Чтение успешного ответа
-            if (responseCode >= 200 && responseCode < 300) {
-                reader = new BufferedReader(new InputStreamReader(
-                        connection.getInputStream(), StandardCharsets.UTF_8));
+    private static Void failed(Exchange exchange, Throwable error, String method, String endpoint) {
+        exchange.completeExceptionally(translate(unwrap(error), method, endpoint));
+        return null;
+    }
 
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
+    /**
+     * Выбор чтения тела по статусу и заголовкам ответа: ошибки нужны целиком для сообщения,
+     * ответы GET с ETag - для условного кэша, остальные при streaming разбираются из потока
+     */
+    private static HttpResponse.BodyHandler<ResponseBody> bodyHandler(String method, boolean streaming) {
+        return responseInfo -> {
+            int responseCode = responseInfo.statusCode();
+            boolean buffered = !streaming || responseCode < 200 || responseCode >= 300
+                    || (method.equals("GET") && responseInfo.headers().firstValue("ETag").isPresent());
+            if (buffered) {
+                return HttpResponse.BodySubscribers.mapping(
+                        HttpResponse.BodySubscribers.ofByteArray(), ResponseBody::buffered);
+            }
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofInputStream(), ResponseBody::streamed);
+        };
+    }
 
-                String responseBody = response.toString();
-                logger.debug("Response for {} {}: {}", method, endpoint, responseBody);
-                return responseBody;
+    private HttpRequest buildRequest(String endpoint, String method, String jsonBody, String idempotencyKey,
+                                     String token, CachedResponse cached) {
+        boolean hasBody = jsonBody != null && (method.equals("POST") || method.equals("PUT"));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(AppConfig.API_BASE_URL + endpoint))
+                .timeout(Duration.ofMillis(AppConfig.API_TIMEOUT))
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .header("Accept", "application/json")
+                // Аутентификация по токену (Basic - если сервер токены не выдает)
+                .header("Authorization", token != null ? "Bearer " + token : BASIC_AUTHORIZATION)
+                .method(method, hasBody
+                        ? HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag);
+        }
+        return builder.build();
+    }
+
+    private ResponseBody handleResponse(String endpoint, String method, HttpResponse<ResponseBody> response,
+                                        CachedResponse cached) {
+        int responseCode = response.statusCode();
+
+        // Данные не изменились с прошлого запроса
+        if (responseCode == 304 && cached != null) {
+            logger.debug("Response for {} {} not modified", method, endpoint);
+            return ResponseBody.buffered(cached.body);
+        }
+
+        // Обработка HTTP ошибок
+        if (responseCode >= 400) {
+            byte[] errorBody = response.body().bytes;
+            String errorMessage = errorBody.length > 0
+                    ? new String(errorBody, StandardCharsets.UTF_8)
+                    : "No error details available";
+            logger.error("HTTP error {} for {} {}: {}", responseCode, method, endpoint, errorMessage);
+            throw new CompletionException(
+                    new ServerException(responseCode, "HTTP " + responseCode + ": " + errorMessage));
+        }
 
-            } else {
-                throw new HotelException("Unexpected response code: " + responseCode);
+        if (responseCode < 200 || responseCode >= 300) {
+            throw new CompletionException(new HotelException("Unexpected response code: " + responseCode));
+        }
+
+        ResponseBody body = response.body();
+        if (body.bytes != null) {
+            logger.debug("Response for {} {}: {} bytes", method, endpoint, body.bytes.length);
+        } else {
+            logger.debug("Response for {} {}: streamed", method, endpoint);
+        }
+        if (method.equals("GET")) {
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            if (etag != null && body.bytes != null) {
+                conditionalCache.put(endpoint, new CachedResponse(etag, body.bytes));
+            } else if (cached != null) {
+                conditionalCache.remove(endpoint);
             }
+        } else {
+            for (Consumer<String> listener : writeListeners) {
+                listener.accept(endpoint);
+            }
+        }
+        return body;
+    }
 
-        } catch (SocketTimeoutException e) {
-            logger.error("Request timeout for {} {}: {}", method, endpoint, e.getMessage());
-            throw new ServerException(408, "Request timeout - server not responding", e);
-        } catch (UnknownHostException e) {
-            logger.error("Server not found for {} {}: {}", method, endpoint, e.getMessage());
-            throw new ServerException(503, "Server unavailable - unknown host", e);
+    /**
+     * Разбор тела ответа; поток закрывается и при ошибке, освобождая соединение.
+     * Ошибка чтения потока (обрыв, отмена загрузки) - ошибка сети, как и до получения ответа
+     */
+    private static <T> T read(ResponseBody body, BodyReader<T> reader, String method, String endpoint)
+            throws HotelException {
+        try (InputStream in = body.open()) {
+            return reader.read(in);
+        } catch (JsonProcessingException e) {
+            logger.error("Invalid JSON in response for {} {}: {}", method, endpoint, e.getMessage());
+            throw new HotelException("Invalid JSON in server response", e);
         } catch (IOException e) {
-            logger.error("Network error for {} {}: {}", method, endpoint, e.getMessage());
-            throw new ServerException(500, "Network communication error", e);
-        } catch (ServerException e) {
-            // Пробрасываем ServerException без изменений
-            throw e;
-        } catch (Exception e) {
-            logger.error("Unexpected error for {} {}: {}", method, endpoint, e.getMessage());
-            throw new HotelException("Unexpected error during request execution", e);
-        } finally {
-            // Закрытие ресурсов
-            closeResources(writer, reader, connection);
+            throw (ServerException) translate(e, method, endpoint);
         }
     }
 
     /**
-     * Обновляет дату на сервере и проверяет занятость номеров
-     *
-     * @param currentDate новая дата в формате yyyy-MM-dd
-     * @return true если операция успешна, false в противном случае
+     * Исключение транспорта в исключение API: таймаут - 408, неизвестный хост или отказ соединения - 503,
+     * прочие сетевые ошибки - 500 (причина - IOException, по ней executeIdempotentRequest решает о повторе)
+     */
+    private static Exception translate(Throwable error, String method, String endpoint) {
+        if (error instanceof ServerException || error instanceof HotelException) {
+            return (Exception) error;
+        }
+        if (error instanceof HttpTimeoutException) {
+            logger.error("Request timeout for {} {}: {}", method, endpoint, error.getMessage());
+            return new ServerException(408, "Request timeout - server not responding", error);
+        }
+        if (error instanceof UnknownHostException || error instanceof ConnectException) {
+            logger.error("Server not found for {} {}: {}", method, endpoint, error.getMessage());
+            return new ServerException(503, "Server unavailable - cannot connect", error);
+        }
+        if (error instanceof IOException) {
+            logger.error("Network error for {} {}: {}", method, endpoint, error.getMessage());
+            return new ServerException(500, "Network communication error", error);
+        }
+        logger.error("Unexpected error for {} {}: {}", method, endpoint, error.getMessage());
+        return new HotelException("Unexpected error during request execution", error);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Ожидание асинхронного результата с исключениями блокирующего API.
+     * Прерывание ожидающего потока (отмена фоновой загрузки) отменяет запрос
      */
-    public boolean advanceDate(String currentDate) {
+    private static <T> T await(CompletableFuture<T> future) throws ServerException, HotelException {
         try {
-            String jsonBody = String.format("{\"currentDate\":\"%s\"}", currentDate);
-            String response = executeRequest("/rooms/advance-date", "POST", jsonBody);
-            return response != null && response.contains("\"success\":true");
-        } catch (Exception e) {
-            logger.error("❌ Ошибка обновления даты: {}", e.getMessage());
-            return false;
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            // Ответ мог успеть прийти до отмены: его поток закрывается, раз его уже никто не прочитает
+            future.thenAccept(result -> {
+                if (result instanceof ResponseBody) {
+                    ((ResponseBody) result).discard();
+                }
+            });
+            Thread.currentThread().interrupt();
+            throw new HotelException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof ServerException) {
+                throw (ServerException) cause;
+            }
+            if (cause instanceof HotelException) {
+                throw (HotelException) cause;
+            }
+            throw new HotelException("Unexpected error during request execution", cause);
         }
     }
 
     /**
-     * Проверяет доступность сервера
+     * Действующий токен доступа; при необходимости запрашивает новый
      *
-     * @return true если сервер доступен, false в противном случае
+     * @return future с токеном или null, если сервер не выдал токен
      */
-    public boolean isServerAvailable() {
-        try {
-            // Пробуем получить список клиентов - быстрый endpoint для проверки
-            String response = executeRequest("/clients", "GET", null);
-            return response != null;
+    private synchronized CompletableFuture<String> accessTokenAsync() {
+        if (accessToken != null && System.currentTimeMillis() < accessTokenExpiresAt - TOKEN_REFRESH_MARGIN_MS) {
+            return CompletableFuture.completedFuture(accessToken);
+        }
+        if (tokenRequest != null && !tokenRequest.isDone()) {
+            return tokenRequest;
+        }
+        accessToken = null;
+        if (System.currentTimeMillis() < tokenRetryAfter) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-        } catch (ServerException e) {
-            // Ожидаемые сетевые ошибки
-            logger.warn("Server unavailable: {} (HTTP {})", e.getMessage(), e.getStatusCode());
-            return false;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(AppConfig.API_BASE_URL + "/auth/token"))
+                .timeout(Duration.ofMillis(AppConfig.API_TIMEOUT))
+                .header("Accept", "application/json")
+                .header("Authorization", BASIC_AUTHORIZATION)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        tokenSend = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        tokenWaiters = 0;
+        tokenRequest = tokenSend.handle(this::tokenReceived);
+        return tokenRequest;
+    }
 
-        } catch (HotelException e) {
-            // Непредвиденные ошибки приложения
-            logger.error("Application error while checking server: {}", e.getMessage());
-            return false;
+    private synchronized void waitForToken(CompletableFuture<String> token) {
+        if (token == tokenRequest) {
+            tokenWaiters++;
         }
     }
 
     /**
-     * Чтение тела ошибки из HTTP response
+     * Обмен, ждавший токен, отменен. Запрос токена отменяется, только если его больше никто не ждет
      */
-    private String readErrorResponse(HttpURLConnection connection) {
-        try {
-            InputStream errorStream = connection.getErrorStream();
-            if (errorStream != null) {
-                BufferedReader errorReader = new BufferedReader(
-                        new InputStreamReader(errorStream, StandardCharsets.UTF_8));
-                StringBuilder errorResponse = new StringBuilder();
-                String line;
-                while ((line = errorReader.readLine()) != null) {
-                    errorResponse.append(line);
-                }
-                errorReader.close();
-                return errorResponse.toString();
+    private void stopWaitingForToken(CompletableFuture<String> token) {
+        CompletableFuture<HttpResponse<byte[]>> send = null;
+        synchronized (this) {
+            if (token == tokenRequest && --tokenWaiters == 0 && !token.isDone()) {
+                send = tokenSend;
             }
-        } catch (IOException e) {
-            logger.warn("Could not read error response: {}", e.getMessage());
         }
-        return "No error details available";
+        if (send != null) {
+            send.cancel(true);
+        }
+    }
+
+    private synchronized String tokenReceived(HttpResponse<byte[]> response, Throwable error) {
+        if (unwrap(error) instanceof CancellationException) {
+            // Запрос отменен вместе с ожидавшими его обменами - следующий обмен запросит токен снова
+            logger.debug("Запрос токена доступа отменен");
+            return null;
+        }
+        if (error != null) {
+            logger.warn("Не удалось получить токен доступа: {}", unwrap(error).getMessage());
+            tokenRetryAfter = System.currentTimeMillis() + TOKEN_RETRY_DELAY_MS;
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            logger.warn("Сервер не выдал токен (HTTP {}), используется Basic", response.statusCode());
+            tokenRetryAfter = System.currentTimeMillis() + TOKEN_RETRY_DELAY_MS;
+            return null;
+        }
+
+        Map<String, Object> body;
+        try {
+            body = read(ResponseBody.buffered(response.body()), in -> JsonUtils.fromJson(in, JsonUtils.mapType()),
+                    "POST", "/auth/token");
+        } catch (HotelException e) {
+            return null;
+        }
+        Object token = body.get("token");
+        Object expiresIn = body.get("expiresIn");
+        if (token == null || !(expiresIn instanceof Number)) {
+            return null;
+        }
+        accessToken = token.toString();
+        accessTokenExpiresAt = System.currentTimeMillis() + ((Number) expiresIn).longValue() * 1000;
+        logger.debug("Получен токен доступа на {} с", expiresIn);
+        return accessToken;
+    }
+
+    private synchronized void invalidateAccessToken(String token) {
+        if (token.equals(accessToken)) {
+            accessToken = null;
+        }
     }
 
     /**
-     * Безопасное закрытие ресурсов
+     * Заголовок Authorization для запросов в обход executeRequest (лента изменений)
      */
-    private void closeResources(BufferedWriter writer, BufferedReader reader, HttpURLConnection connection) {
-        try {
-            if (writer != null) writer.close();
-        } catch (Exception e) {
-            logger.warn("Error closing writer: {}", e.getMessage());
+    String authorizationHeader() {
+        String token = accessTokenAsync().join();
+        return token != null ? "Bearer " + token : BASIC_AUTHORIZATION;
+    }
+
+    /**
+     * Сервер отклонил заголовок из authorizationHeader - при следующем запросе токен будет получен заново
+     */
+    void authorizationRejected(String header) {
+        if (header.startsWith("Bearer ")) {
+            invalidateAccessToken(header.substring("Bearer ".length()));
+        }
+    }
+
+    /**
+     * Параметры запроса страницы списка
+     *
+     * @param after курсор из предыдущей страницы (null - первая страница)
+     */
+    public static String pageQuery(String after, int limit) {
+        StringBuilder query = new StringBuilder("?limit=").append(limit);
+        if (after != null) {
+            query.append("&after=").append(URLEncoder.encode(after, StandardCharsets.UTF_8));
         }
+        return query.toString();
+    }
 
+    /**
+     * Переводит дату на сервере сразу на несколько дней вперед
+     *
+     * @param fromDate текущая (уже обработанная) дата в формате yyyy-MM-dd
+     * @param toDate новая дата в формате yyyy-MM-dd
+     * @return ответ сервера с переходами по дням или null при ошибке
+     */
+    public Map<String, Object> advanceToDate(String fromDate, String toDate) {
         try {
-            if (reader != null) reader.close();
+            String jsonBody = JsonUtils.toJson(Map.of("fromDate", fromDate, "toDate", toDate));
+            Map<String, Object> response = executeRequest("/rooms/advance-to", "POST", jsonBody, JsonUtils.mapType());
+            return Boolean.TRUE.equals(response.get("success")) ? response : null;
         } catch (Exception e) {
-            logger.warn("Error closing reader: {}", e.getMessage());
+            logger.error("❌ Ошибка перехода на дату {}: {}", toDate, e.getMessage());
+            return null;
         }
+    }
 
+    /**
+     * Проверяет доступность сервера
+     *
+     * @return true если сервер доступен, false в противном случае
+     */
+    public boolean isServerAvailable() {
         try {
-            if (connection != null) connection.disconnect();
-        } catch (Exception e) {
-            logger.warn("Error disconnecting connection: {}", e.getMessage());
+            // Пробуем получить список клиентов - быстрый endpoint для проверки
+            String response = executeRequest("/clients", "GET", null);
+            return response != null;
+
+        } catch (ServerException e) {
+            // Ожидаемые сетевые ошибки
+            logger.warn("Server unavailable: {} (HTTP {})", e.getMessage(), e.getStatusCode());
+            return false;
+
+        } catch (HotelException e) {
+            // Непредвиденные ошибки приложения
+            logger.error("Application error while checking server: {}", e.getMessage());
+            return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.hotel.client.service;
 
+import com.hotel.client.exception.HotelException;
 import com.hotel.client.model.Client;
+import com.hotel.client.model.Page;
 import com.hotel.client.util.JsonUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -37,7 +39,7 @@ public class BookingService {
             String jsonBody = JsonUtils.toJson(client);
             logger.debug("📨 Отправка запроса на заселение: {}", jsonBody);
 
-            String response = apiService.executeRequest("/bookings/check-in", "POST", jsonBody);
+            String response = apiService.executeIdempotentRequest("/bookings/check-in", "POST", jsonBody);
             boolean success = response != null && response.contains("\"success\":true");
 
             if (success) {
@@ -65,7 +67,7 @@ public class BookingService {
             requestData.put("passportNumber", passportNumber);
 
             String jsonBody = JsonUtils.toJson(requestData);
-            String response = apiService.executeRequest("/bookings/check-out", "POST", jsonBody);
+            String response = apiService.executeIdempotentRequest("/bookings/check-out", "POST", jsonBody);
 
             boolean success = response != null && response.contains("\"success\":true");
 
@@ -112,36 +114,38 @@ public class BookingService {
     public List<Map<String, Object>> getAllBookingHistory() {
         logger.info("🔄 Получение всей истории бронирований");
         try {
-            String response = apiService.executeRequest("/bookings/history", "GET", null);
-            if (response != null && response.startsWith("[")) {
-                List<Map<String, Object>> history = JsonUtils.fromJsonListToMap(response);
-                logger.info("✅ Успешно загружено {} записей истории", history.size());
-                return history;
-            } else {
-                logger.error("❌ Сервер вернул некорректный ответ для истории бронирований: {}", response);
-                return new ArrayList<>();
-            }
+            List<Map<String, Object>> history = apiService.executeRequest("/bookings/history", "GET", null,
+                    JsonUtils.listType(Map.class));
+            logger.info("✅ Успешно загружено {} записей истории", history.size());
+            return history;
         } catch (Exception e) {
             logger.error("❌ Ошибка получения истории бронирований: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Получает страницу истории бронирований, от поздних заездов к ранним
+     *
+     * @param after курсор из предыдущей страницы (null - первая страница)
+     */
+    public Page<Map<String, Object>> getBookingHistoryPage(String after, int limit) throws HotelException {
+        Page<Map<String, Object>> page = apiService.executeRequest("/bookings/history" + ApiService.pageQuery(after, limit), "GET", null,
+                JsonUtils.pageType(Map.class));
+        logger.debug("Загружена страница истории: {} записей", page.getItems().size());
+        return page;
+    }
+
     /**
      * Получает историю бронирований для конкретного номера
      */
     public List<Map<String, Object>> getBookingHistoryByRoom(int roomNumber) {
         logger.info("🔄 Получение истории бронирований для номера {}", roomNumber);
         try {
-            String response = apiService.executeRequest("/bookings/history/room/" + roomNumber, "GET", null);
-            if (response != null && response.startsWith("[")) {
-                List<Map<String, Object>> history = JsonUtils.fromJsonListToMap(response);
-                logger.info("✅ Успешно загружено {} записей для номера {}", history.size(), roomNumber);
-                return history;
-            } else {
-                logger.error("❌ Сервер вернул некорректный ответ для истории номера {}: {}", roomNumber, response);
-                return new ArrayList<>();
-            }
+            List<Map<String, Object>> history = apiService.executeRequest("/bookings/history/room/" + roomNumber, "GET", null,
+                    JsonUtils.listType(Map.class));
+            logger.info("✅ Успешно загружено {} записей для номера {}", history.size(), roomNumber);
+            return history;
         } catch (Exception e) {
             logger.error("❌ Ошибка получения истории для номера {}: {}", roomNumber, e.getMessage(), e);
             return new ArrayList<>();
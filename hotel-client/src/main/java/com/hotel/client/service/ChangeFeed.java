@@ -0,0 +1,189 @@
+package com.hotel.client.service;
+
+import com.hotel.client.config.AppConfig;
+import com.hotel.client.model.ChangeEvent;
+import com.hotel.client.util.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Подписка на ленту изменений сервера (Server-Sent Events).
+ * Читает поток в отдельном потоке, при обрыве переподключается с Last-Event-ID,
+ * чтобы сервер дослал пропущенные события.
+ * Слушатели вызываются в потоке чтения.
+ */
+public class ChangeFeed {
+    private static final Logger logger = LogManager.getLogger(ChangeFeed.class);
+
+    // Сервер шлет комментарий каждые 25 с - дольше тишины быть не должно
+    private static final int READ_TIMEOUT_MS = 60_000;
+    private static final long MIN_RETRY_DELAY_MS = 1_000;
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private final ApiService apiService;
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile HttpURLConnection connection;
+    private Thread thread;
+    private String lastEventId;
+
+    public ChangeFeed(ApiService apiService) {
+        this.apiService = apiService;
+    }
+
+    public void addListener(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "change-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        HttpURLConnection current = connection;
+        if (current != null) {
+            current.disconnect();
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Поток открыт: события приходят без опроса сервера
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void run() {
+        long retryDelay = MIN_RETRY_DELAY_MS;
+        while (running) {
+            try {
+                read();
+                retryDelay = MIN_RETRY_DELAY_MS;
+            } catch (IOException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Лента изменений недоступна: {}, повтор через {} мс", e.getMessage(), retryDelay);
+            } finally {
+                connected = false;
+                connection = null;
+            }
+
+            try {
+                Thread.sleep(retryDelay);
+            } catch (InterruptedException e) {
+                break;
+            }
+            retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+        }
+        logger.info("Лента изменений остановлена");
+    }
+
+    /**
+     * Одно подключение: читает события до закрытия потока сервером
+     */
+    private void read() throws IOException {
+        HttpURLConnection current = (HttpURLConnection) new URL(AppConfig.API_BASE_URL + "/events").openConnection();
+        connection = current;
+        String authorization = apiService.authorizationHeader();
+        current.setRequestProperty("Authorization", authorization);
+        current.setRequestProperty("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            current.setRequestProperty("Last-Event-ID", lastEventId);
+        }
+        current.setConnectTimeout(AppConfig.API_TIMEOUT);
+        current.setReadTimeout(READ_TIMEOUT_MS);
+
+        int responseCode = current.getResponseCode();
+        if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
+            apiService.authorizationRejected(authorization);
+        }
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            throw new IOException("HTTP " + responseCode);
+        }
+
+        connected = true;
+        logger.info("Подключена лента изменений (последнее событие: {})", lastEventId);
+        // Без Last-Event-ID сервер не дошлет изменения, сделанные до подключения (в том числе после
+        // первой загрузки списков) - перечитываем все
+        if (lastEventId == null) {
+            dispatch(new ChangeEvent(null, ChangeEvent.RESYNC, Map.of()));
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(current.getInputStream(), StandardCharsets.UTF_8))) {
+            String id = null;
+            String type = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (type != null) {
+                        dispatch(parse(id, type, data.toString()));
+                        if (id != null) {
+                            lastEventId = id;
+                        }
+                    }
+                    id = null;
+                    type = null;
+                    data.setLength(0);
+                } else if (line.startsWith(":")) {
+                    // Комментарий (подключение, heartbeat)
+                } else if (line.startsWith("id:")) {
+                    id = field(line, 3);
+                } else if (line.startsWith("event:")) {
+                    type = field(line, 6);
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(field(line, 5));
+                }
+            }
+        }
+    }
+
+    private static String field(String line, int nameLength) {
+        String value = line.substring(nameLength);
+        return value.startsWith(" ") ? value.substring(1) : value;
+    }
+
+    private ChangeEvent parse(String id, String type, String data) {
+        Map<String, Object> payload = data.isEmpty() ? Map.of() : JsonUtils.fromJsonToMap(data);
+        return new ChangeEvent(id, type, payload);
+    }
+
+    private void dispatch(ChangeEvent event) {
+        logger.debug("Событие {}", event);
+        for (Consumer<ChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                logger.error("Ошибка обработки события {}: {}", event.getType(), e.getMessage());
+            }
+        }
+    }
+}
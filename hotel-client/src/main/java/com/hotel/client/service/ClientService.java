@@ -1,10 +1,14 @@
 package com.hotel.client.service;
 
+import com.hotel.client.exception.HotelException;
 import com.hotel.client.model.Client;
+import com.hotel.client.model.Page;
 import com.hotel.client.util.JsonUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 public class ClientService {
@@ -18,24 +22,49 @@ public class ClientService {
     }
 
     public List<Client> getAllClients() {
-        logger.info("🔄 Получаем список всех клиентов");
         try {
-            String response = apiService.executeRequest("/clients", "GET", null);
-
-            if (response != null && response.startsWith("[")) {
-                List<Client> clients = JsonUtils.fromJsonList(response, Client.class);
-                logger.info("✅ Успешно загружено {} клиентов", clients.size());
-                return clients;
-            } else {
-                logger.error("❌ Сервер вернул некорректный ответ: {}", response);
-                return List.of();
-            }
+            return fetchAllClients();
         } catch (Exception e) {
             logger.error("❌ Ошибка получения клиентов: {}", e.getMessage(), e);
             return List.of();
         }
     }
 
+    /**
+     * Как getAllClients, но ошибка не подменяется пустым списком
+     */
+    public List<Client> fetchAllClients() throws HotelException {
+        logger.info("🔄 Получаем список всех клиентов");
+        List<Client> clients = apiService.executeRequest("/clients", "GET", null, JsonUtils.listType(Client.class));
+        logger.info("✅ Успешно загружено {} клиентов", clients.size());
+        return clients;
+    }
+
+    /**
+     * Получает страницу клиентов
+     *
+     * @param after курсор из предыдущей страницы (null - первая страница)
+     */
+    public Page<Client> getClientsPage(String after, int limit) throws HotelException {
+        Page<Client> page = apiService.executeRequest("/clients" + ApiService.pageQuery(after, limit), "GET", null,
+                JsonUtils.pageType(Client.class));
+        logger.debug("Загружена страница клиентов: {} записей", page.getItems().size());
+        return page;
+    }
+
+    /**
+     * Поиск клиентов на сервере по началу фамилии, имени или номера паспорта
+     */
+    public List<Client> searchClients(String query, int limit) {
+        try {
+            String endpoint = "/clients/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8) + "&limit=" + limit;
+            return apiService.executeRequest(endpoint, "GET", null, JsonUtils.listType(Client.class));
+        } catch (Exception e) {
+            logger.error("❌ Ошибка поиска клиентов: {}", e.getMessage(), e);
+            return List.of();
+        }
+    }
+
     public boolean addClient(Client client) {
         logger.info("👤 Добавляем клиента: {} {} (паспорт: {})",
                 client.getFirstName(), client.getLastName(), client.getPassportNumber());
@@ -114,7 +143,7 @@ public class ClientService {
 
         try {
             String jsonBody = String.format("{\"passportNumber\":\"%s\"}", passportNumber);
-            String response = apiService.executeRequest("/bookings/check-out", "POST", jsonBody);
+            String response = apiService.executeIdempotentRequest("/bookings/check-out", "POST", jsonBody);
             boolean success = response != null && response.contains("\"success\":true");
 
             if (success) {
@@ -0,0 +1,401 @@
+package com.hotel.client.service;
+
+import com.hotel.client.exception.HotelException;
+import com.hotel.client.model.ChangeEvent;
+import com.hotel.client.model.Client;
+import com.hotel.client.model.Room;
+import com.hotel.client.model.Staff;
+import com.hotel.client.util.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Номера, клиенты и сотрудники, общие для всех форм и виджетов клиента.
+ * Каждый список хранится одним снимком и читается с сервера не чаще одного раза за обновление:
+ * одновременные запросы еще не загруженного списка ждут одну общую загрузку.
+ * Дальше снимки поддерживаются событиями ленты изменений, а успешная запись этого клиента
+ * сбрасывает затронутые списки, и они перечитываются.
+ * Если загрузка не удалась, остается прежний снимок, помеченный устаревшим, а список
+ * с подписчиками перечитывается повторно с растущей задержкой.
+ * Подписчики вызываются в том потоке, где список изменился: UI сам переключается в EDT
+ */
+public class DataStore {
+    private static final Logger logger = LogManager.getLogger(DataStore.class);
+
+    public static final String ROOMS = "rooms";
+    public static final String CLIENTS = "clients";
+    public static final String STAFF = "staff";
+
+    private static final long MIN_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 30000;
+
+    private static DataStore instance;
+
+    private final ExecutorService executor;
+    private final CachedList<Integer, Room> rooms;
+    private final CachedList<String, Client> clients;
+    private final CachedList<String, Staff> staff;
+
+    public static synchronized DataStore getInstance() {
+        if (instance == null) {
+            instance = new DataStore(ApiService.getInstance());
+        }
+        return instance;
+    }
+
+    private DataStore(ApiService apiService) {
+        RoomService roomService = new RoomService(apiService);
+        ClientService clientService = new ClientService(apiService);
+        StaffService staffService = new StaffService(apiService);
+
+        rooms = new CachedList<>(ROOMS, roomService::fetchAllRooms, Room::getRoomNumber, new TreeMap<>());
+        clients = new CachedList<>(CLIENTS, clientService::fetchAllClients, Client::getPassportNumber,
+                new LinkedHashMap<>());
+        staff = new CachedList<>(STAFF, staffService::fetchAllStaff, Staff::getPassportNumber,
+                new LinkedHashMap<>());
+
+        // По потоку на список: разные списки загружаются параллельно
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "data-store-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        apiService.addWriteListener(this::written);
+    }
+
+    /**
+     * Чтение списка с сервера: ошибка выбрасывается, а не подменяется пустым списком
+     */
+    @FunctionalInterface
+    private interface Fetch<T> {
+        List<T> get() throws HotelException;
+    }
+
+    /**
+     * Один список: снимок, его загрузка и подписчики
+     */
+    private static final class CachedList<K, T> {
+        private final String name;
+        private final Fetch<T> fetch;
+        private final Function<T, K> key;
+        private final Map<K, T> items;
+        private final List<Runnable> subscribers = new CopyOnWriteArrayList<>();
+        // События, пришедшие во время загрузки: загруженный список может их не содержать
+        private final List<ChangeEvent> eventsDuringLoad = new ArrayList<>();
+        private boolean loaded;
+        private boolean stale;
+        // Увеличивается при каждом сбросе: загрузка, начатая до сброса, не делает список актуальным
+        private long generation;
+        private CompletableFuture<List<T>> loading;
+        // Задержка следующего повтора после неудачной загрузки (0 - последняя загрузка удалась)
+        private long retryDelay;
+        private boolean retryScheduled;
+
+        private CachedList(String name, Fetch<T> fetch, Function<T, K> key, Map<K, T> items) {
+            this.name = name;
+            this.fetch = fetch;
+            this.key = key;
+            this.items = items;
+        }
+    }
+
+    public CompletableFuture<List<Room>> loadRooms() {
+        return load(rooms);
+    }
+
+    public CompletableFuture<List<Client>> loadClients() {
+        return load(clients);
+    }
+
+    public CompletableFuture<List<Staff>> loadStaff() {
+        return load(staff);
+    }
+
+    /**
+     * Текущий снимок без загрузки (пустой, если список еще не загружен)
+     */
+    public List<Room> getRooms() {
+        return snapshot(rooms);
+    }
+
+    public List<Client> getClients() {
+        return snapshot(clients);
+    }
+
+    public List<Staff> getStaff() {
+        return snapshot(staff);
+    }
+
+    public synchronized Room getRoom(Integer roomNumber) {
+        return rooms.items.get(roomNumber);
+    }
+
+    public synchronized boolean isLoaded(String collection) {
+        return collection(collection).loaded;
+    }
+
+    public synchronized boolean isLoading(String collection) {
+        return collection(collection).loading != null;
+    }
+
+    /**
+     * Подписчик вызывается, когда список изменился, начал или закончил загружаться
+     */
+    public void subscribe(String collection, Runnable subscriber) {
+        collection(collection).subscribers.add(subscriber);
+    }
+
+    /**
+     * Сбрасывает список: следующий запрос перечитает его с сервера.
+     * Если у списка есть подписчики, он перечитывается сразу
+     */
+    public void invalidate(String collection) {
+        CachedList<?, ?> target = collection(collection);
+        synchronized (this) {
+            target.generation++;
+            target.stale = true;
+        }
+        if (!target.subscribers.isEmpty()) {
+            load(target);
+        }
+    }
+
+    /**
+     * Применяет событие ленты изменений
+     */
+    public void apply(ChangeEvent event) {
+        switch (event.getType()) {
+            case ChangeEvent.ROOMS_RESET:
+                invalidate(ROOMS);
+                break;
+            case ChangeEvent.CLIENTS_RESET:
+                invalidate(CLIENTS);
+                break;
+            case ChangeEvent.OCCUPANCY_CHANGED:
+                invalidate(ROOMS);
+                invalidate(CLIENTS);
+                break;
+            case ChangeEvent.STAFF_ADDED:
+            case ChangeEvent.STAFF_RESET:
+                invalidate(STAFF);
+                break;
+            case ChangeEvent.RESYNC:
+                invalidate(ROOMS);
+                invalidate(CLIENTS);
+                invalidate(STAFF);
+                break;
+            case ChangeEvent.ROOM_STATUS:
+                applyChange(event, rooms);
+                break;
+            case ChangeEvent.ROOM_CLEARED:
+                applyChange(event, rooms, clients);
+                break;
+            case ChangeEvent.CLIENT_SAVED:
+            case ChangeEvent.CLIENT_REMOVED:
+                applyChange(event, clients);
+                break;
+            default:
+                // Бронирования в хранилище не входят
+        }
+    }
+
+    private void applyChange(ChangeEvent event, CachedList<?, ?>... affected) {
+        synchronized (this) {
+            for (CachedList<?, ?> target : affected) {
+                if (target.loading != null) {
+                    target.eventsDuringLoad.add(event);
+                }
+            }
+            applyToItems(event);
+        }
+        for (CachedList<?, ?> target : affected) {
+            notifySubscribers(target);
+        }
+    }
+
+    /**
+     * Изменение одного номера или клиента (под блокировкой хранилища)
+     */
+    private void applyToItems(ChangeEvent event) {
+        Map<String, Object> data = event.getData();
+        switch (event.getType()) {
+            case ChangeEvent.ROOM_STATUS: {
+                Room room = rooms.items.get(intValue(data.get("roomNumber")));
+                if (room != null) {
+                    room.setStatus((String) data.get("status"));
+                }
+                break;
+            }
+            case ChangeEvent.ROOM_CLEARED: {
+                Integer roomNumber = intValue(data.get("roomNumber"));
+                Room room = rooms.items.get(roomNumber);
+                if (room != null) {
+                    room.setStatus("free");
+                }
+                clients.items.values().removeIf(client -> roomNumber != null && Objects.equals(roomNumber, client.getRoomNumber()));
+                break;
+            }
+            case ChangeEvent.CLIENT_SAVED: {
+                Client client = JsonUtils.getObjectMapper().convertValue(data.get("client"), Client.class);
+                clients.items.put(client.getPassportNumber(), client);
+                break;
+            }
+            case ChangeEvent.CLIENT_REMOVED:
+                clients.items.remove((String) data.get("passportNumber"));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Успешный изменяющий запрос этого клиента: сбрасываем списки, которые он мог изменить.
+     * Лента изменений сообщит о том же, но позже - сброс нужен, чтобы сразу видеть свою запись
+     */
+    private void written(String endpoint) {
+        if (endpoint.startsWith("/bookings/check-in") || endpoint.startsWith("/bookings/group-check-in")
+                || endpoint.startsWith("/bookings/check-out") || endpoint.startsWith("/rooms/advance-")) {
+            invalidate(ROOMS);
+            invalidate(CLIENTS);
+        } else if (endpoint.startsWith("/rooms/check-availability")) {
+            // Только чтение
+        } else if (endpoint.startsWith("/rooms")) {
+            invalidate(ROOMS);
+        } else if (endpoint.startsWith("/clients")) {
+            invalidate(CLIENTS);
+        } else if (endpoint.startsWith("/staff")) {
+            invalidate(STAFF);
+        }
+    }
+
+    private <K, T> CompletableFuture<List<T>> load(CachedList<K, T> target) {
+        CompletableFuture<List<T>> result;
+        synchronized (this) {
+            if (target.loaded && !target.stale) {
+                return CompletableFuture.completedFuture(new ArrayList<>(target.items.values()));
+            }
+            if (target.loading != null) {
+                return target.loading;
+            }
+            long generation = target.generation;
+            result = CompletableFuture.supplyAsync(() -> fetch(target), executor)
+                    .thenApply(list -> install(target, generation, list))
+                    .whenComplete((list, error) -> loadFinished(target, error));
+            target.loading = result;
+        }
+        notifySubscribers(target);
+        return result;
+    }
+
+    private static <T> List<T> fetch(CachedList<?, T> target) {
+        try {
+            return target.fetch.get();
+        } catch (HotelException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private synchronized <K, T> List<T> install(CachedList<K, T> target, long generation, List<T> list) {
+        target.items.clear();
+        for (T item : list) {
+            target.items.put(target.key.apply(item), item);
+        }
+        for (ChangeEvent event : target.eventsDuringLoad) {
+            applyToItems(event);
+        }
+        target.eventsDuringLoad.clear();
+        target.loaded = true;
+        // Список сбросили во время загрузки - он мог прочитаться до записи
+        target.stale = generation != target.generation;
+        logger.debug("Загружен список {}: {} записей", target.name, target.items.size());
+        return new ArrayList<>(target.items.values());
+    }
+
+    private void loadFinished(CachedList<?, ?> target, Throwable error) {
+        boolean reload = false;
+        long retryDelay = 0;
+        synchronized (this) {
+            target.loading = null;
+            if (error != null) {
+                // Прежний снимок остается, но события, пришедшие во время загрузки, к нему уже
+                // применены - он лишь устарел и будет перечитан
+                target.eventsDuringLoad.clear();
+                target.stale = true;
+                target.retryDelay = target.retryDelay == 0
+                        ? MIN_RETRY_DELAY_MS
+                        : Math.min(target.retryDelay * 2, MAX_RETRY_DELAY_MS);
+                if (!target.subscribers.isEmpty() && !target.retryScheduled) {
+                    target.retryScheduled = true;
+                    retryDelay = target.retryDelay;
+                }
+                logger.error("Ошибка загрузки списка {}: {}, повтор через {} мс", target.name,
+                        error.getMessage(), target.retryDelay);
+            } else {
+                target.retryDelay = 0;
+                reload = target.stale && !target.subscribers.isEmpty();
+            }
+        }
+        notifySubscribers(target);
+        if (retryDelay > 0) {
+            CompletableFuture.runAsync(() -> retry(target),
+                    CompletableFuture.delayedExecutor(retryDelay, TimeUnit.MILLISECONDS, executor));
+        } else if (reload) {
+            load(target);
+        }
+    }
+
+    private void retry(CachedList<?, ?> target) {
+        synchronized (this) {
+            target.retryScheduled = false;
+        }
+        load(target);
+    }
+
+    private synchronized <T> List<T> snapshot(CachedList<?, T> target) {
+        return new ArrayList<>(target.items.values());
+    }
+
+    private void notifySubscribers(CachedList<?, ?> target) {
+        for (Runnable subscriber : target.subscribers) {
+            try {
+                subscriber.run();
+            } catch (Exception e) {
+                logger.error("Ошибка подписчика списка {}: {}", target.name, e.getMessage());
+            }
+        }
+    }
+
+    private CachedList<?, ?> collection(String name) {
+        switch (name) {
+            case ROOMS:
+                return rooms;
+            case CLIENTS:
+                return clients;
+            case STAFF:
+                return staff;
+            default:
+                throw new IllegalArgumentException("Неизвестный список: " + name);
+        }
+    }
+
+    private static Integer intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.hotel.client.service;
+
+import com.hotel.client.util.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+
+public class ReportService {
+    private static final Logger logger = LogManager.getLogger(ReportService.class);
+
+    private final ApiService apiService;
+
+    public ReportService(ApiService apiService) {
+        this.apiService = apiService;
+    }
+
+    /**
+     * Сводный отчет, посчитанный на сервере
+     *
+     * @return сводка или null при ошибке
+     */
+    public Map<String, Object> getSummary() {
+        try {
+            String response = apiService.executeRequest("/reports/summary", "GET", null);
+            Map<String, Object> summary = JsonUtils.fromJsonToMap(response);
+            return summary.isEmpty() ? null : summary;
+        } catch (Exception e) {
+            logger.error("❌ Ошибка получения отчета: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.hotel.client.service;
 
+import com.hotel.client.exception.HotelException;
 import com.hotel.client.model.Room;
 import com.hotel.client.util.JsonUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -22,34 +25,31 @@ public class RoomService {
     }
 
     public List<Room> getAllRooms() {
-        logger.info("🔄 Получаем список всех номеров");
         try {
-            String response = apiService.executeRequest("/rooms", "GET", null);
-            if (response != null && response.startsWith("[")) {
-                List<Room> rooms = JsonUtils.fromJsonList(response, Room.class);
-                logger.info("✅ Успешно загружено {} номеров", rooms.size());
-                return rooms;
-            } else {
-                logger.error("❌ Сервер вернул некорректный ответ для номеров: {}", response);
-                return new ArrayList<>();
-            }
+            return fetchAllRooms();
         } catch (Exception e) {
             logger.error("❌ Ошибка получения номеров: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Как getAllRooms, но ошибка не подменяется пустым списком
+     */
+    public List<Room> fetchAllRooms() throws HotelException {
+        logger.info("🔄 Получаем список всех номеров");
+        List<Room> rooms = apiService.executeRequest("/rooms", "GET", null, JsonUtils.listType(Room.class));
+        logger.info("✅ Успешно загружено {} номеров", rooms.size());
+        return rooms;
+    }
+
     public List<Room> getFreeRooms() {
         logger.info("🔄 Получаем список свободных номеров");
         try {
-            String response = apiService.executeRequest("/rooms/free", "GET", null);
-            if (response != null && response.startsWith("[")) {
-                List<Room> rooms = JsonUtils.fromJsonList(response, Room.class);
-                logger.info("✅ Найдено {} свободных номеров", rooms.size());
-                return rooms;
-            } else {
-                return new ArrayList<>();
-            }
+            List<Room> rooms = apiService.executeRequest("/rooms/free", "GET", null,
+                    JsonUtils.listType(Room.class));
+            logger.info("✅ Найдено {} свободных номеров", rooms.size());
+            return rooms;
         } catch (Exception e) {
             logger.error("❌ Ошибка получения свободных номеров: {}", e.getMessage(), e);
             return new ArrayList<>();
@@ -59,14 +59,10 @@ public class RoomService {
     public List<Room> getOccupiedRooms() {
         logger.info("🔄 Получаем список занятых номеров");
         try {
-            String response = apiService.executeRequest("/rooms/occupied", "GET", null);
-            if (response != null && response.startsWith("[")) {
-                List<Room> rooms = JsonUtils.fromJsonList(response, Room.class);
-                logger.info("✅ Найдено {} занятых номеров", rooms.size());
-                return rooms;
-            } else {
-                return new ArrayList<>();
-            }
+            List<Room> rooms = apiService.executeRequest("/rooms/occupied", "GET", null,
+                    JsonUtils.listType(Room.class));
+            logger.info("✅ Найдено {} занятых номеров", rooms.size());
+            return rooms;
         } catch (Exception e) {
             logger.error("❌ Ошибка получения занятых номеров: {}", e.getMessage(), e);
             return new ArrayList<>();
@@ -186,21 +182,23 @@ public class RoomService {
     }
 
     /**
-     * Получает доступные номера на указанные даты
+     * Получает доступные номера на указанные даты одним запросом к серверу
      */
     public List<Room> getAvailableRooms(String roomType, String checkInDate, String checkOutDate) {
         logger.info("🔄 Получаем доступные номера типа {} с {} по {}",
                 roomType, checkInDate, checkOutDate);
         try {
-            List<Room> roomsByType = getRoomsByType(roomType);
-            List<Room> availableRooms = new ArrayList<>();
-
-            for (Room room : roomsByType) {
-                if (isRoomAvailable(room.getRoomNumber(), checkInDate, checkOutDate)) {
-                    availableRooms.add(room);
-                }
+            StringBuilder endpoint = new StringBuilder("/rooms/available?");
+            if (roomType != null) {
+                endpoint.append("type=").append(URLEncoder.encode(roomType, StandardCharsets.UTF_8)).append('&');
+            }
+            if (checkInDate != null && checkOutDate != null) {
+                endpoint.append("from=").append(URLEncoder.encode(checkInDate, StandardCharsets.UTF_8))
+                        .append("&to=").append(URLEncoder.encode(checkOutDate, StandardCharsets.UTF_8));
             }
 
+            List<Room> availableRooms = apiService.executeRequest(endpoint.toString(), "GET", null,
+                    JsonUtils.listType(Room.class));
             logger.info("✅ Найдено {} доступных номеров", availableRooms.size());
             return availableRooms;
 
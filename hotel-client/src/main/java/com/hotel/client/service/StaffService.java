@@ -1,5 +1,6 @@
 package com.hotel.client.service;
 
+import com.hotel.client.exception.HotelException;
 import com.hotel.client.model.Staff;
 import com.hotel.client.util.JsonUtils;
 import org.apache.logging.log4j.LogManager;
@@ -18,23 +19,24 @@ public class StaffService {
     }
 
     public List<Staff> getAllStaff() {
-        logger.info("🔄 Получаем список всех сотрудников");
         try {
-            String response = apiService.executeRequest("/staff", "GET", null);
-            if (response != null && response.startsWith("[")) {
-                List<Staff> staffList = JsonUtils.fromJsonList(response, Staff.class);
-                logger.info("✅ Успешно загружено {} сотрудников", staffList.size());
-                return staffList;
-            } else {
-                logger.error("❌ Сервер вернул некорректный ответ: {}", response);
-                return List.of();
-            }
+            return fetchAllStaff();
         } catch (Exception e) {
             logger.error("❌ Ошибка получения сотрудников: {}", e.getMessage(), e);
             return List.of();
         }
     }
 
+    /**
+     * Как getAllStaff, но ошибка не подменяется пустым списком
+     */
+    public List<Staff> fetchAllStaff() throws HotelException {
+        logger.info("🔄 Получаем список всех сотрудников");
+        List<Staff> staffList = apiService.executeRequest("/staff", "GET", null, JsonUtils.listType(Staff.class));
+        logger.info("✅ Успешно загружено {} сотрудников", staffList.size());
+        return staffList;
+    }
+
     public boolean addStaff(Staff staff) {
         logger.info("👤 Добавляем сотрудника: {} {} (паспорт: {})",
                 staff.getFirstName(), staff.getLastName(), staff.getPassportNumber());
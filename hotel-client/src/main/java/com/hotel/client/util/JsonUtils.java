@@ -2,11 +2,14 @@ package com.hotel.client.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hotel.client.model.Page;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -19,9 +22,8 @@ public class JsonUtils {
     private static final ObjectMapper objectMapper = createObjectMapper();
 
     private static ObjectMapper createObjectMapper() {
+        // Без INDENT_OUTPUT: JSON уходит в тела запросов, отступы только увеличивают их размер
         ObjectMapper mapper = new ObjectMapper();
-        // Настройки для красивого форматирования JSON (опционально)
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
         // Игнорировать неизвестные свойства (чтобы не ломаться при изменении API)
         mapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         return mapper;
@@ -100,6 +102,30 @@ public class JsonUtils {
         }
     }
 
+    // === ПОТОКОВОЕ ЧТЕНИЕ (ОТВЕТЫ ApiService) ===
+
+    /**
+     * Десериализовать JSON из потока (например, тела HTTP ответа) в объект типа type.
+     * Поток разбирается по мере чтения, без промежуточной строки или массива байт
+     */
+    public static <T> T fromJson(InputStream in, JavaType type) throws IOException {
+        return objectMapper.readValue(in, type);
+    }
+
+    // === ТИПЫ ДЛЯ ТИПИЗИРОВАННЫХ ЗАПРОСОВ ApiService ===
+
+    public static JavaType listType(Class<?> clazz) {
+        return objectMapper.getTypeFactory().constructCollectionType(List.class, clazz);
+    }
+
+    public static JavaType pageType(Class<?> clazz) {
+        return objectMapper.getTypeFactory().constructParametricType(Page.class, clazz);
+    }
+
+    public static JavaType mapType() {
+        return objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class);
+    }
+
     public static ObjectMapper getObjectMapper() {
         return objectMapper;
     }
@@ -0,0 +1,112 @@
+package com.hotel.client.view;
+
+import com.hotel.client.config.AppConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Фоновая загрузка данных для форм и виджетов.
+ * Запрос к серверу выполняется в общем пуле из UI_LOADER_THREADS потоков, результат
+ * применяется к компонентам в EDT. Новая загрузка отменяет незавершенную предыдущую
+ * того же загрузчика, и ее результат уже не попадает на экран.
+ * Методы вызываются в потоке EDT.
+ */
+public class BackgroundLoader {
+    private static final Logger logger = LogManager.getLogger(BackgroundLoader.class);
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private final String name;
+    private Future<?> current;
+    // Номер последней запущенной загрузки: результаты более ранних отбрасываются
+    private long generation;
+
+    public BackgroundLoader(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Запускает загрузку, отменяя предыдущую незавершенную
+     *
+     * @param fetch     чтение данных (в фоновом потоке)
+     * @param onSuccess применение результата (в EDT)
+     * @param onError   обработка ошибки чтения (в EDT)
+     * @param onFinish  вызывается в EDT после onSuccess или onError; для отмененной загрузки не вызывается
+     */
+    public <T> void load(Callable<T> fetch, Consumer<T> onSuccess, Consumer<Exception> onError, Runnable onFinish) {
+        cancel();
+        long token = generation;
+        current = EXECUTOR.submit(() -> {
+            long started = System.nanoTime();
+            T result = null;
+            Exception failure = null;
+            try {
+                result = fetch.call();
+            } catch (Exception e) {
+                failure = e;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                logger.debug("Загрузка {} отменена", name);
+                return;
+            }
+            logger.debug("Загрузка {} выполнена за {} мс", name, (System.nanoTime() - started) / 1_000_000);
+
+            T loaded = result;
+            Exception error = failure;
+            SwingUtilities.invokeLater(() -> {
+                if (token != generation) {
+                    return;
+                }
+                current = null;
+                try {
+                    if (error == null) {
+                        onSuccess.accept(loaded);
+                    } else {
+                        onError.accept(error);
+                    }
+                } finally {
+                    onFinish.run();
+                }
+            });
+        });
+    }
+
+    /**
+     * Отменяет незавершенную загрузку (например, при закрытии формы)
+     */
+    public void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "ui-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(AppConfig.UI_LOADER_THREADS, AppConfig.UI_LOADER_THREADS,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -1,24 +1,48 @@
 // com/hotel/client/view/BaseTableForm.java
 package com.hotel.client.view;
 
+import com.hotel.client.exception.HotelException;
+import com.hotel.client.model.Page;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import javax.swing.*;
 import javax.swing.border.Border;
 import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * Базовый класс для форм с таблицами с градиентным дизайном
  */
 public abstract class BaseTableForm extends JDialog {
+    private static final Logger logger = LogManager.getLogger(BaseTableForm.class);
+
     protected JTable table;
     protected JButton refreshButton;
     protected JButton closeButton;
     protected JButton exportButton;
     protected JLabel countLabel;
+    protected JScrollPane scrollPane;
+
+    // Постраничная загрузка: следующая страница подгружается при прокрутке к концу таблицы
+    protected static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 10;
+    private String nextCursor;
+    private boolean hasMorePages;
+
+    // Данные читаются в фоне; пока пустая таблица загружается, вместо нее показывается заглушка
+    protected final BackgroundLoader loader;
+    private final JLabel loadingPlaceholder = new JLabel("Загрузка данных...", JLabel.CENTER);
 
     public BaseTableForm(JFrame parent, String title, int width, int height) {
         super(parent, title, true);
+        loader = new BackgroundLoader(getClass().getSimpleName());
+        loadingPlaceholder.setFont(new Font("Segoe UI", Font.ITALIC, 14));
+        loadingPlaceholder.setForeground(new Color(150, 150, 150));
         setSize(width, height);
         setLocationRelativeTo(parent);
         setResizable(true);
@@ -93,7 +117,7 @@ public abstract class BaseTableForm extends JDialog {
         ));
         tablePanel.setBackground(Color.WHITE);
 
-        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane = new JScrollPane(table);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
         scrollPane.getViewport().setBackground(new Color(248, 249, 250));
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -101,6 +125,12 @@ public abstract class BaseTableForm extends JDialog {
         // Стилизация скроллбара
         JScrollBar verticalScrollBar = scrollPane.getVerticalScrollBar();
         verticalScrollBar.setUnitIncrement(16);
+        verticalScrollBar.addAdjustmentListener(e -> {
+            int remaining = verticalScrollBar.getMaximum() - (e.getValue() + verticalScrollBar.getVisibleAmount());
+            if (remaining <= table.getRowHeight() * PREFETCH_ROWS) {
+                loadNextPage();
+            }
+        });
 
         tablePanel.add(scrollPane, BorderLayout.CENTER);
         return tablePanel;
@@ -130,11 +160,18 @@ public abstract class BaseTableForm extends JDialog {
     }
 
     protected void setupBaseListeners() {
-        refreshButton.addActionListener(e -> loadData());
+        refreshButton.addActionListener(e -> refreshData());
         closeButton.addActionListener(e -> dispose());
         exportButton.addActionListener(e -> showExportMessage());
     }
 
+    /**
+     * Кнопка "Обновить". Формы, которые берут данные из DataStore, сначала сбрасывают свои списки
+     */
+    protected void refreshData() {
+        loadData();
+    }
+
     protected void showExportMessage() {
         JOptionPane.showMessageDialog(this,
                 "Функция экспорта данных в разработке",
@@ -262,6 +299,115 @@ public abstract class BaseTableForm extends JDialog {
         }
     }
 
+    /**
+     * Читает данные в фоновом потоке и применяет их к таблице в EDT.
+     * Новая загрузка отменяет незавершенную предыдущую; пока данные читаются,
+     * кнопка обновления недоступна, а пустая таблица заменена заглушкой
+     *
+     * @param fetch чтение данных; не должно обращаться к компонентам формы
+     * @param apply заполнение таблицы результатом
+     */
+    protected <T> void loadInBackground(Callable<T> fetch, Consumer<T> apply) {
+        setLoading(true);
+        loader.load(fetch, apply, this::handleLoadingError, () -> setLoading(false));
+    }
+
+    private void setLoading(boolean loading) {
+        setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+        if (refreshButton != null) {
+            refreshButton.setEnabled(!loading);
+        }
+        if (loading && countLabel != null) {
+            countLabel.setText("Загрузка...");
+        }
+        if (scrollPane != null) {
+            Component view = loading && table.getRowCount() == 0 ? loadingPlaceholder : table;
+            if (scrollPane.getViewport().getView() != view) {
+                scrollPane.setViewportView(view);
+            }
+        }
+    }
+
+    private void handleLoadingError(Exception e) {
+        // Курсор не сдвинулся: при следующей прокрутке страница запросится снова
+        logger.error("Ошибка загрузки данных формы {}: {}", getTitle(), e.getMessage());
+        updateCountLabel(table.getRowCount(), hasMorePages);
+        showLoadingError("Ошибка загрузки данных: " + e.getMessage());
+    }
+
+    @Override
+    public void dispose() {
+        loader.cancel();
+        super.dispose();
+    }
+
+    /**
+     * Загружает одну страницу строк таблицы. Вызывается в фоновом потоке, поэтому только
+     * читает данные и готовит строки, а в таблицу их добавляет BaseTableForm.
+     * Переопределяют формы, которые читают список постранично.
+     *
+     * @param after курсор из предыдущей страницы (null - первая страница)
+     * @return строки страницы и курсор следующей (null, если страниц больше нет)
+     * @throws HotelException если страницу не удалось прочитать - форма покажет ошибку
+     */
+    protected Page<Object[]> loadPage(String after) throws HotelException {
+        return Page.empty();
+    }
+
+    /**
+     * Очищает таблицу и загружает первую страницу
+     */
+    protected void reloadPages() {
+        reloadPages(null);
+    }
+
+    /**
+     * @param onFirstPage вызывается в EDT, когда первая страница добавлена в таблицу (может быть null)
+     */
+    protected void reloadPages(Runnable onFirstPage) {
+        ((DefaultTableModel) table.getModel()).setRowCount(0);
+        nextCursor = null;
+        hasMorePages = true;
+        loadPageInBackground(onFirstPage);
+    }
+
+    protected void loadNextPage() {
+        if (loader.isLoading() || !hasMorePages) {
+            return;
+        }
+        loadPageInBackground(null);
+    }
+
+    private void loadPageInBackground(Runnable onLoaded) {
+        String after = nextCursor;
+        loadInBackground(() -> loadPage(after), page -> {
+            DefaultTableModel model = (DefaultTableModel) table.getModel();
+            for (Object[] row : page.getItems()) {
+                model.addRow(row);
+            }
+            nextCursor = page.getNextCursor();
+            hasMorePages = nextCursor != null;
+            updateCountLabel(table.getRowCount(), hasMorePages);
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+
+            // Пока строки не заполнили окно, полосы прокрутки нет и дозагрузить по прокрутке нельзя
+            SwingUtilities.invokeLater(() -> {
+                if (hasMorePages && scrollPane != null
+                        && table.getPreferredSize().height <= scrollPane.getViewport().getHeight()) {
+                    loadNextPage();
+                }
+            });
+        });
+    }
+
+    protected void updateCountLabel(int count, boolean hasMore) {
+        if (countLabel != null) {
+            countLabel.setText(hasMore ? "Загружено записей: " + count + "+" : "Всего записей: " + count);
+        }
+    }
+
     protected void updateCountLabel(int count) {
         if (countLabel != null) {
             countLabel.setText("Всего записей: " + count);
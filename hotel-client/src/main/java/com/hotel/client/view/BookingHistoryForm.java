@@ -1,5 +1,7 @@
 package com.hotel.client.view;
 
+import com.hotel.client.exception.HotelException;
+import com.hotel.client.model.Page;
 import com.hotel.client.service.ApiService;
 import com.hotel.client.service.BookingService;
 import com.hotel.client.service.RoomService;
@@ -57,24 +59,11 @@ public class BookingHistoryForm extends BaseTableForm {
 
     @Override
     protected void loadData() {
-        try {
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            refreshButton.setEnabled(false);
-
-            List<Map<String, Object>> history = bookingService.getAllBookingHistory();
-            updateBookingHistoryTable(history);
-
-            if (history.isEmpty()) {
+        reloadPages(() -> {
+            if (table.getRowCount() == 0) {
                 showEmptyDataMessage();
             }
-
-        } catch (Exception e) {
-            logger.error("Ошибка загрузки истории бронирований: {}", e.getMessage());
-            showLoadingError("Ошибка загрузки данных: " + e.getMessage());
-        } finally {
-            setCursor(Cursor.getDefaultCursor());
-            refreshButton.setEnabled(true);
-        }
+        });
     }
 
     @Override
@@ -153,16 +142,17 @@ public class BookingHistoryForm extends BaseTableForm {
         return bottomPanel;
     }
 
-    private void updateBookingHistoryTable(List<Map<String, Object>> history) {
-        DefaultTableModel model = (DefaultTableModel) table.getModel();
-        model.setRowCount(0);
+    @Override
+    protected Page<Object[]> loadPage(String after) throws HotelException {
+        Page<Map<String, Object>> page = bookingService.getBookingHistoryPage(after, PAGE_SIZE);
+        List<Object[]> rows = new ArrayList<>(page.getItems().size());
 
         SimpleDateFormat dateFormat = new SimpleDateFormat("dd.MM.yyyy HH:mm");
 
-        for (Map<String, Object> record : history) {
+        for (Map<String, Object> record : page.getItems()) {
             String bookedAt = formatTimestamp(record.get("bookedAt"), dateFormat);
 
-            model.addRow(new Object[]{
+            rows.add(new Object[]{
                     record.get("roomNumber"),
                     record.get("clientPassport"),
                     record.get("checkInDate"),
@@ -171,7 +161,7 @@ public class BookingHistoryForm extends BaseTableForm {
             });
         }
 
-        updateCountLabel(history.size());
+        return new Page<>(rows, page.getNextCursor());
     }
 
     private String formatTimestamp(Object timestamp, SimpleDateFormat dateFormat) {
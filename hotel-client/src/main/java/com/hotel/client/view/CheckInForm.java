@@ -11,11 +11,12 @@ import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
 
 /**
  * Форма для заселения клиента с градиентным дизайном и скроллингом
@@ -206,6 +207,16 @@ public class CheckInForm extends BaseAddForm {
     protected void setupListeners() {
         roomTypeComboBox.addActionListener(e -> loadAvailableRooms());
 
+        // При изменении дат перезапрашиваем свободные номера
+        FocusAdapter datesListener = new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                loadAvailableRooms();
+            }
+        };
+        checkInDateField.addFocusListener(datesListener);
+        checkOutDateField.addFocusListener(datesListener);
+
         checkAvailabilityButton.addActionListener(e -> checkRoomAvailability());
         saveButton.addActionListener(e -> {
             if (validateForm()) {
@@ -277,17 +288,21 @@ public class CheckInForm extends BaseAddForm {
     private void loadAvailableRooms() {
         try {
             String roomType = (String) roomTypeComboBox.getSelectedItem();
+            String checkInDate = checkInDateField.getText().trim();
+            String checkOutDate = checkOutDateField.getText().trim();
+            boolean datesEntered = isDateRangeEntered(checkInDate, checkOutDate);
 
-            // Получаем все номера выбранного типа (только базовую информацию)
-            List<Room> allRooms = roomService.getAllRooms();
-            List<Room> filteredRooms = allRooms.stream()
-                    .filter(room -> roomType.equals(room.getRoomType()))
-                    .collect(Collectors.toList());
+            // Сервер сам отбирает номера типа, свободные на период (без дат - все номера типа)
+            List<Room> filteredRooms = datesEntered
+                    ? roomService.getAvailableRooms(roomType, checkInDate, checkOutDate)
+                    : roomService.getAvailableRooms(roomType, null, null);
 
             roomNumberComboBox.removeAllItems();
 
             if (filteredRooms.isEmpty()) {
-                availabilityLabel.setText("Нет номеров выбранного типа");
+                availabilityLabel.setText(datesEntered
+                        ? "Нет свободных номеров выбранного типа на эти даты"
+                        : "Нет номеров выбранного типа");
                 availabilityLabel.setForeground(new Color(231, 76, 60));
                 return;
             }
@@ -297,9 +312,13 @@ public class CheckInForm extends BaseAddForm {
                 roomNumberComboBox.addItem(room.getRoomNumber());
             }
 
-            // Показываем только общую информацию без проверки доступности
-            availabilityLabel.setText("Доступно номеров: " + filteredRooms.size() + " - нажмите 'Проверить доступность'");
-            availabilityLabel.setForeground(new Color(243, 156, 18));
+            if (datesEntered) {
+                availabilityLabel.setText("Свободно номеров на эти даты: " + filteredRooms.size());
+                availabilityLabel.setForeground(new Color(39, 174, 96));
+            } else {
+                availabilityLabel.setText("Доступно номеров: " + filteredRooms.size() + " - укажите даты или нажмите 'Проверить доступность'");
+                availabilityLabel.setForeground(new Color(243, 156, 18));
+            }
 
         } catch (Exception e) {
             logger.error("Ошибка загрузки номеров: {}", e.getMessage());
@@ -309,6 +328,18 @@ public class CheckInForm extends BaseAddForm {
         }
     }
 
+    /**
+     * Заполнены ли обе даты корректным периодом (без вывода ошибок)
+     */
+    private boolean isDateRangeEntered(String checkInDate, String checkOutDate) {
+        try {
+            return !checkInDate.isEmpty() && !checkOutDate.isEmpty()
+                    && dateFormat.parse(checkOutDate).after(dateFormat.parse(checkInDate));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     private void checkRoomAvailability() {
         try {
             if (roomNumberComboBox.getSelectedItem() == null) {
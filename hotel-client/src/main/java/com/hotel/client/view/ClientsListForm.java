@@ -1,14 +1,19 @@
 package com.hotel.client.view;
 
+import com.hotel.client.exception.HotelException;
 import com.hotel.client.service.ApiService;
 import com.hotel.client.model.Client;
+import com.hotel.client.model.Page;
 import com.hotel.client.service.ClientService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,8 +22,16 @@ import java.util.List;
 public class ClientsListForm extends BaseTableForm {
     private static final Logger logger = LogManager.getLogger(ClientsListForm.class);
 
+    // Сколько совпадений показывать при поиске
+    private static final int SEARCH_LIMIT = 100;
+    private static final int SEARCH_DELAY_MS = 300;
+
     private ApiService apiService;
     private ClientService clientService;
+    private JTextField searchField;
+    private Timer searchTimer;
+    // Читается при загрузке страницы в фоновом потоке
+    private volatile String searchQuery = "";
 
     public ClientsListForm(JFrame parent) {
         super(parent, "Список клиентов", 1200, 700);
@@ -59,48 +72,81 @@ public class ClientsListForm extends BaseTableForm {
 
     @Override
     protected void loadData() {
-        try {
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            refreshButton.setEnabled(false);
-
-            List<Client> clients = clientService.getAllClients();
-            DefaultTableModel model = (DefaultTableModel) table.getModel();
-            model.setRowCount(0);
-
-            for (Client client : clients) {
-                String status = getClientStatus(client);
-                model.addRow(new Object[]{
-                        client.getPassportNumber(),
-                        client.getFirstName(),
-                        client.getLastName(),
-                        formatPhoneNumber(client.getPhoneNumber()),
-                        client.getEmail(),
-                        client.getCheckInDate(),
-                        client.getCheckOutDate(),
-                        client.getRoomNumber(),
-                        // Убрали client.getRoomType() - его больше нет
-                        status
-                });
+        reloadPages(() -> {
+            if (table.getRowCount() == 0) {
+                showEmptyDataMessage();
             }
+        });
+    }
 
-            updateCountLabel(clients.size());
+    @Override
+    protected Page<Object[]> loadPage(String after) throws HotelException {
+        String query = searchQuery;
+        if (!query.isEmpty()) {
+            // Результаты поиска приходят одной страницей
+            return new Page<>(toRows(clientService.searchClients(query, SEARCH_LIMIT)), null);
+        }
 
-            if (clients.isEmpty()) {
-                showEmptyDataMessage();
-            }
+        Page<Client> page = clientService.getClientsPage(after, PAGE_SIZE);
+        return new Page<>(toRows(page.getItems()), page.getNextCursor());
+    }
 
-        } catch (Exception e) {
-            logger.error("Ошибка загрузки данных клиентов: {}", e.getMessage());
-            showLoadingError("Ошибка загрузки данных: " + e.getMessage());
-        } finally {
-            setCursor(Cursor.getDefaultCursor());
-            refreshButton.setEnabled(true);
+    private List<Object[]> toRows(List<Client> clients) {
+        List<Object[]> rows = new ArrayList<>(clients.size());
+
+        for (Client client : clients) {
+            String status = getClientStatus(client);
+            rows.add(new Object[]{
+                    client.getPassportNumber(),
+                    client.getFirstName(),
+                    client.getLastName(),
+                    formatPhoneNumber(client.getPhoneNumber()),
+                    client.getEmail(),
+                    client.getCheckInDate(),
+                    client.getCheckOutDate(),
+                    client.getRoomNumber(),
+                    // Убрали client.getRoomType() - его больше нет
+                    status
+            });
         }
+        return rows;
     }
 
     @Override
     protected void setupAdditionalComponents() {
-        // Дополнительные компоненты не требуются
+        searchField = new JTextField(22);
+        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        searchField.setToolTipText("Фамилия, имя или номер паспорта");
+
+        // Запрос уходит, когда пользователь перестал печатать
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> applySearch());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
+    }
+
+    @Override
+    protected JPanel createButtonPanel() {
+        JPanel buttonPanel = super.createButtonPanel();
+        JLabel searchLabel = new JLabel("Поиск:");
+        searchLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        buttonPanel.add(searchLabel, 0);
+        buttonPanel.add(searchField, 1);
+        return buttonPanel;
+    }
+
+    private void applySearch() {
+        String query = searchField.getText().trim();
+        if (!query.equals(searchQuery)) {
+            searchQuery = query;
+            reloadPages();
+        }
     }
 
     private String getClientStatus(Client client) {
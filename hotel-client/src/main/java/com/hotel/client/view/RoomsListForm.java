@@ -1,10 +1,8 @@
 package com.hotel.client.view;
 
-import com.hotel.client.service.ApiService;
 import com.hotel.client.model.Room;
 import com.hotel.client.model.Client;
-import com.hotel.client.service.RoomService;
-import com.hotel.client.service.ClientService;
+import com.hotel.client.service.DataStore;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -13,6 +11,7 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -21,9 +20,8 @@ import java.util.stream.Collectors;
 public class RoomsListForm extends BaseTableForm {
     private static final Logger logger = LogManager.getLogger(RoomsListForm.class);
 
-    private ApiService apiService;
-    private RoomService roomService;
-    private ClientService clientService;
+    // Номера и клиенты берутся из общего хранилища клиента
+    private final DataStore store;
     private JComboBox<String> filterComboBox;
     private JLabel statsLabel;
 
@@ -32,9 +30,7 @@ public class RoomsListForm extends BaseTableForm {
 
     public RoomsListForm(JFrame parent) {
         super(parent, "Список номеров отеля", 1000, 650);
-        this.apiService = ApiService.getInstance();
-        this.roomService = new RoomService(apiService);
-        this.clientService = new ClientService(apiService);
+        this.store = DataStore.getInstance();
 
         initializeComponents();
         setupRoomsLayout();
@@ -69,29 +65,34 @@ public class RoomsListForm extends BaseTableForm {
 
     @Override
     protected void loadData() {
-        try {
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            refreshButton.setEnabled(false);
-
-            // Загружаем и комнаты, и клиентов
-            List<Room> allRooms = roomService.getAllRooms();
-            List<Client> allClients = clientService.getAllClients();
-
+        // Загружаем и комнаты, и клиентов
+        loadInBackground(() -> {
+            // Оба списка загружаются параллельно (если их еще нет в хранилище)
+            CompletableFuture<List<Room>> rooms = store.loadRooms();
+            CompletableFuture<List<Client>> clients = store.loadClients();
+            return new RoomsData(rooms.get(), clients.get());
+        }, loaded -> {
             // Создаем карту для быстрого поиска клиента по номеру комнаты
-            updateRoomToClientMap(allClients);
+            updateRoomToClientMap(loaded.clients);
 
-            updateRoomsTable(allRooms);
+            updateRoomsTable(loaded.rooms);
 
-            if (allRooms.isEmpty()) {
+            if (loaded.rooms.isEmpty()) {
                 showEmptyDataMessage();
             }
+        });
+    }
+
+    /**
+     * Номера и клиенты, прочитанные в фоновом потоке
+     */
+    private static final class RoomsData {
+        private final List<Room> rooms;
+        private final List<Client> clients;
 
-        } catch (Exception e) {
-            logger.error("Ошибка загрузки данных номеров: {}", e.getMessage());
-            showLoadingError("Ошибка загрузки данных: " + e.getMessage());
-        } finally {
-            setCursor(Cursor.getDefaultCursor());
-            refreshButton.setEnabled(true);
+        private RoomsData(List<Room> rooms, List<Client> clients) {
+            this.rooms = rooms;
+            this.clients = clients;
         }
     }
 
@@ -264,52 +265,50 @@ public class RoomsListForm extends BaseTableForm {
     }
 
     private void applyFilter() {
-        try {
-            String filter = (String) filterComboBox.getSelectedItem();
-            List<Room> allRooms = roomService.getAllRooms();
-            List<Room> filteredRooms;
-
-            switch (filter) {
-                case "Свободные":
-                    filteredRooms = allRooms.stream()
-                            .filter(room -> "free".equals(room.getStatus()))
-                            .collect(Collectors.toList());
-                    break;
-                case "Занятые":
-                    filteredRooms = allRooms.stream()
-                            .filter(room -> "occupied".equals(room.getStatus()))
-                            .collect(Collectors.toList());
-                    break;
-                case "Эконом":
-                    filteredRooms = allRooms.stream()
-                            .filter(room -> "Эконом".equals(room.getRoomType()))
-                            .collect(Collectors.toList());
-                    break;
-                case "Стандарт":
-                    filteredRooms = allRooms.stream()
-                            .filter(room -> "Стандарт".equals(room.getRoomType()))
-                            .collect(Collectors.toList());
-                    break;
-                case "Бизнес":
-                    filteredRooms = allRooms.stream()
-                            .filter(room -> "Бизнес".equals(room.getRoomType()))
-                            .collect(Collectors.toList());
-                    break;
-                case "Люкс":
-                    filteredRooms = allRooms.stream()
-                            .filter(room -> "Люкс".equals(room.getRoomType()))
-                            .collect(Collectors.toList());
-                    break;
-                default:
-                    filteredRooms = allRooms;
-            }
-
-            updateRoomsTable(filteredRooms);
+        String filter = (String) filterComboBox.getSelectedItem();
+        loadInBackground(() -> store.loadRooms().get(),
+                allRooms -> updateRoomsTable(filterRooms(allRooms, filter)));
+    }
 
-        } catch (Exception e) {
-            logger.error("Ошибка применения фильтра: {}", e.getMessage());
-            showLoadingError("Ошибка применения фильтра: " + e.getMessage());
+    private List<Room> filterRooms(List<Room> allRooms, String filter) {
+        List<Room> filteredRooms;
+
+        switch (filter) {
+            case "Свободные":
+                filteredRooms = allRooms.stream()
+                        .filter(room -> "free".equals(room.getStatus()))
+                        .collect(Collectors.toList());
+                break;
+            case "Занятые":
+                filteredRooms = allRooms.stream()
+                        .filter(room -> "occupied".equals(room.getStatus()))
+                        .collect(Collectors.toList());
+                break;
+            case "Эконом":
+                filteredRooms = allRooms.stream()
+                        .filter(room -> "Эконом".equals(room.getRoomType()))
+                        .collect(Collectors.toList());
+                break;
+            case "Стандарт":
+                filteredRooms = allRooms.stream()
+                        .filter(room -> "Стандарт".equals(room.getRoomType()))
+                        .collect(Collectors.toList());
+                break;
+            case "Бизнес":
+                filteredRooms = allRooms.stream()
+                        .filter(room -> "Бизнес".equals(room.getRoomType()))
+                        .collect(Collectors.toList());
+                break;
+            case "Люкс":
+                filteredRooms = allRooms.stream()
+                        .filter(room -> "Люкс".equals(room.getRoomType()))
+                        .collect(Collectors.toList());
+                break;
+            default:
+                filteredRooms = allRooms;
         }
+
+        return filteredRooms;
     }
 
     private void styleComboBox(JComboBox<String> comboBox) {
@@ -376,9 +375,12 @@ public class RoomsListForm extends BaseTableForm {
     }
 
     /**
-     * Переопределяем метод обновления данных для перезагрузки и клиентов
+     * Кнопка "Обновить": перечитываем с сервера и номера, и клиентов
      */
+    @Override
     protected void refreshData() {
+        store.invalidate(DataStore.ROOMS);
+        store.invalidate(DataStore.CLIENTS);
         loadData();
     }
 }
\ No newline at end of file
@@ -67,43 +67,34 @@ public class StaffListForm extends BaseTableForm {
 
     @Override
     protected void loadData() {
-        try {
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            refreshButton.setEnabled(false);
-
-            //TODO: вернуть позже
-            //List<Staff> staffList = staffService.getAllStaff();
-            List<Staff> staffList = loadStaffFromXml();
-            DefaultTableModel model = (DefaultTableModel) table.getModel();
-            model.setRowCount(0);
-
-            for (Staff staff : staffList) {
-                model.addRow(new Object[]{
-                        staff.getPassportNumber(),
-                        staff.getFirstName(),
-                        staff.getLastName(),
-                        staff.getPosition(),
-                        formatPhoneNumber(staff.getPhoneNumber()),
-                        staff.getEmail(),
-                        staff.getHireDate(),
-                        String.format("%,d руб.", (int) staff.getSalary()),
-                        staff.getDepartment(),
-                        "Активен"
-                });
-            }
+        //TODO: вернуть позже
+        //loadInBackground(() -> DataStore.getInstance().loadStaff().get(), this::showStaff);
+        loadInBackground(this::loadStaffFromXml, this::showStaff);
+    }
 
-            updateCountLabel(staffList.size());
+    private void showStaff(List<Staff> staffList) {
+        DefaultTableModel model = (DefaultTableModel) table.getModel();
+        model.setRowCount(0);
+
+        for (Staff staff : staffList) {
+            model.addRow(new Object[]{
+                    staff.getPassportNumber(),
+                    staff.getFirstName(),
+                    staff.getLastName(),
+                    staff.getPosition(),
+                    formatPhoneNumber(staff.getPhoneNumber()),
+                    staff.getEmail(),
+                    staff.getHireDate(),
+                    String.format("%,d руб.", (int) staff.getSalary()),
+                    staff.getDepartment(),
+                    "Активен"
+            });
+        }
 
-            if (staffList.isEmpty()) {
-                showEmptyDataMessage();
-            }
+        updateCountLabel(staffList.size());
 
-        } catch (Exception e) {
-            logger.error("Ошибка загрузки данных сотрудников: {}", e.getMessage());
-            showLoadingError("Ошибка загрузки данных: " + e.getMessage());
-        } finally {
-            setCursor(Cursor.getDefaultCursor());
-            refreshButton.setEnabled(true);
+        if (staffList.isEmpty()) {
+            showEmptyDataMessage();
         }
     }
 
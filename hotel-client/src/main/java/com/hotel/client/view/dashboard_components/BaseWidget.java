@@ -7,6 +7,8 @@ import org.apache.logging.log4j.Logger;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * Абстрактный базовый класс для всех виджетов dashboard
@@ -15,9 +17,14 @@ public abstract class BaseWidget extends JPanel {
     protected static final Logger logger = LogManager.getLogger(BaseWidget.class);
 
     protected final HotelAdminDashboard dashboard;
+    private final String title;
+
+    // Данные виджета загружаются: поверх содержимого показывается заглушка
+    private boolean loading;
 
     public BaseWidget(HotelAdminDashboard dashboard, String title) {
         this.dashboard = dashboard;
+        this.title = title;
         setBorder(createWidgetBorder(title));
         setBackground(Color.WHITE);
         setLayout(new BorderLayout());
@@ -37,6 +44,57 @@ public abstract class BaseWidget extends JPanel {
         );
     }
 
+    /**
+     * Списки DataStore, по которым строится виджет. Виджет перерисовывается только при их изменении
+     * и считается готовым, когда все они загружены
+     */
+    public Set<String> getDataDependencies() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Показывает длительность последнего обновления: в заголовке - от начала обновления до отрисовки,
+     * в подсказке - ожидание данных и сама отрисовка
+     */
+    public void showRefreshTiming(long totalMs, long renderMs) {
+        setBorder(createWidgetBorder(title + "  ·  " + totalMs + " мс"));
+        setToolTipText("Данные: " + (totalMs - renderMs) + " мс, отрисовка: " + renderMs + " мс");
+    }
+
+    /**
+     * Показывает или убирает заглушку загрузки поверх виджета
+     */
+    public void setLoading(boolean loading) {
+        if (this.loading != loading) {
+            this.loading = loading;
+            repaint();
+        }
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    @Override
+    protected void paintChildren(Graphics g) {
+        super.paintChildren(g);
+        if (!loading) {
+            return;
+        }
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(new Color(255, 255, 255, 200));
+        g2.fillRect(0, 0, getWidth(), getHeight());
+
+        String text = "Загрузка...";
+        g2.setFont(new Font("Segoe UI", Font.ITALIC, 13));
+        g2.setColor(new Color(150, 150, 150));
+        FontMetrics metrics = g2.getFontMetrics();
+        g2.drawString(text, (getWidth() - metrics.stringWidth(text)) / 2, getHeight() / 2);
+        g2.dispose();
+    }
+
     /**
      * Обновляет данные виджета
      */
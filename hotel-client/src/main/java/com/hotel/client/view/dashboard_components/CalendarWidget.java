@@ -1,9 +1,7 @@
 package com.hotel.client.view.dashboard_components;
 
 import com.hotel.client.model.Client;
-import com.hotel.client.model.Room;
-import com.hotel.client.service.ClientService;
-import com.hotel.client.service.RoomService;
+import com.hotel.client.service.DataStore;
 import com.hotel.client.view.HotelAdminDashboard;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,6 +12,7 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Виджет календаря событий (правый верхний угол)
@@ -23,14 +22,12 @@ import java.util.List;
 public class CalendarWidget extends BaseWidget {
     private static final Logger logger = LogManager.getLogger(CalendarWidget.class);
 
-    private final ClientService clientService;
-    private final RoomService roomService;
+    private final DataStore store;
     private JPanel calendarPanel;
 
-    public CalendarWidget(HotelAdminDashboard dashboard, ClientService clientService, RoomService roomService) {
+    public CalendarWidget(HotelAdminDashboard dashboard, DataStore store) {
         super(dashboard, "Календарь событий");
-        this.clientService = clientService;
-        this.roomService = roomService;
+        this.store = store;
         initializeWidget();
         refreshData();
     }
@@ -44,6 +41,11 @@ public class CalendarWidget extends BaseWidget {
         add(scrollPane, BorderLayout.CENTER);
     }
 
+    @Override
+    public Set<String> getDataDependencies() {
+        return Set.of(DataStore.CLIENTS);
+    }
+
     @Override
     public void refreshData() {
         try {
@@ -76,8 +78,7 @@ public class CalendarWidget extends BaseWidget {
             }
 
             // Получаем события для подсветки
-            List<Client> clients = clientService.getAllClients();
-            List<Room> rooms = roomService.getAllRooms();
+            List<Client> clients = store.getClients();
 
             // Дни месяца
             for (int day = 1; day <= daysInMonth; day++) {
@@ -3,9 +3,6 @@ package com.hotel.client.view.dashboard_components;
 import com.hotel.client.service.*;
 import com.hotel.client.view.*;
 import com.hotel.client.config.AppStateManager;
-import com.hotel.client.model.Client;
-import com.hotel.client.model.Room;
-import com.hotel.client.model.Staff;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -15,7 +12,6 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Обработчик действий для панели администратора
@@ -28,6 +24,7 @@ public class DashboardActionHandler {
     private final ClientService clientService;
     private final RoomService roomService;
     private final StaffService staffService;
+    private final ReportService reportService;
     private final AppStateManager appStateManager;
 
     public DashboardActionHandler(HotelAdminDashboard dashboard,
@@ -38,6 +35,7 @@ public class DashboardActionHandler {
         this.clientService = clientService;
         this.roomService = roomService;
         this.staffService = staffService;
+        this.reportService = new ReportService(ApiService.getInstance());
         this.appStateManager = AppStateManager.getInstance();
     }
 
@@ -137,13 +135,16 @@ public class DashboardActionHandler {
      */
     public void generateReport() {
         try {
-            // Получаем данные для отчета
-            List<Client> clients = clientService.getAllClients();
-            List<Room> rooms = roomService.getAllRooms();
-            List<Staff> staffList = staffService.getAllStaff();
-
-            // Анализируем данные
-            String report = buildReport(clients, rooms, staffList);
+            // Агрегаты считает сервер, здесь только оформление
+            Map<String, Object> summary = reportService.getSummary();
+            if (summary == null) {
+                JOptionPane.showMessageDialog(dashboard,
+                        "Не удалось получить отчет с сервера",
+                        "Ошибка",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            String report = buildReport(summary);
 
             // Создаем и показываем форму отчета
             ReportForm reportForm = new ReportForm(dashboard, report, "Отчет по отелю");
@@ -191,7 +192,8 @@ public class DashboardActionHandler {
             Date newDate = calendar.getTime();
 
             String newDateStr = dashboard.getDateFormat().format(newDate);
-            boolean success = ApiService.getInstance().advanceDate(newDateStr);
+            boolean success = ApiService.getInstance().advanceToDate(
+                    dashboard.getDateFormat().format(currentDate), newDateStr) != null;
 
             if (success) {
                 dashboard.setCurrentDate(newDate);
@@ -215,6 +217,70 @@ public class DashboardActionHandler {
         }
     }
 
+    /**
+     * Переход сразу на выбранную дату (все промежуточные дни обрабатываются сервером за один запрос)
+     */
+    public void advanceToDate() {
+        String currentDateStr = dashboard.getDateFormat().format(dashboard.getCurrentDate());
+        String newDateStr = JOptionPane.showInputDialog(dashboard,
+                "Текущая дата: " + currentDateStr + "\nНовая дата (гггг-мм-дд):",
+                "Перейти к дате", JOptionPane.QUESTION_MESSAGE);
+        if (newDateStr == null || newDateStr.isBlank()) {
+            return;
+        }
+
+        try {
+            Date newDate = dashboard.getDateFormat().parse(newDateStr.trim());
+            newDateStr = dashboard.getDateFormat().format(newDate);
+            if (!newDate.after(dashboard.getCurrentDate())) {
+                JOptionPane.showMessageDialog(dashboard,
+                        "Новая дата должна быть позже текущей",
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            Map<String, Object> result = ApiService.getInstance().advanceToDate(currentDateStr, newDateStr);
+            if (result == null) {
+                JOptionPane.showMessageDialog(dashboard,
+                        "Ошибка обновления даты",
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            dashboard.setCurrentDate(newDate);
+            dashboard.saveCurrentDateToState();
+            dashboard.refreshAllWidgets();
+
+            JOptionPane.showMessageDialog(dashboard,
+                    "Дата обновлена: " + newDateStr + "\n" + formatTransitions(result),
+                    "Дата обновлена", JOptionPane.INFORMATION_MESSAGE);
+
+        } catch (java.text.ParseException e) {
+            JOptionPane.showMessageDialog(dashboard,
+                    "Неверный формат даты: " + newDateStr,
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private String formatTransitions(Map<String, Object> result) {
+        StringBuilder text = new StringBuilder()
+                .append("Заселено: ").append(result.get("checkedInClients"))
+                .append(", выселено: ").append(result.get("checkedOutClients"))
+                .append(", завершено бронирований: ").append(result.get("completedBookings"));
+
+        Object days = result.get("days");
+        if (days instanceof List && !((List<?>) days).isEmpty()) {
+            text.append("\n\nПо дням:");
+            for (Map<String, Object> day : (List<Map<String, Object>>) days) {
+                text.append("\n").append(day.get("date"))
+                        .append(": заезд ").append(day.get("checkedIn"))
+                        .append(", выезд ").append(day.get("checkedOut"));
+            }
+        }
+        return text.toString();
+    }
+
     /**
      * Сбросить дату на сегодня
      */
@@ -329,11 +395,16 @@ public class DashboardActionHandler {
     }
 
     /**
-     * Построение отчета
+     * Оформление сводки сервера в текст отчета
      */
-    private String buildReport(List<Client> clients, List<Room> rooms, List<Staff> staffList) {
+    @SuppressWarnings("unchecked")
+    private String buildReport(Map<String, Object> summary) {
         StringBuilder report = new StringBuilder();
         SimpleDateFormat dateFormat = new SimpleDateFormat("dd.MM.yyyy HH:mm");
+        Map<String, Object> clients = (Map<String, Object>) summary.get("clients");
+        Map<String, Object> rooms = (Map<String, Object>) summary.get("rooms");
+        Map<String, Object> staff = (Map<String, Object>) summary.get("staff");
+        Map<String, Object> finance = (Map<String, Object>) summary.get("finance");
 
         // Заголовок отчета
         report.append("=").append("=".repeat(50)).append("\n");
@@ -344,82 +415,55 @@ public class DashboardActionHandler {
         // Статистика по клиентам
         report.append("СТАТИСТИКА КЛИЕНТОВ:\n");
         report.append("-".repeat(30)).append("\n");
-        long activeClients = clients.stream()
-                .filter(c -> c.getCheckInDate() != null && !c.getCheckInDate().isEmpty())
-                .count();
-        long checkedOutClients = clients.stream()
-                .filter(c -> c.getCheckOutDate() != null && !c.getCheckOutDate().isEmpty())
-                .count();
-
-        report.append("Всего клиентов: ").append(clients.size()).append("\n");
-        report.append("Активных клиентов: ").append(activeClients).append("\n");
-        report.append("Выселенных клиентов: ").append(checkedOutClients).append("\n\n");
+        report.append("Всего клиентов: ").append(clients.get("total")).append("\n");
+        report.append("Проживающих клиентов: ").append(clients.get("active")).append("\n");
+        report.append("Ожидают заселения: ").append(clients.get("pending")).append("\n");
+        report.append("Выселенных клиентов: ").append(clients.get("checkedOut")).append("\n");
+        report.append("Средний срок проживания: ").append(String.format("%.1f дн.",
+                number(clients.get("avgStayDays")))).append("\n\n");
 
         // Статистика по номерам
         report.append("СТАТИСТИКА НОМЕРОВ:\n");
         report.append("-".repeat(30)).append("\n");
-        long totalRooms = rooms.size();
-        long freeRooms = rooms.stream().filter(r -> "free".equals(r.getStatus())).count();
-        long occupiedRooms = rooms.stream().filter(r -> "occupied".equals(r.getStatus())).count();
-
-        // Статистика по типам номеров
-        Map<String, Long> roomsByType = rooms.stream()
-                .collect(Collectors.groupingBy(Room::getRoomType, Collectors.counting()));
-
-        report.append("Всего номеров: ").append(totalRooms).append("\n");
-        report.append("Свободных номеров: ").append(freeRooms).append("\n");
-        report.append("Занятых номеров: ").append(occupiedRooms).append("\n");
+        report.append("Всего номеров: ").append(rooms.get("total")).append("\n");
+        report.append("Свободных номеров: ").append(rooms.get("free")).append("\n");
+        report.append("Занятых номеров: ").append(rooms.get("occupied")).append("\n");
         report.append("Загрузка отеля: ").append(String.format("%.1f%%",
-                totalRooms > 0 ? (occupiedRooms * 100.0 / totalRooms) : 0)).append("\n\n");
+                number(rooms.get("occupancyRate")))).append("\n\n");
 
         report.append("Распределение по типам:\n");
-        roomsByType.forEach((type, count) -> {
-            long occupiedByType = rooms.stream()
-                    .filter(r -> type.equals(r.getRoomType()) && "occupied".equals(r.getStatus()))
-                    .count();
-            report.append("  ").append(type).append(": ").append(count)
-                    .append(" (занято: ").append(occupiedByType).append(")\n");
-        });
+        for (Map<String, Object> type : (List<Map<String, Object>>) rooms.get("byType")) {
+            report.append("  ").append(type.get("roomType")).append(": ").append(type.get("total"))
+                    .append(" (занято: ").append(type.get("occupied"))
+                    .append(", ночей продано: ").append(type.get("bookedNights")).append(")\n");
+        }
         report.append("\n");
 
         // Статистика по персоналу
         report.append("СТАТИСТИКА ПЕРСОНАЛА:\n");
         report.append("-".repeat(30)).append("\n");
-
-        Map<String, Long> staffByDepartment = staffList.stream()
-                .collect(Collectors.groupingBy(Staff::getDepartment, Collectors.counting()));
-
-        double totalSalary = staffList.stream().mapToDouble(Staff::getSalary).sum();
-
-        report.append("Всего сотрудников: ").append(staffList.size()).append("\n");
-        report.append("Общий фонд зарплат: ").append(String.format("%,.0f руб.", totalSalary)).append("\n");
+        report.append("Всего сотрудников: ").append(staff.get("total")).append("\n");
+        report.append("Общий фонд зарплат: ").append(String.format("%,.0f руб.",
+                number(staff.get("totalSalary")))).append("\n");
         report.append("Средняя зарплата: ").append(String.format("%,.0f руб.",
-                staffList.isEmpty() ? 0 : totalSalary / staffList.size())).append("\n\n");
+                number(staff.get("avgSalary")))).append("\n\n");
 
         report.append("Распределение по отделам:\n");
-        staffByDepartment.forEach((dept, count) -> {
-            double deptSalary = staffList.stream()
-                    .filter(s -> dept.equals(s.getDepartment()))
-                    .mapToDouble(Staff::getSalary)
-                    .sum();
-            report.append("  ").append(dept).append(": ").append(count)
-                    .append(" чел., зарплата: ").append(String.format("%,.0f руб.", deptSalary)).append("\n");
-        });
+        for (Map<String, Object> department : (List<Map<String, Object>>) staff.get("byDepartment")) {
+            report.append("  ").append(department.get("department")).append(": ").append(department.get("count"))
+                    .append(" чел., зарплата: ").append(String.format("%,.0f руб.",
+                            number(department.get("totalSalary")))).append("\n");
+        }
         report.append("\n");
 
-        // Финансовая сводка (упрощенная)
+        // Финансовая сводка
         report.append("ФИНАНСОВАЯ СВОДКА:\n");
         report.append("-".repeat(30)).append("\n");
-
-        // Расчеты доходов
-        double estimatedDailyIncome = occupiedRooms * 2500; // пример: 2500 руб./номер/день
-        double monthlyExpenses = totalSalary; // только зарплаты для примера
-        double estimatedMonthlyIncome = estimatedDailyIncome * 30;
-
-        report.append("Примерный дневной доход: ").append(String.format("%,.0f руб.", estimatedDailyIncome)).append("\n");
-        report.append("Примерный месячный доход: ").append(String.format("%,.0f руб.", estimatedMonthlyIncome)).append("\n");
-        report.append("Месячные расходы (зарплаты): ").append(String.format("%,.0f руб.", monthlyExpenses)).append("\n");
-        report.append("Примерная прибыль: ").append(String.format("%,.0f руб.", estimatedMonthlyIncome - monthlyExpenses)).append("\n\n");
+        double revenue = number(finance.get("revenue"));
+        double payroll = number(finance.get("monthlyPayroll"));
+        report.append("Продано ночей: ").append(finance.get("bookedNights")).append("\n");
+        report.append("Выручка по бронированиям: ").append(String.format("%,.0f руб.", revenue)).append("\n");
+        report.append("Месячные расходы (зарплаты): ").append(String.format("%,.0f руб.", payroll)).append("\n\n");
 
         report.append("=").append("=".repeat(50)).append("\n");
         report.append("               КОНЕЦ ОТЧЕТА\n");
@@ -427,4 +471,8 @@ public class DashboardActionHandler {
 
         return report.toString();
     }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
 }
\ No newline at end of file
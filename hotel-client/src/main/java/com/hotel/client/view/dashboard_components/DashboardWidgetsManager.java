@@ -1,6 +1,9 @@
 package com.hotel.client.view.dashboard_components;
 
+import com.hotel.client.service.ApiService;
+import com.hotel.client.service.ChangeFeed;
 import com.hotel.client.service.ClientService;
+import com.hotel.client.service.DataStore;
 import com.hotel.client.service.RoomService;
 import com.hotel.client.service.StaffService;
 import com.hotel.client.view.HotelAdminDashboard;
@@ -9,8 +12,12 @@ import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Менеджер виджетов dashboard
@@ -26,6 +33,16 @@ public class DashboardWidgetsManager {
 
     private final Map<String, BaseWidget> widgets = new HashMap<>();
 
+    // Данные виджетов и лента изменений, которая их поддерживает
+    private final DataStore store;
+    private final ChangeFeed changeFeed;
+    // Списки, изменившиеся с последней перерисовки (из любого потока)
+    private final Set<String> changedCollections = new HashSet<>();
+
+    // Начало текущего обновления и виджеты, которые еще ждут его данных (EDT)
+    private long refreshStartedAt;
+    private final Set<BaseWidget> awaitingData = new HashSet<>();
+
     public DashboardWidgetsManager(HotelAdminDashboard dashboard,
                                    ClientService clientService,
                                    RoomService roomService,
@@ -34,7 +51,14 @@ public class DashboardWidgetsManager {
         this.clientService = clientService;
         this.roomService = roomService;
         this.staffService = staffService;
+        this.store = DataStore.getInstance();
         initializeWidgets();
+
+        store.subscribe(DataStore.ROOMS, () -> scheduleRender(DataStore.ROOMS));
+        store.subscribe(DataStore.CLIENTS, () -> scheduleRender(DataStore.CLIENTS));
+        this.changeFeed = new ChangeFeed(ApiService.getInstance());
+        changeFeed.addListener(event -> SwingUtilities.invokeLater(() -> store.apply(event)));
+        changeFeed.start();
     }
 
     /**
@@ -42,10 +66,10 @@ public class DashboardWidgetsManager {
      */
     private void initializeWidgets() {
         try {
-            widgets.put("roomTypes", new RoomTypesWidget(dashboard, roomService));
-            widgets.put("calendar", new CalendarWidget(dashboard, clientService, roomService));
+            widgets.put("roomTypes", new RoomTypesWidget(dashboard, store));
+            widgets.put("calendar", new CalendarWidget(dashboard, store));
             widgets.put("quickActions", new QuickActionsWidget(dashboard));
-            widgets.put("todayEvents", new TodayEventsWidget(dashboard, clientService, roomService));
+            widgets.put("todayEvents", new TodayEventsWidget(dashboard, store));
             logger.info("Все виджеты инициализированы");
         } catch (Exception e) {
             logger.error("Ошибка инициализации виджетов: {}", e.getMessage());
@@ -70,21 +94,95 @@ public class DashboardWidgetsManager {
     }
 
     /**
-     * Обновляет все виджеты
+     * Обновляет все виджеты.
+     * Пока лента изменений подключена, данные уже актуальны и виджеты только перерисовываются
+     * (например, после смены даты); без нее номера и клиенты перечитываются с сервера.
+     * Списки загружаются параллельно, и каждый виджет отрисовывается, как только готовы
+     * его собственные данные, не дожидаясь остальных
      */
     public void refreshAllWidgets() {
-        logger.info("🔄 Начало обновления всех виджетов...");
-        for (Map.Entry<String, BaseWidget> entry : widgets.entrySet()) {
-            try {
-                if (entry.getValue() != null) {
-                    entry.getValue().refreshData();
-                    logger.debug("Виджет {} обновлен", entry.getKey());
+        refreshStartedAt = System.nanoTime();
+        awaitingData.clear();
+        for (BaseWidget widget : widgets.values()) {
+            if (!widget.getDataDependencies().isEmpty()) {
+                awaitingData.add(widget);
+            }
+        }
+
+        if (!changeFeed.isConnected()) {
+            logger.info("🔄 Загрузка данных для виджетов...");
+            store.invalidate(DataStore.ROOMS);
+            store.invalidate(DataStore.CLIENTS);
+        } else {
+            // Первая загрузка; если данные уже есть, возвращается текущий снимок
+            store.loadRooms();
+            store.loadClients();
+        }
+        renderWidgets(widgets);
+    }
+
+    /**
+     * Перерисовка по изменению списка хранилища (из любого потока).
+     * Изменения, пришедшие до перерисовки, объединяются; перерисовываются только
+     * виджеты, которые зависят от изменившихся списков
+     */
+    private void scheduleRender(String collection) {
+        synchronized (changedCollections) {
+            boolean scheduled = !changedCollections.isEmpty();
+            changedCollections.add(collection);
+            if (scheduled) {
+                return;
+            }
+        }
+        SwingUtilities.invokeLater(() -> {
+            Set<String> changed;
+            synchronized (changedCollections) {
+                changed = new HashSet<>(changedCollections);
+                changedCollections.clear();
+            }
+            Map<String, BaseWidget> affected = new LinkedHashMap<>();
+            for (Map.Entry<String, BaseWidget> entry : widgets.entrySet()) {
+                if (!Collections.disjoint(entry.getValue().getDataDependencies(), changed)) {
+                    affected.put(entry.getKey(), entry.getValue());
                 }
+            }
+            renderWidgets(affected);
+        });
+    }
+
+    /**
+     * Перерисовывает виджеты по текущим данным. Пока данные виджета загружаются, поверх него
+     * показывается заглушка; когда они готовы, в заголовке показывается время обновления
+     */
+    private void renderWidgets(Map<String, BaseWidget> toRender) {
+        for (Map.Entry<String, BaseWidget> entry : toRender.entrySet()) {
+            BaseWidget widget = entry.getValue();
+            boolean loading = false;
+            boolean ready = true;
+            for (String collection : widget.getDataDependencies()) {
+                loading |= store.isLoading(collection);
+                ready &= store.isLoaded(collection);
+            }
+            ready &= !loading;
+
+            long started = System.nanoTime();
+            try {
+                widget.setLoading(loading);
+                widget.refreshData();
             } catch (Exception e) {
                 logger.error("Ошибка обновления виджета {}: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+
+            if (ready && awaitingData.remove(widget)) {
+                long renderMs = (System.nanoTime() - started) / 1_000_000;
+                long totalMs = (System.nanoTime() - refreshStartedAt) / 1_000_000;
+                widget.showRefreshTiming(totalMs, renderMs);
+                logger.info("Виджет {} обновлен за {} мс (отрисовка {} мс)", entry.getKey(), totalMs, renderMs);
+            } else {
+                logger.debug("Виджет {} обновлен", entry.getKey());
             }
         }
-        logger.info("✅ Все виджеты обновлены");
     }
 
     /**
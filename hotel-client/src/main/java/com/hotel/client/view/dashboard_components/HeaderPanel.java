@@ -105,11 +105,13 @@ public class HeaderPanel extends JPanel {
         // Кнопки управления
         JButton resetDateButton = ButtonFactory.createHeaderButton("Сбросить дату", new Color(155, 89, 182));
         JButton advanceDateButton = ButtonFactory.createHeaderButton("Следующий день", new Color(46, 204, 113));
+        JButton advanceToDateButton = ButtonFactory.createHeaderButton("Перейти к дате", new Color(39, 174, 96));
         JButton logoutButton = ButtonFactory.createHeaderButton("Выход", new Color(231, 76, 60));
 
         // Назначаем обработчики
         resetDateButton.addActionListener(e -> actionHandler.resetDateToToday());
         advanceDateButton.addActionListener(e -> actionHandler.advanceDate());
+        advanceToDateButton.addActionListener(e -> actionHandler.advanceToDate());
         logoutButton.addActionListener(e -> actionHandler.logout());
 
         panel.add(userLabel);
@@ -118,6 +120,8 @@ public class HeaderPanel extends JPanel {
         panel.add(Box.createHorizontalStrut(10));
         panel.add(advanceDateButton);
         panel.add(Box.createHorizontalStrut(10));
+        panel.add(advanceToDateButton);
+        panel.add(Box.createHorizontalStrut(10));
         panel.add(logoutButton);
 
         return panel;
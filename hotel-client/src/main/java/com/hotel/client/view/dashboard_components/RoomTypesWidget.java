@@ -1,7 +1,7 @@
 package com.hotel.client.view.dashboard_components;
 
 import com.hotel.client.model.Room;
-import com.hotel.client.service.RoomService;
+import com.hotel.client.service.DataStore;
 import com.hotel.client.view.HotelAdminDashboard;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,6 +11,7 @@ import java.awt.*;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -22,12 +23,12 @@ import java.util.stream.Collectors;
 public class RoomTypesWidget extends BaseWidget {
     private static final Logger logger = LogManager.getLogger(RoomTypesWidget.class);
 
-    private final RoomService roomService;
+    private final DataStore store;
     private JPanel statsPanel;
 
-    public RoomTypesWidget(HotelAdminDashboard dashboard, RoomService roomService) {
+    public RoomTypesWidget(HotelAdminDashboard dashboard, DataStore store) {
         super(dashboard, "Типы номеров");
-        this.roomService = roomService;
+        this.store = store;
         initializeWidget();
         refreshData();
     }
@@ -46,10 +47,15 @@ public class RoomTypesWidget extends BaseWidget {
         add(totalPanel, BorderLayout.SOUTH);
     }
 
+    @Override
+    public Set<String> getDataDependencies() {
+        return Set.of(DataStore.ROOMS);
+    }
+
     @Override
     public void refreshData() {
         try {
-            List<Room> allRooms = roomService.getAllRooms();
+            List<Room> allRooms = store.getRooms();
             List<Room> occupiedRooms = allRooms.stream()
                     .filter(room -> "occupied".equals(room.getStatus()))
                     .collect(Collectors.toList());
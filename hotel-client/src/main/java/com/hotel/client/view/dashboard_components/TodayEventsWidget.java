@@ -2,8 +2,7 @@ package com.hotel.client.view.dashboard_components;
 
 import com.hotel.client.model.Client;
 import com.hotel.client.model.Room;
-import com.hotel.client.service.ClientService;
-import com.hotel.client.service.RoomService;
+import com.hotel.client.service.DataStore;
 import com.hotel.client.view.HotelAdminDashboard;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,6 +13,7 @@ import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Виджет для отображения событий на сегодня (заезды и выезды)
@@ -26,16 +26,14 @@ public class TodayEventsWidget extends BaseWidget {
     private JPanel checkInPanel;
     private JPanel checkOutPanel;
 
-    private ClientService clientService;
-    private RoomService roomService;
+    private final DataStore store;
 
     // Карта для быстрого доступа к информации о комнатах
     private Map<Integer, Room> roomMap = new HashMap<>();
 
-    public TodayEventsWidget(HotelAdminDashboard dashboard, ClientService clientService, RoomService roomService) {
+    public TodayEventsWidget(HotelAdminDashboard dashboard, DataStore store) {
         super(dashboard, "События на сегодня");
-        this.clientService = clientService;
-        this.roomService = roomService;
+        this.store = store;
 
         initializeComponents();
         setupLayout();
@@ -135,15 +133,14 @@ public class TodayEventsWidget extends BaseWidget {
             // Получаем текущую дату из dashboard
             String currentDate = dashboard.getDateFormat().format(dashboard.getCurrentDate());
 
-            // Загружаем комнаты для информации о типах
-            List<Room> rooms = roomService.getAllRooms();
+            // Комнаты для информации о типах
+            List<Room> rooms = store.getRooms();
             roomMap.clear();
             for (Room room : rooms) {
                 roomMap.put(room.getRoomNumber(), room);
             }
 
-            // Загружаем клиентов
-            List<Client> clients = clientService.getAllClients();
+            List<Client> clients = store.getClients();
 
             // Очищаем панели
             checkInPanel.removeAll();
@@ -274,6 +271,11 @@ public class TodayEventsWidget extends BaseWidget {
         repaint();
     }
 
+    @Override
+    public Set<String> getDataDependencies() {
+        return Set.of(DataStore.ROOMS, DataStore.CLIENTS);
+    }
+
     /**
      * Реализация метода refreshData из BaseWidget
      */
@@ -0,0 +1,68 @@
+package com.hotel.client.util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hotel.client.model.Client;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Время разбора и выделенная память на список из 10 000 клиентов для разных путей JsonUtils:
+ * строка (прежний fromJsonList), массив байт и поток.
+ * Память считается счетчиком выделений потока (com.sun.management.ThreadMXBean), как gc.alloc.rate.norm в JMH.
+ * Запуск: java -cp <классы клиента и Jackson> com.hotel.client.util.JsonUtilsBenchmark [строк]
+ */
+public class JsonUtilsBenchmark {
+    private static final int WARMUP_ITERATIONS = 30;
+    private static final int MEASURED_ITERATIONS = 30;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Результат каждого прогона, чтобы JIT не выбросил разбор
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<Client> clients = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            clients.add(new Client("Имя" + i, "Фамилия" + i, String.format("%010d", i), "+7900" + i,
+                    "client" + i + "@example.com", "2024-01-01", "2024-01-05", 100 + i % 400));
+        }
+        byte[] body = JsonUtils.getObjectMapper().writeValueAsBytes(clients);
+        JavaType listType = JsonUtils.listType(Client.class);
+        System.out.printf("Список: %d строк, %d байт%n", rows, body.length);
+
+        measure("string", () -> JsonUtils.fromJsonList(new String(body, StandardCharsets.UTF_8), Client.class).size());
+        measure("bytes", () -> JsonUtils.getObjectMapper().<List<Client>>readValue(body, listType).size());
+        measure("stream", () -> JsonUtils.<List<Client>>fromJson(new ByteArrayInputStream(body), listType).size());
+
+        ObjectMapper indenting = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Client client = clients.get(0);
+        System.out.printf("Тело запроса (клиент): %d байт с отступами, %d байт компактно%n",
+                indenting.writeValueAsBytes(client).length,
+                JsonUtils.toJson(client).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void measure(String name, Callable<Integer> operation) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += operation.call();
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += operation.call();
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-8s %8.2f мс/оп %10.1f КБ/оп%n", name,
+                elapsed / 1e6 / MEASURED_ITERATIONS, allocated / 1024.0 / MEASURED_ITERATIONS);
+    }
+}
@@ -0,0 +1,21 @@
+package com.hotel.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки токенов доступа (секция hotel.auth в application.yml)
+ */
+@Component
+@ConfigurationProperties(prefix = "hotel.auth")
+public class AuthProperties {
+    /** Ключ подписи токенов; если не задан, генерируется при старте (токены не переживают перезапуск) */
+    private String tokenSecret;
+    private long tokenTtl = 900;
+
+    public String getTokenSecret() { return tokenSecret; }
+    public void setTokenSecret(String tokenSecret) { this.tokenSecret = tokenSecret; }
+
+    public long getTokenTtl() { return tokenTtl; }
+    public void setTokenTtl(long tokenTtl) { this.tokenTtl = tokenTtl; }
+}
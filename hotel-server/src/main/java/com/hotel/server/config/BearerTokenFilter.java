@@ -0,0 +1,55 @@
+package com.hotel.server.config;
+
+import com.hotel.server.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Аутентификация запросов по заголовку Authorization: Bearer <токен>.
+ * Недействительный токен просто не аутентифицирует запрос - дальше сработает обычный ответ 401.
+ */
+public class BearerTokenFilter extends OncePerRequestFilter {
+    private static final String PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final RequestMatcher passwordOnly;
+
+    /**
+     * @param passwordOnly запросы, для которых токен не принимается (выдача токена):
+     *                     иначе утекший токен продлевал бы сам себя без пароля
+     */
+    public BearerTokenFilter(TokenService tokenService, RequestMatcher passwordOnly) {
+        this.tokenService = tokenService;
+        this.passwordOnly = passwordOnly;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return passwordOnly.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            Authentication authentication = tokenService.verify(header.substring(PREFIX.length()).trim());
+            if (authentication != null) {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
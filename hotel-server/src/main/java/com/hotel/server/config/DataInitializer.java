@@ -51,6 +51,72 @@ public class DataInitializer {
         } catch (Exception e) {
             logger.error("Ошибка при инициализации базы данных: {}", e.getMessage());
         }
+
+        addEpochDayColumns();
+        createRateTables();
+        createTable(SqlQueries.IDEMPOTENCY_TABLE);
+        createIndexes(SqlQueries.PAGINATION_INDEXES);
+        createIndexes(SqlQueries.EPOCH_DAY_INDEXES);
+    }
+
+    /**
+     * Добавление колонок с датами в днях от эпохи в базы, созданные старой версией schema.sql.
+     * Колонки вычисляемые, поэтому ALTER TABLE выполняется мгновенно, без переноса данных
+     */
+    private void addEpochDayColumns() {
+        for (String[] column : SqlQueries.EPOCH_DAY_COLUMNS) {
+            try {
+                Integer exists = jdbcTemplate.queryForObject(SqlQueries.COLUMN_EXISTS, Integer.class, column[0], column[1]);
+                if (exists != null && exists == 0) {
+                    jdbcTemplate.execute(column[2]);
+                    logger.info("Добавлена колонка {}.{}", column[0], column[1]);
+                }
+            } catch (Exception e) {
+                logger.error("Ошибка добавления колонки {}.{}: {}", column[0], column[1], e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Таблицы тарифов для баз, созданных старой версией schema.sql, и базовые тарифы, если их нет
+     */
+    private void createRateTables() {
+        try {
+            for (String ddl : SqlQueries.RATE_TABLES) {
+                jdbcTemplate.execute(ddl);
+            }
+            Integer count = jdbcTemplate.queryForObject(SqlQueries.ROOM_TYPES_COUNT, Integer.class);
+            if (count != null && count == 0) {
+                jdbcTemplate.update(SqlQueries.ROOM_TYPES_INSERT_DEFAULTS);
+                logger.info("Заданы базовые тарифы по типам номеров");
+            }
+        } catch (Exception e) {
+            logger.error("Ошибка создания таблиц тарифов: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Создание таблицы, которой может не быть в базах, созданных старой версией schema.sql
+     */
+    private void createTable(String ddl) {
+        try {
+            jdbcTemplate.execute(ddl);
+        } catch (Exception e) {
+            logger.error("Ошибка создания таблицы: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Создание индексов, которых может не быть в базах, созданных старой версией schema.sql
+     */
+    private void createIndexes(String[] indexes) {
+        for (String ddl : indexes) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (Exception e) {
+                logger.error("Ошибка создания индекса: {}", e.getMessage());
+            }
+        }
     }
 
     //TODO: убрать инициализацию в schema.sql в будущем
@@ -0,0 +1,26 @@
+package com.hotel.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки ключей идемпотентности (секция hotel.idempotency в application.yml)
+ */
+@Component
+@ConfigurationProperties(prefix = "hotel.idempotency")
+public class IdempotencyProperties {
+    /** Сколько последних ответов хранится в памяти */
+    private int capacity = 10_000;
+    private long ttl = 86_400;
+    /** Дублировать ответы в таблицу idempotency_keys, чтобы повтор после перезапуска сервера не выполнился заново */
+    private boolean persist = false;
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public long getTtl() { return ttl; }
+    public void setTtl(long ttl) { this.ttl = ttl; }
+
+    public boolean isPersist() { return persist; }
+    public void setPersist(boolean persist) { this.persist = persist; }
+}
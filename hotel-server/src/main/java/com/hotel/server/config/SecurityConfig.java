@@ -1,5 +1,6 @@
 package com.hotel.server.config;
 
+import com.hotel.server.service.TokenService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -13,13 +14,15 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService) throws Exception {
         http
                 .cors(Customizer.withDefaults()) // Новый синтаксис для CORS
                 .csrf(AbstractHttpConfigurer::disable) // Новый синтаксис для отключения CSRF
@@ -28,7 +31,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/**").authenticated()
                         .anyRequest().permitAll()
                 )
-                .httpBasic(Customizer.withDefaults()); // Новый синтаксис для Basic auth
+                .httpBasic(Customizer.withDefaults()) // Basic нужен только для получения токена
+                // Токен выдается только по паролю, не по другому токену
+                .addFilterBefore(new BearerTokenFilter(tokenService, new AntPathRequestMatcher("/api/auth/token")),
+                        BasicAuthenticationFilter.class);
 
         return http.build();
     }
@@ -21,10 +21,54 @@ public class SqlQueries {
         ORDER BY room_number
     """;
 
-    public static final String ROOM_CHECK_AVAILABILITY = "SELECT COUNT(*)" +
-            " FROM bookings WHERE room_number = ? AND status = 'active' " +
-            "AND ((check_in_date <= ? AND check_out_date > ?)" +
-            " OR (check_in_date < ? AND check_out_date >= ?))";
+    /**
+     * Пересечение периодов в днях от эпохи. Равносильно
+     * (in <= out' AND out > in') OR (in < out' AND out >= in'), но записано одним диапазоном
+     * по check_in_day, чтобы поиск шел по индексу idx_bookings_overlap.
+     * Параметры: номер, день выезда, день заезда, день выезда, день заезда
+     */
+    public static final String ROOM_CHECK_AVAILABILITY = """
+        SELECT COUNT(*) FROM bookings
+        WHERE room_number = ? AND status = 'active'
+        AND check_in_day <= ? AND check_out_day >= ?
+        AND NOT (check_in_day = ? AND check_out_day = ?)
+    """;
+
+    public static final String BOOKING_SELECT_ACTIVE = """
+        SELECT room_number, client_passport, check_in_date, check_out_date
+        FROM bookings
+        WHERE status = 'active'
+    """;
+
+    public static final String BOOKING_SELECT_HISTORY = "SELECT * FROM bookings ORDER BY check_in_date DESC";
+
+    public static final String ROOM_SELECT_BY_TYPE = "SELECT * FROM rooms WHERE room_type = ? ORDER BY room_number";
+
+    public static final String ROOM_SELECT_AVAILABLE = """
+        SELECT r.room_number, r.room_type, r.status
+        FROM rooms r
+        WHERE (? IS NULL OR r.room_type = ?)
+        AND NOT EXISTS (
+            SELECT 1 FROM bookings b
+            WHERE b.room_number = r.room_number AND b.status = 'active'
+            AND b.check_in_day <= ? AND b.check_out_day >= ?
+            AND NOT (b.check_in_day = ? AND b.check_out_day = ?)
+        )
+        ORDER BY r.room_number
+    """;
+
+    public static final String BOOKING_SELECT_PAGE_FIRST = """
+        SELECT rowid AS row_id, * FROM bookings
+        ORDER BY check_in_date DESC, rowid DESC
+        LIMIT ?
+    """;
+
+    public static final String BOOKING_SELECT_PAGE_AFTER = """
+        SELECT rowid AS row_id, * FROM bookings
+        WHERE (check_in_date, rowid) < (?, ?)
+        ORDER BY check_in_date DESC, rowid DESC
+        LIMIT ?
+    """;
 
     public static final String ROOM_OCCUPY = """
         UPDATE rooms 
@@ -69,6 +113,44 @@ public class SqlQueries {
         ORDER BY last_name, first_name
     """;
 
+    public static final String CLIENT_SELECT_PAGE_FIRST = """
+        SELECT *
+        FROM clients
+        ORDER BY last_name, first_name, passport_number
+        LIMIT ?
+    """;
+
+    public static final String CLIENT_SELECT_PAGE_AFTER = """
+        SELECT *
+        FROM clients
+        WHERE (last_name, first_name, passport_number) > (?, ?, ?)
+        ORDER BY last_name, first_name, passport_number
+        LIMIT ?
+    """;
+
+    /**
+     * Поля клиентов для индекса поиска в памяти
+     */
+    public static final String CLIENT_SEARCH_KEYS = "SELECT passport_number, first_name, last_name FROM clients";
+
+    /**
+     * Поиск по началу фамилии, имени или паспорта, пока индекс в памяти не загружен
+     */
+    public static final String CLIENT_SEARCH_PREFIX = """
+        SELECT *
+        FROM clients
+        WHERE last_name LIKE ? ESCAPE '\\' OR first_name LIKE ? ESCAPE '\\' OR passport_number LIKE ? ESCAPE '\\'
+        ORDER BY last_name, first_name, passport_number
+        LIMIT ?
+    """;
+
+    /**
+     * Клиенты по списку паспортов
+     */
+    public static String clientSelectByPassports(int count) {
+        return "SELECT * FROM clients WHERE passport_number IN (" + "?, ".repeat(count - 1) + "?)";
+    }
+
     public static final String CLIENT_FIND_BY_PASSPORT = """
         SELECT first_name, last_name, passport_number, phone_number, 
                email, check_in_date, check_out_date, room_number, room_type
@@ -115,41 +197,292 @@ public class SqlQueries {
         ORDER BY last_name, first_name
     """;
 
+    public static final String STAFF_SELECT_PAGE_FIRST = """
+        SELECT passport_number, first_name, last_name, position, phone_number,
+               email, hire_date, salary, department
+        FROM staff
+        WHERE status = 'active'
+        ORDER BY last_name, first_name, passport_number
+        LIMIT ?
+    """;
+
+    public static final String STAFF_SELECT_PAGE_AFTER = """
+        SELECT passport_number, first_name, last_name, position, phone_number,
+               email, hire_date, salary, department
+        FROM staff
+        WHERE status = 'active' AND (last_name, first_name, passport_number) > (?, ?, ?)
+        ORDER BY last_name, first_name, passport_number
+        LIMIT ?
+    """;
+
     public static final String STAFF_INSERT = """
         INSERT INTO staff (passport_number, first_name, last_name, position, 
                           phone_number, email, hire_date, salary, department, status)
         VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'active')
     """;
 
-    //REPORTING QUERIES
+    //BATCH IMPORT
+
+    /**
+     * Пакетная загрузка: существующая строка не меняется, счетчик обновленных строк будет 0
+     */
+    public static final String CLIENT_IMPORT = """
+        INSERT INTO clients (passport_number, first_name, last_name, phone_number, email,
+                             check_in_date, check_out_date, room_number, status)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'pending')
+        ON CONFLICT(passport_number) DO NOTHING
+    """;
 
-    public static final String REPORT_OCCUPANCY_STATS = """
-        SELECT 
-            COUNT(*) as total_rooms,
-            SUM(CASE WHEN status = 'occupied' THEN 1 ELSE 0 END) as occupied_rooms,
-            SUM(CASE WHEN status = 'free' THEN 1 ELSE 0 END) as free_rooms,
-            ROUND((SUM(CASE WHEN status = 'occupied' THEN 1 ELSE 0 END) * 100.0 / COUNT(*)), 2) as occupancy_rate
-        FROM rooms
+    public static final String STAFF_IMPORT = """
+        INSERT INTO staff (passport_number, first_name, last_name, position,
+                          phone_number, email, hire_date, salary, department, status)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'active')
+        ON CONFLICT(passport_number) DO NOTHING
     """;
 
+    public static final String ROOMS_SELECT_NUMBERS = "SELECT room_number FROM rooms";
+
+    //REPORTING QUERIES
+
+    /**
+     * Номера по типам вместе с проданными ночами и выручкой их бронирований
+     * (итоги по всем номерам складываются из этих строк)
+     */
     public static final String REPORT_REVENUE_BY_ROOM_TYPE = """
         SELECT
-            room_type,
-            COUNT(*) as room_count,
-            SUM(CASE WHEN status = 'occupied' THEN 1 ELSE 0 END) as occupied_count,
-            AVG(price) as avg_price
-        FROM rooms
-        GROUP BY room_type
-        ORDER BY room_type
+            r.room_type,
+            COUNT(*) AS room_count,
+            SUM(CASE WHEN r.status = 'occupied' THEN 1 ELSE 0 END) AS occupied_count,
+            SUM(CASE WHEN r.status = 'free' THEN 1 ELSE 0 END) AS free_count,
+            COALESCE(SUM(b.nights), 0) AS booked_nights,
+            COALESCE(SUM(b.revenue), 0) AS revenue
+        FROM rooms r
+        LEFT JOIN (
+            SELECT room_number,
+                   SUM(check_out_day - check_in_day) AS nights,
+                   SUM(total_price) AS revenue
+            FROM bookings
+            WHERE status IN ('active', 'completed')
+            GROUP BY room_number
+        ) b ON b.room_number = r.room_number
+        GROUP BY r.room_type
+        ORDER BY r.room_type
     """;
 
     public static final String REPORT_CLIENT_STATS = """
         SELECT
-            COUNT(*) as total_clients,
-            COUNT(DISTINCT room_number) as occupied_rooms_count,
-            AVG(DATEDIFF(check_out_date, check_in_date)) as avg_stay_days
+            COUNT(*) AS total_clients,
+            SUM(CASE WHEN status = 'active' THEN 1 ELSE 0 END) AS active_clients,
+            SUM(CASE WHEN status = 'pending' THEN 1 ELSE 0 END) AS pending_clients,
+            SUM(CASE WHEN status = 'checked_out' THEN 1 ELSE 0 END) AS checked_out_clients,
+            AVG(CASE WHEN status = 'active' THEN check_out_day - check_in_day END) AS avg_stay_days
         FROM clients
+    """;
+
+    public static final String REPORT_STAFF_BY_DEPARTMENT = """
+        SELECT
+            department,
+            COUNT(*) AS staff_count,
+            SUM(salary) AS total_salary
+        FROM staff
         WHERE status = 'active'
+        GROUP BY department
+        ORDER BY department
+    """;
+
+    //RATES
+
+    /**
+     * Таблицы тарифов (дублируют schema.sql для уже созданных баз)
+     */
+    public static final String[] RATE_TABLES = {
+        """
+        CREATE TABLE IF NOT EXISTS room_types (
+            room_type TEXT PRIMARY KEY,
+            weekday_rate REAL NOT NULL,
+            weekend_rate REAL NOT NULL
+        )
+        """,
+        """
+        CREATE TABLE IF NOT EXISTS rates (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            room_type TEXT NOT NULL,
+            season TEXT NOT NULL,
+            start_date TEXT NOT NULL,
+            end_date TEXT NOT NULL,
+            weekday_rate REAL NOT NULL,
+            weekend_rate REAL NOT NULL,
+            FOREIGN KEY (room_type) REFERENCES room_types(room_type) ON DELETE CASCADE
+        )
+        """
+    };
+
+    public static final String ROOM_TYPES_COUNT = "SELECT COUNT(*) FROM room_types";
+
+    public static final String ROOM_TYPES_INSERT_DEFAULTS = """
+        INSERT INTO room_types (room_type, weekday_rate, weekend_rate) VALUES
+        ('Эконом', 2500, 3000),
+        ('Стандарт', 3500, 4200),
+        ('Бизнес', 5500, 6500),
+        ('Люкс', 9000, 11000)
+    """;
+
+    public static final String ROOM_TYPES_SELECT_ALL = "SELECT * FROM room_types ORDER BY room_type";
+
+    public static final String ROOM_TYPES_UPSERT = """
+        INSERT INTO room_types (room_type, weekday_rate, weekend_rate) VALUES (?, ?, ?)
+        ON CONFLICT(room_type) DO UPDATE SET weekday_rate = excluded.weekday_rate, weekend_rate = excluded.weekend_rate
+    """;
+
+    /**
+     * Сезоны в порядке добавления: при пересечении действует добавленный позже
+     */
+    public static final String RATES_SELECT_ALL = "SELECT * FROM rates ORDER BY id";
+
+    public static final String RATES_INSERT = """
+        INSERT INTO rates (room_type, season, start_date, end_date, weekday_rate, weekend_rate)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
+    public static final String RATES_DELETE = "DELETE FROM rates WHERE id = ?";
+
+    public static final String ROOMS_SELECT_TYPES = "SELECT room_number, room_type FROM rooms";
+
+    //IDEMPOTENCY KEYS
+
+    /**
+     * Сохраненные ответы на запросы с заголовком Idempotency-Key (если включено hotel.idempotency.persist)
+     */
+    public static final String IDEMPOTENCY_TABLE = """
+        CREATE TABLE IF NOT EXISTS idempotency_keys (
+            idempotency_key TEXT PRIMARY KEY,
+            fingerprint TEXT NOT NULL,
+            response TEXT NOT NULL,
+            created_at INTEGER NOT NULL
+        )
+        """;
+
+    public static final String IDEMPOTENCY_SELECT =
+            "SELECT fingerprint, response, created_at FROM idempotency_keys WHERE idempotency_key = ? AND created_at >= ?";
+
+    public static final String IDEMPOTENCY_INSERT =
+            "INSERT OR REPLACE INTO idempotency_keys (idempotency_key, fingerprint, response, created_at) VALUES (?, ?, ?, ?)";
+
+    public static final String IDEMPOTENCY_DELETE_EXPIRED = "DELETE FROM idempotency_keys WHERE created_at < ?";
+
+    //COUNTERS
+
+    /**
+     * Сверка счетчиков занятости в памяти с таблицами
+     */
+    public static final String COUNTERS_ROOMS = "SELECT room_number, room_type, status FROM rooms";
+
+    public static final String COUNTERS_CLIENTS_BY_STATUS = "SELECT status, COUNT(*) AS count FROM clients GROUP BY status";
+
+    public static final String COUNTERS_ACTIVE_STAFF = "SELECT COUNT(*) FROM staff WHERE status = 'active'";
+
+    public static final String CLIENT_SELECT_STATUS = "SELECT status FROM clients WHERE passport_number = ?";
+
+    //INDEXES
+
+    /**
+     * Индексы под ключи постраничной выборки (дублируют schema.sql для уже созданных баз)
+     */
+    public static final String[] PAGINATION_INDEXES = {
+        "CREATE INDEX IF NOT EXISTS idx_clients_name_key ON clients(last_name, first_name, passport_number)",
+        "CREATE INDEX IF NOT EXISTS idx_staff_status_name_key ON staff(status, last_name, first_name, passport_number)",
+        "CREATE INDEX IF NOT EXISTS idx_bookings_check_in ON bookings(check_in_date)"
+    };
+
+    //EPOCH-DAY COLUMNS
+
+    /*
+     * Даты хранятся строками 'yyyy-MM-dd' (в этом формате их отдает API), а для сравнений
+     * рядом есть вычисляемые INTEGER-колонки с днями от эпохи. Колонки виртуальные: добавляются
+     * мгновенно, не требуют переноса данных и не могут разойтись со строковыми датами;
+     * значения физически хранятся только в индексах.
+     */
+    public static final String COLUMN_EXISTS = "SELECT COUNT(*) FROM pragma_table_xinfo(?) WHERE name = ?";
+
+    /**
+     * Таблица, колонка и DDL для ее добавления в базу, созданную старой версией schema.sql
+     */
+    public static final String[][] EPOCH_DAY_COLUMNS = {
+        {"bookings", "check_in_day", "ALTER TABLE bookings ADD COLUMN check_in_day " + epochDayOf("check_in_date")},
+        {"bookings", "check_out_day", "ALTER TABLE bookings ADD COLUMN check_out_day " + epochDayOf("check_out_date")},
+        {"clients", "check_in_day", "ALTER TABLE clients ADD COLUMN check_in_day " + epochDayOf("check_in_date")},
+        {"clients", "check_out_day", "ALTER TABLE clients ADD COLUMN check_out_day " + epochDayOf("check_out_date")}
+    };
+
+    public static final String[] EPOCH_DAY_INDEXES = {
+        "CREATE INDEX IF NOT EXISTS idx_bookings_overlap ON bookings(room_number, status, check_in_day, check_out_day)",
+        "CREATE INDEX IF NOT EXISTS idx_bookings_status_check_out ON bookings(status, check_out_day)",
+        "CREATE INDEX IF NOT EXISTS idx_clients_status_check_in ON clients(status, check_in_day)",
+        "CREATE INDEX IF NOT EXISTS idx_clients_status_check_out ON clients(status, check_out_day)"
+    };
+
+    private static String epochDayOf(String dateColumn) {
+        return "INTEGER GENERATED ALWAYS AS (CAST(julianday(" + dateColumn + ") - 2440587.5 AS INTEGER)) VIRTUAL";
+    }
+
+    //OCCUPANCY QUERIES
+
+    /*
+     * Переход на новую дату одним проходом: каждый запрос выбирает по индексу только строки,
+     * статус которых меняется, поэтому время не зависит от объема накопленной истории.
+     */
+    public static final String OCCUPANCY_CHECK_IN_CLIENTS =
+            "UPDATE clients SET status = 'active' WHERE status = 'pending' AND check_in_day <= ?";
+
+    public static final String OCCUPANCY_CHECK_OUT_CLIENTS =
+            "UPDATE clients SET status = 'checked_out' WHERE status = 'active' AND check_out_day < ?";
+
+    /**
+     * Параметры: нижняя граница дня выезда (выезды раньше нее уже обработаны), новая дата
+     */
+    public static final String OCCUPANCY_FREE_ROOMS = """
+        UPDATE rooms SET status = 'free'
+        WHERE status <> 'free' AND room_number IN (
+            SELECT room_number FROM clients
+            WHERE status = 'checked_out' AND check_out_day >= ? AND check_out_day < ?
+        )
+    """;
+
+    public static final String OCCUPANCY_OCCUPY_ROOMS = """
+        UPDATE rooms SET status = 'occupied'
+        WHERE status <> 'occupied' AND room_number IN (
+            SELECT room_number FROM clients
+            WHERE status = 'active' AND check_in_day <= ? AND check_out_day > ?
+        )
+    """;
+
+    public static final String OCCUPANCY_COMPLETE_BOOKINGS =
+            "UPDATE bookings SET status = 'completed' WHERE status = 'active' AND check_out_day < ?";
+
+    /*
+     * Распределение переходов по дням периода. Первый параметр - первый день периода:
+     * все, что должно было произойти раньше, относится к нему.
+     */
+    public static final String OCCUPANCY_CHECK_INS_BY_DAY = """
+        SELECT MAX(check_in_day, ?) AS day, COUNT(*) AS count
+        FROM clients
+        WHERE status = 'pending' AND check_in_day <= ?
+        GROUP BY day
+    """;
+
+    public static final String OCCUPANCY_CHECK_OUTS_BY_DAY = """
+        SELECT MAX(check_out_day + 1, ?) AS day, COUNT(*) AS count
+        FROM clients
+        WHERE check_out_day < ?
+        AND (status = 'active' OR (status = 'pending' AND check_in_day <= ?))
+        GROUP BY day
+    """;
+
+    public static final String OCCUPANCY_COMPLETED_BOOKINGS_BY_DAY = """
+        SELECT MAX(check_out_day + 1, ?) AS day, COUNT(*) AS count
+        FROM bookings
+        WHERE status = 'active' AND check_out_day < ?
+        GROUP BY day
     """;
 
     //VALIDATION QUERIES
@@ -222,6 +555,26 @@ public class SqlQueries {
     public static final String ADD_CLIENT = "INSERT INTO clients (passport_number, first_name, last_name, phone_number, email, check_in_date, check_out_date, room_number, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'pending')";
     public static final String RESEAT_CLIENT = "INSERT OR REPLACE INTO clients (passport_number, first_name, last_name, phone_number, email, check_in_date, check_out_date, room_number, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'pending')";
 
+    public static final String RESEAT_CLIENT_IF_NOT_CHECKED_IN = """
+        INSERT OR REPLACE INTO clients (passport_number, first_name, last_name, phone_number, email,
+                                        check_in_date, check_out_date, room_number, status)
+        SELECT ?, ?, ?, ?, ?, ?, ?, ?, 'pending'
+        WHERE NOT EXISTS (
+            SELECT 1 FROM clients WHERE passport_number = ? AND status IN ('active', 'pending')
+        )
+    """;
+
+    public static final String BOOKING_INSERT_IF_AVAILABLE = """
+        INSERT INTO bookings (room_number, client_passport, check_in_date, check_out_date, total_price, status)
+        SELECT ?, ?, ?, ?, ?, 'active'
+        WHERE NOT EXISTS (
+            SELECT 1 FROM bookings
+            WHERE room_number = ? AND status = 'active'
+            AND check_in_day <= ? AND check_out_day >= ?
+            AND NOT (check_in_day = ? AND check_out_day = ?)
+        )
+    """;
+
     public static final String DELETE_CLIENT = "DELETE FROM clients WHERE passport_number = ?";
 
     public static final String ROOMS_SET_FREE = "UPDATE rooms SET status = 'free'";
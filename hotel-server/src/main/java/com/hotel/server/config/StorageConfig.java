@@ -0,0 +1,148 @@
+package com.hotel.server.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.sqlite.JDBC;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteDataSource;
+import org.sqlite.jdbc4.JDBC4Connection;
+
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Подключения к SQLite: журнал WAL, один пишущий пул из одного соединения
+ * (через него идут все транзакции) и отдельный пул соединений только для чтения.
+ */
+@Configuration
+public class StorageConfig {
+    private static final Logger logger = LogManager.getLogger(StorageConfig.class);
+
+    public static final String WRITE_POOL = "hotel-write";
+    public static final String READ_POOL = "hotel-read";
+
+    /**
+     * Пишущий пул: единственное соединение, поэтому запись не конкурирует за блокировку файла
+     */
+    @Bean(destroyMethod = "close")
+    @Primary
+    public HikariDataSource writeDataSource(StorageProperties properties) {
+        SQLiteConfig sqlite = basePragmas(properties);
+        sqlite.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqlite.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(WRITE_POOL);
+        config.setDataSource(new WriteConnectionSource(sqlite, properties.getUrl()));
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(properties.getConnectionTimeout());
+
+        logger.info("Пул записи SQLite: {} (WAL, synchronous=NORMAL)", properties.getUrl());
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Пул чтения для GET-запросов. Создается после пишущего пула,
+     * который создает файл базы и переводит его в режим WAL
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readDataSource(StorageProperties properties,
+                                           @Qualifier("writeDataSource") HikariDataSource writeDataSource) {
+        SQLiteConfig sqlite = basePragmas(properties);
+        sqlite.setReadOnly(true);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(READ_POOL);
+        config.setJdbcUrl(properties.getUrl());
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setDataSourceProperties(sqlite.toProperties());
+        config.setReadOnly(true);
+        config.setMaximumPoolSize(properties.getReadPoolSize());
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(properties.getConnectionTimeout());
+
+        logger.info("Пул чтения SQLite: {} соединений", properties.getReadPoolSize());
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(@Qualifier("writeDataSource") HikariDataSource writeDataSource) {
+        return new JdbcTemplate(writeDataSource);
+    }
+
+    @Bean
+    public JdbcTemplate readJdbcTemplate(@Qualifier("readDataSource") HikariDataSource readDataSource) {
+        return new JdbcTemplate(readDataSource);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(@Qualifier("writeDataSource") HikariDataSource writeDataSource) {
+        return new DataSourceTransactionManager(writeDataSource);
+    }
+
+    /**
+     * Соединения пула записи - WriteConnection с прагмами из config
+     */
+    private static final class WriteConnectionSource extends SQLiteDataSource {
+        private WriteConnectionSource(SQLiteConfig config, String url) {
+            super(config);
+            setUrl(url);
+        }
+
+        @Override
+        public SQLiteConnection getConnection(String username, String password) throws SQLException {
+            Properties connectionProperties = getConfig().toProperties();
+            String url = getUrl().trim();
+            return new WriteConnection(url, url.substring(JDBC.PREFIX.length()), connectionProperties);
+        }
+    }
+
+    /**
+     * Драйвер меняет флаг autocommit до выполнения BEGIN IMMEDIATE (COMMIT). Если BEGIN не получил блокировку
+     * (SQLITE_BUSY), соединение осталось бы вне autocommit без начатой транзакции: Spring больше не начинал бы
+     * на нем транзакции, и запись шла бы без BEGIN. Здесь при ошибке флаг возвращается к прежнему значению
+     */
+    static final class WriteConnection extends JDBC4Connection {
+        private WriteConnection(String url, String fileName, Properties properties) throws SQLException {
+            super(url, fileName, properties);
+        }
+
+        @Override
+        public void setAutoCommit(boolean autoCommit) throws SQLException {
+            boolean previous = getConnectionConfig().isAutoCommit();
+            try {
+                super.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                getConnectionConfig().setAutoCommit(previous);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Прагмы, общие для всех соединений
+     */
+    private static SQLiteConfig basePragmas(StorageProperties properties) {
+        SQLiteConfig sqlite = new SQLiteConfig();
+        sqlite.enforceForeignKeys(true);
+        sqlite.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        sqlite.setBusyTimeout(properties.getBusyTimeout());
+        sqlite.setCacheSize(properties.getCacheSize());
+        sqlite.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(properties.getMmapSize()));
+        sqlite.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        return sqlite;
+    }
+}
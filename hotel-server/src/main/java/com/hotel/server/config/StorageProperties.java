@@ -0,0 +1,36 @@
+package com.hotel.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки хранилища SQLite (секция hotel.storage в application.yml)
+ */
+@Component
+@ConfigurationProperties(prefix = "hotel.storage")
+public class StorageProperties {
+    private String url = "jdbc:sqlite:hotel.db";
+    private int readPoolSize = 4;
+    private int busyTimeout = 5000;
+    private long mmapSize = 268435456L;
+    private int cacheSize = -16000;
+    private long connectionTimeout = 30000L;
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public int getReadPoolSize() { return readPoolSize; }
+    public void setReadPoolSize(int readPoolSize) { this.readPoolSize = readPoolSize; }
+
+    public int getBusyTimeout() { return busyTimeout; }
+    public void setBusyTimeout(int busyTimeout) { this.busyTimeout = busyTimeout; }
+
+    public long getMmapSize() { return mmapSize; }
+    public void setMmapSize(long mmapSize) { this.mmapSize = mmapSize; }
+
+    public int getCacheSize() { return cacheSize; }
+    public void setCacheSize(int cacheSize) { this.cacheSize = cacheSize; }
+
+    public long getConnectionTimeout() { return connectionTimeout; }
+    public void setConnectionTimeout(long connectionTimeout) { this.connectionTimeout = connectionTimeout; }
+}
@@ -0,0 +1,32 @@
+package com.hotel.server.controller;
+
+import com.hotel.server.service.TokenService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+    private final TokenService tokenService;
+
+    public AuthController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * Выдать токен доступа. Запрос аутентифицируется только по логину и паролю (Basic):
+     * BearerTokenFilter не принимает здесь токен. Последующие запросы - по выданному токену.
+     */
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, Object>> issueToken(Authentication authentication) {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "token", tokenService.issue(authentication),
+                "tokenType", "Bearer",
+                "expiresIn", tokenService.getTtlSeconds()
+        ));
+    }
+}
@@ -1,33 +1,58 @@
 package com.hotel.server.controller;
 
 import com.hotel.server.model.Client;
+import com.hotel.server.model.Page;
+import com.hotel.server.service.BookingHistoryExporter;
 import com.hotel.server.service.BookingService;
+import com.hotel.server.service.IdempotencyStore;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingHistoryExporter bookingHistoryExporter;
+    private final IdempotencyStore idempotencyStore;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingHistoryExporter bookingHistoryExporter,
+                             IdempotencyStore idempotencyStore) {
         this.bookingService = bookingService;
+        this.bookingHistoryExporter = bookingHistoryExporter;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @PostMapping("/check-in")
-    public ResponseEntity<Map<String, Object>> checkIn(@RequestBody Client client) {
-        Map<String, Object> result = bookingService.checkInClient(client);
-        return ResponseEntity.ok(result);
+    public ResponseEntity<Map<String, Object>> checkIn(@RequestBody Client client,
+                                                       @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, "check-in", client, () -> bookingService.checkInClient(client));
+    }
+
+    /**
+     * Групповое заселение: все гости или никто
+     */
+    @PostMapping("/group-check-in")
+    public ResponseEntity<Map<String, Object>> checkInGroup(@RequestBody List<Client> guests,
+                                                            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, "group-check-in", guests, () -> bookingService.checkInGroup(guests));
     }
 
     @PostMapping("/check-out")
-    public ResponseEntity<Map<String, Object>> checkOut(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, Object>> checkOut(@RequestBody Map<String, String> request,
+                                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         String passportNumber = request.get("passportNumber");
-        Map<String, Object> result = bookingService.checkOutClient(passportNumber);
-        return ResponseEntity.ok(result);
+        return idempotent(idempotencyKey, "check-out", request, () -> bookingService.checkOutClient(passportNumber));
     }
 
     @GetMapping("/history")
@@ -35,8 +60,61 @@ public class BookingController {
         return bookingService.getAllBookingHistory();
     }
 
+    @GetMapping(value = "/history", params = "limit")
+    public ResponseEntity<Page<Map<String, Object>>> getBookingHistoryPage(@RequestParam(required = false) String after,
+                                                                          @RequestParam int limit) {
+        try {
+            return ResponseEntity.ok(bookingService.getBookingHistoryPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    /**
+     * Потоковая выгрузка всей истории бронирований (format = ndjson | csv)
+     */
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingHistory(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        BookingHistoryExporter.Format exportFormat;
+        try {
+            exportFormat = BookingHistoryExporter.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> bookingHistoryExporter.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"booking-history." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/history/room/{roomNumber}")
     public List<Map<String, Object>> getBookingHistoryByRoom(@PathVariable Integer roomNumber) {
         return bookingService.getBookingHistoryByRoom(roomNumber);
     }
+
+    /**
+     * Повтор запроса с тем же Idempotency-Key возвращает сохраненный ответ, не выполняя операцию заново.
+     * Сбой БД - 503: ответ не сохраняется, и повтор с тем же ключом выполнит операцию снова
+     */
+    private ResponseEntity<Map<String, Object>> idempotent(String idempotencyKey, String operation, Object request,
+                                                           Supplier<Map<String, Object>> action) {
+        IdempotencyStore.Outcome outcome;
+        try {
+            outcome = idempotencyStore.execute(idempotencyKey, operation, request, action);
+        } catch (DataAccessException | TransactionException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("error", "Временная ошибка базы данных, повторите запрос");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(outcome.getStatus());
+        if (outcome.isReplayed()) {
+            response.header(IdempotencyStore.REPLAYED_HEADER, "true");
+        }
+        return response.body(outcome.getBody());
+    }
 }
\ No newline at end of file
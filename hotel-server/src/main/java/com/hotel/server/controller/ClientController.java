@@ -1,10 +1,19 @@
 package com.hotel.server.controller;
 
 import com.hotel.server.model.Client;
+import com.hotel.server.model.Page;
+import com.hotel.server.service.BatchImporter;
 import com.hotel.server.service.ClientService;
+import com.hotel.server.service.CollectionVersions;
+import com.hotel.server.service.VersionedResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -12,14 +21,40 @@ import java.util.Map;
 @RequestMapping("/api/clients")
 public class ClientController {
     private final ClientService clientService;
+    private final BatchImporter batchImporter;
+    private final VersionedResponses responses;
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, BatchImporter batchImporter, VersionedResponses responses) {
         this.clientService = clientService;
+        this.batchImporter = batchImporter;
+        this.responses = responses;
     }
 
+    /**
+     * Все клиенты с ETag версии: пока клиенты не менялись, отдаются готовые байты или 304
+     */
     @GetMapping
-    public List<Client> getAllClients() {
-        return clientService.getAllClients();
+    public ResponseEntity<Resource> getAllClients(WebRequest request) {
+        return JsonBody.versioned(request, responses, "clients", CollectionVersions.CLIENTS, clientService::getAllClients);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<Page<Client>> getClientsPage(@RequestParam(required = false) String after,
+                                                       @RequestParam int limit) {
+        try {
+            return ResponseEntity.ok(clientService.getClientsPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    /**
+     * Поиск по началу фамилии, имени или номера паспорта
+     */
+    @GetMapping("/search")
+    public List<Client> searchClients(@RequestParam(defaultValue = "") String q,
+                                      @RequestParam(defaultValue = "20") int limit) {
+        return clientService.searchClients(q, limit);
     }
 
     @PostMapping
@@ -28,6 +63,26 @@ public class ClientController {
         return ResponseEntity.ok(Map.of("success", success));
     }
 
+    /**
+     * Пакетная загрузка клиентов из JSON-массива, результат по каждой строке
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> importClients(@RequestBody List<Client> clients) {
+        return ResponseEntity.ok(batchImporter.importClients(clients));
+    }
+
+    /**
+     * Пакетная загрузка клиентов из CSV с заголовком; файл читается потоком
+     */
+    @PostMapping(value = "/batch", consumes = "text/csv")
+    public ResponseEntity<Map<String, Object>> importClientsCsv(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(batchImporter.importClientsCsv(request.getInputStream(), request.getCharacterEncoding()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{passportNumber}")
     public ResponseEntity<Map<String, Object>> deleteClient(@PathVariable String passportNumber) {
         boolean success = clientService.deleteClient(passportNumber);
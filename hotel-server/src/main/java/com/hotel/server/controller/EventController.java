@@ -0,0 +1,26 @@
+package com.hotel.server.controller;
+
+import com.hotel.server.service.ChangeEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+    private final ChangeEventPublisher publisher;
+
+    public EventController(ChangeEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Лента изменений номеров, клиентов, бронирований и персонала.
+     * После переподключения события с Last-Event-ID досылаются, если они еще хранятся,
+     * иначе приходит событие resync
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return publisher.subscribe(lastEventId);
+    }
+}
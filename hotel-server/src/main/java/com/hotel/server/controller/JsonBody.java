@@ -0,0 +1,38 @@
+package com.hotel.server.controller;
+
+import com.hotel.server.service.VersionedResponses;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Ответ с уже сериализованным JSON. Байты отдаются как Resource, а не byte[]:
+ * при отладочном логировании Spring выводит byte[] поэлементно, что для больших списков занимает сотни МБ
+ */
+final class JsonBody {
+
+    private JsonBody() {
+    }
+
+    /**
+     * Список с ETag версии коллекции. Если If-None-Match совпадает с текущей версией,
+     * отвечает 304 без загрузки списка (null - ответ уже сформирован checkNotModified)
+     */
+    static ResponseEntity<Resource> versioned(WebRequest request, VersionedResponses responses,
+                                              String key, String collection, Supplier<?> loader) {
+        if (request.checkNotModified(responses.currentEtag(collection))) {
+            return null;
+        }
+        VersionedResponses.Snapshot snapshot = responses.get(key, collection, loader);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(new ByteArrayResource(snapshot.getJson()));
+    }
+}
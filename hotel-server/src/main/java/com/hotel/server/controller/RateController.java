@@ -0,0 +1,91 @@
+package com.hotel.server.controller;
+
+import com.hotel.server.service.RateService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Тарифы по типам номеров и расчет стоимости проживания
+ */
+@RestController
+@RequestMapping("/api/rates")
+public class RateController {
+    private static final Logger logger = LogManager.getLogger(RateController.class);
+
+    private final RateService rateService;
+
+    public RateController(RateService rateService) {
+        this.rateService = rateService;
+    }
+
+    @GetMapping
+    public Map<String, Object> getTariffs() {
+        return rateService.getTariffs();
+    }
+
+    /**
+     * Базовый тариф типа номера: {"weekdayRate": ..., "weekendRate": ...}
+     */
+    @PutMapping("/types/{roomType}")
+    public ResponseEntity<Map<String, Object>> setRoomTypeRates(@PathVariable String roomType,
+                                                                @RequestBody Map<String, Double> rates) {
+        try {
+            rateService.setRoomTypeRates(roomType, value(rates.get("weekdayRate")), value(rates.get("weekendRate")));
+            return ResponseEntity.ok(Map.of("success", true));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Сезонный тариф: {"roomType", "season", "startDate", "endDate", "weekdayRate", "weekendRate"}
+     */
+    @PostMapping("/seasons")
+    public ResponseEntity<Map<String, Object>> addSeason(@RequestBody Map<String, Object> season) {
+        try {
+            long id = rateService.addSeason(
+                    String.valueOf(season.get("roomType")),
+                    String.valueOf(season.getOrDefault("season", "")),
+                    String.valueOf(season.get("startDate")),
+                    String.valueOf(season.get("endDate")),
+                    value(season.get("weekdayRate")),
+                    value(season.get("weekendRate")));
+            return ResponseEntity.ok(Map.of("success", true, "id", id));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Сезонный тариф не добавлен: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/seasons/{id}")
+    public ResponseEntity<Map<String, Object>> deleteSeason(@PathVariable long id) {
+        boolean deleted = rateService.deleteSeason(id);
+        return ResponseEntity.ok(Map.of("success", deleted));
+    }
+
+    /**
+     * Стоимость проживания для списка запросов, ответ в том же порядке
+     */
+    @PostMapping("/quote")
+    public ResponseEntity<List<Map<String, Object>>> quote(@RequestBody List<Map<String, Object>> items) {
+        try {
+            return ResponseEntity.ok(rateService.quote(items));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Расчет стоимости отклонен: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    private static double value(Object rate) {
+        if (rate == null) {
+            throw new IllegalArgumentException("Не указана цена за ночь");
+        }
+        return Double.parseDouble(rate.toString());
+    }
+}
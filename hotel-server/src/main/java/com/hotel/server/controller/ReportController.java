@@ -0,0 +1,24 @@
+package com.hotel.server.controller;
+
+import com.hotel.server.service.ReportService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    /**
+     * Сводка: загрузка и типы номеров, клиенты, персонал по отделам, выручка
+     */
+    @GetMapping("/summary")
+    public Map<String, Object> getSummary() {
+        return reportService.getSummary();
+    }
+}
@@ -3,9 +3,14 @@ package com.hotel.server.controller;
 import com.hotel.server.model.Room;
 import com.hotel.server.service.ClientService;
 import com.hotel.server.service.RoomService;
+import com.hotel.server.service.CollectionVersions;
+import com.hotel.server.service.VersionedResponses;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,25 +22,46 @@ import org.apache.logging.log4j.Logger;
 @RequestMapping("/api/rooms")
 public class RoomController {
     private final RoomService roomService;
+    private final VersionedResponses responses;
     private static final Logger logger = LogManager.getLogger(RoomController.class);
 
-    public RoomController(RoomService roomService) {
+    public RoomController(RoomService roomService, VersionedResponses responses) {
         this.roomService = roomService;
+        this.responses = responses;
     }
 
+    /**
+     * Списки номеров с ETag версии: пока номера не менялись, отдаются готовые байты или 304
+     */
     @GetMapping
-    public List<Room> getAllRooms() {
-        return roomService.getAllRooms();
+    public ResponseEntity<Resource> getAllRooms(WebRequest request) {
+        return JsonBody.versioned(request, responses, "rooms", CollectionVersions.ROOMS, roomService::getAllRooms);
     }
 
     @GetMapping("/free")
-    public List<Room> getFreeRooms() {
-        return roomService.getFreeRooms();
+    public ResponseEntity<Resource> getFreeRooms(WebRequest request) {
+        return JsonBody.versioned(request, responses, "rooms/free", CollectionVersions.ROOMS, roomService::getFreeRooms);
     }
 
     @GetMapping("/occupied")
-    public List<Room> getOccupiedRooms() {
-        return roomService.getOccupiedRooms();
+    public ResponseEntity<Resource> getOccupiedRooms(WebRequest request) {
+        return JsonBody.versioned(request, responses, "rooms/occupied", CollectionVersions.ROOMS,
+                roomService::getOccupiedRooms);
+    }
+
+    /**
+     * Поиск свободных номеров типа на период одним запросом
+     */
+    @GetMapping("/available")
+    public ResponseEntity<List<Room>> getAvailableRooms(@RequestParam(required = false) String type,
+                                                        @RequestParam(required = false) String from,
+                                                        @RequestParam(required = false) String to) {
+        try {
+            return ResponseEntity.ok(roomService.getAvailableRooms(type, from, to));
+        } catch (DateTimeParseException e) {
+            logger.warn("Некорректный период поиска номеров: {} - {}", from, to);
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     @PutMapping("/{roomNumber}/status")
@@ -76,6 +102,21 @@ public class RoomController {
         }
     }
 
+    /**
+     * Переход сразу на несколько дней вперед: {fromDate - текущая дата клиента, toDate - новая}
+     */
+    @PostMapping("/advance-to")
+    public ResponseEntity<Map<String, Object>> advanceToDate(@RequestBody Map<String, String> request) {
+        try {
+            return ResponseEntity.ok(roomService.advanceToDate(request.get("fromDate"), request.get("toDate")));
+        } catch (Exception e) {
+            logger.error("Ошибка при переходе на дату {}: {}", request.get("toDate"), e.getMessage());
+            return ResponseEntity.badRequest().body(
+                    Map.of("success", false, "error", String.valueOf(e.getMessage()))
+            );
+        }
+    }
+
     @PostMapping("/check-availability")
     public ResponseEntity<Map<String, Object>> checkAvailability(@RequestBody Map<String, Object> request) {
         try {
@@ -96,4 +137,21 @@ public class RoomController {
             );
         }
     }
+
+    /**
+     * Счетчики попаданий и промахов кэша списков номеров
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(roomService.getCacheStats());
+    }
+
+    /**
+     * Сверка индекса доступности номеров с БД (repair=true - перезагрузить при расхождении)
+     */
+    @GetMapping("/availability-index/verify")
+    public ResponseEntity<Map<String, Object>> verifyAvailabilityIndex(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(roomService.verifyAvailabilityIndex(repair));
+    }
 }
\ No newline at end of file
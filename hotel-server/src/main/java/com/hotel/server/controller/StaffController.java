@@ -1,11 +1,20 @@
 package com.hotel.server.controller;
 
+import com.hotel.server.model.Page;
 import com.hotel.server.model.Staff;
+import com.hotel.server.service.BatchImporter;
+import com.hotel.server.service.CollectionVersions;
 import com.hotel.server.service.StaffService;
+import com.hotel.server.service.VersionedResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,26 +29,43 @@ import org.apache.logging.log4j.Logger;
 public class StaffController {
 
     private final StaffService staffService;
+    private final BatchImporter batchImporter;
+    private final VersionedResponses responses;
     private static final Logger logger = LogManager.getLogger(StaffController.class);
 
-    public StaffController(StaffService staffService) {
+    public StaffController(StaffService staffService, BatchImporter batchImporter, VersionedResponses responses) {
         this.staffService = staffService;
+        this.batchImporter = batchImporter;
+        this.responses = responses;
     }
     /**
      * Получить всех сотрудников
      */
     @GetMapping
-    public ResponseEntity<List<Staff>> getAllStaff() {
+    public ResponseEntity<Resource> getAllStaff(WebRequest request) {
         try {
-            List<Staff> staff = staffService.getAllStaff();
-            System.out.println("Отправлено сотрудников: " + staff.size());
-            return ResponseEntity.ok(staff);
+            // ETag версии: пока персонал не менялся, отдаются готовые байты или 304
+            return JsonBody.versioned(request, responses, "staff", CollectionVersions.STAFF, staffService::getAllStaff);
         } catch (Exception e) {
             System.err.println("Ошибка получения сотрудников: " + e.getMessage());
             return ResponseEntity.badRequest().body(null);
         }
     }
 
+    /**
+     * Получить страницу сотрудников
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<Page<Staff>> getStaffPage(@RequestParam(required = false) String after,
+                                                    @RequestParam int limit) {
+        try {
+            return ResponseEntity.ok(staffService.getStaffPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Некорректный курсор страницы сотрудников: {}", after);
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
     /**
      * Добавить нового сотрудника
      */
@@ -64,6 +90,27 @@ public class StaffController {
         }
     }
 
+    /**
+     * Пакетная загрузка сотрудников из JSON-массива, результат по каждой строке
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> importStaff(@RequestBody List<Staff> staff) {
+        return ResponseEntity.ok(batchImporter.importStaff(staff));
+    }
+
+    /**
+     * Пакетная загрузка сотрудников из CSV с заголовком
+     */
+    @PostMapping(value = "/batch", consumes = "text/csv")
+    public ResponseEntity<Map<String, Object>> importStaffCsv(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(batchImporter.importStaffCsv(request.getInputStream(), request.getCharacterEncoding()));
+        } catch (IOException e) {
+            logger.warn("Загрузка персонала из CSV отклонена: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
     /**
      * Очистка всего персонала
      */
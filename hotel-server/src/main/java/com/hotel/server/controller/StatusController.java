@@ -1,6 +1,12 @@
 package com.hotel.server.controller;
 
+import com.hotel.server.service.OccupancyCounters;
+import com.hotel.server.service.SingleFlight;
+import com.hotel.server.service.VersionedResponses;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -22,10 +28,29 @@ import org.apache.logging.log4j.Logger;
 public class StatusController {
 
     @Autowired
+    @Qualifier("readJdbcTemplate")
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private OccupancyCounters counters;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private VersionedResponses versionedResponses;
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private HikariDataSource writeDataSource;
+
+    @Autowired
+    @Qualifier("readDataSource")
+    private HikariDataSource readDataSource;
+
     /**
-     * Статус системы в формате JSON
+     * Статус системы в формате JSON.
+     * Счетчики берутся из памяти, запросов к БД нет
      */
     @GetMapping("/status")
     public Map<String, Object> getStatus() {
@@ -43,32 +68,62 @@ public class StatusController {
         ));
         status.put("authentication", "Basic Auth: admin/hotel123");
 
-        try {
-            // Проверяем подключение к БД
-            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
-            status.put("database", "🟢 CONNECTED");
+        // Состояние БД - по последней сверке счетчиков с таблицами
+        Map<String, Object> occupancy = counters.snapshot();
+        status.put("database", counters.isHealthy() ? "🟢 CONNECTED" : "🔴 ERROR: " + occupancy.get("lastError"));
 
-            // Базовая статистика
-            status.put("totalClients", getCount("SELECT COUNT(*) FROM clients WHERE status = 'active'"));
-            status.put("totalStaff", getCount("SELECT COUNT(*) FROM staff WHERE status = 'active'"));
-            status.put("totalRooms", getCount("SELECT COUNT(*) FROM rooms"));
-
-        } catch (Exception e) {
-            status.put("database", "🔴 ERROR: " + e.getMessage());
-            status.put("totalClients", 0);
-            status.put("totalStaff", 0);
-            status.put("totalRooms", 0);
-        }
+        // Базовая статистика
+        status.put("totalClients", occupancy.get("activeClients"));
+        status.put("totalStaff", occupancy.get("activeStaff"));
+        status.put("totalRooms", occupancy.get("totalRooms"));
+        status.put("occupancy", occupancy);
 
         return status;
     }
 
-    private int getCount(String sql) {
+    /**
+     * Метрики пулов соединений SQLite
+     */
+    @GetMapping("/status/storage")
+    public Map<String, Object> getStorageStatus() {
+        Map<String, Object> storage = new HashMap<>();
+        storage.put("writePool", poolMetrics(writeDataSource));
+        storage.put("readPool", poolMetrics(readDataSource));
         try {
-            Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
-            return count != null ? count : 0;
+            storage.put("journalMode", jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class));
         } catch (Exception e) {
-            return 0;
+            storage.put("journalMode", "🔴 ERROR: " + e.getMessage());
+        }
+        return storage;
+    }
+
+    /**
+     * Сколько одновременных чтений списков было объединено в одно
+     */
+    @GetMapping("/status/coalescing")
+    public Map<String, Object> getCoalescingStatus() {
+        return singleFlight.getStats();
+    }
+
+    /**
+     * Кэш сериализованных списков по версиям коллекций
+     */
+    @GetMapping("/status/responses")
+    public Map<String, Object> getResponsesStatus() {
+        return versionedResponses.getStats();
+    }
+
+    private Map<String, Object> poolMetrics(HikariDataSource dataSource) {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("name", dataSource.getPoolName());
+        metrics.put("maxSize", dataSource.getMaximumPoolSize());
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            metrics.put("active", pool.getActiveConnections());
+            metrics.put("idle", pool.getIdleConnections());
+            metrics.put("total", pool.getTotalConnections());
+            metrics.put("awaiting", pool.getThreadsAwaitingConnection());
         }
+        return metrics;
     }
 }
\ No newline at end of file
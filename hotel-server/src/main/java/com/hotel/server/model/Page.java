@@ -0,0 +1,70 @@
+package com.hotel.server.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница результатов с курсором на следующую страницу (keyset-пагинация).
+ * Курсор - закодированные значения ключа сортировки последней строки страницы.
+ */
+public class Page<T> {
+    public static final int MAX_LIMIT = 500;
+
+    private static final String SEPARATOR = "\u001F";
+
+    private List<T> items;
+    private String nextCursor;
+
+    public Page() {}
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Собирает страницу из limit + 1 прочитанных строк: лишняя строка означает, что есть продолжение
+     */
+    public static <T> Page<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new Page<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    public static int normalizeLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static String encodeCursor(Object... keys) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) joined.append(SEPARATOR);
+            joined.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joined.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если курсор поврежден
+     */
+    public static String[] decodeCursor(String cursor, int keyCount) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] keys = decoded.split(SEPARATOR, -1);
+        if (keys.length != keyCount) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+        return keys;
+    }
+
+    // Геттеры и сеттеры
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,425 @@
+package com.hotel.server.service;
+
+import com.hotel.server.model.Client;
+import com.hotel.server.model.Staff;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.*;
+
+/**
+ * Пакетная загрузка клиентов и персонала из JSON-массива или CSV.
+ * Строки проверяются по одной и пишутся через batchUpdate порциями по CHUNK_SIZE,
+ * каждая порция - отдельная транзакция. Результат возвращается для каждой строки:
+ * ошибка в одной строке не мешает записи остальных.
+ */
+@Service
+public class BatchImporter {
+    private static final Logger logger = LogManager.getLogger(BatchImporter.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OccupancyCounters counters;
+    private final ClientSearchIndex searchIndex;
+    private final ChangeEventPublisher events;
+
+    public BatchImporter(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                         PlatformTransactionManager transactionManager, OccupancyCounters counters,
+                         ClientSearchIndex searchIndex, ChangeEventPublisher events) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.counters = counters;
+        this.searchIndex = searchIndex;
+        this.events = events;
+    }
+
+    public Map<String, Object> importClients(List<Client> clients) {
+        return importRows(listSource(clients), new ClientTarget());
+    }
+
+    /**
+     * Клиенты из CSV с колонками passportNumber, firstName, lastName, phoneNumber, email,
+     * checkInDate, checkOutDate, roomNumber (допускаются и имена вида check_in_date)
+     *
+     * @param encoding кодировка из Content-Type (null - UTF-8)
+     * @throws IOException если у CSV нет заголовка
+     */
+    public Map<String, Object> importClientsCsv(InputStream body, String encoding) throws IOException {
+        CsvReader csv = new CsvReader(reader(body, encoding));
+        return importRows(() -> {
+            CsvReader.Row row = csv.next();
+            if (row == null) {
+                return null;
+            }
+            Client client = new Client();
+            client.setPassportNumber(row.get("passportNumber"));
+            client.setFirstName(row.get("firstName"));
+            client.setLastName(row.get("lastName"));
+            client.setPhoneNumber(row.get("phoneNumber"));
+            client.setEmail(row.get("email"));
+            client.setCheckInDate(row.get("checkInDate"));
+            client.setCheckOutDate(row.get("checkOutDate"));
+            client.setRoomNumber(parseNumber(row.get("roomNumber"), "roomNumber", Integer::valueOf));
+            return client;
+        }, new ClientTarget());
+    }
+
+    public Map<String, Object> importStaff(List<Staff> staff) {
+        return importRows(listSource(staff), new StaffTarget());
+    }
+
+    /**
+     * Сотрудники из CSV с колонками passportNumber, firstName, lastName, position, phoneNumber,
+     * email, hireDate, salary, department
+     *
+     * @param encoding кодировка из Content-Type (null - UTF-8)
+     * @throws IOException если у CSV нет заголовка
+     */
+    public Map<String, Object> importStaffCsv(InputStream body, String encoding) throws IOException {
+        CsvReader csv = new CsvReader(reader(body, encoding));
+        return importRows(() -> {
+            CsvReader.Row row = csv.next();
+            if (row == null) {
+                return null;
+            }
+            Staff staff = new Staff();
+            staff.setPassportNumber(row.get("passportNumber"));
+            staff.setFirstName(row.get("firstName"));
+            staff.setLastName(row.get("lastName"));
+            staff.setPosition(row.get("position"));
+            staff.setPhoneNumber(row.get("phoneNumber"));
+            staff.setEmail(row.get("email"));
+            staff.setHireDate(row.get("hireDate"));
+            staff.setSalary(parseNumber(row.get("salary"), "salary", Double::valueOf));
+            staff.setDepartment(row.get("department"));
+            return staff;
+        }, new StaffTarget());
+    }
+
+    /**
+     * Источник строк: null - конец данных, IllegalArgumentException - строка прочитана, но некорректна
+     */
+    private interface RowSource<T> {
+        T next() throws IOException;
+    }
+
+    /**
+     * Таблица, в которую идет загрузка
+     */
+    private abstract static class Target<T> {
+        final String name;
+        final String sql;
+
+        Target(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+
+        abstract String key(T row);
+
+        /**
+         * Текст ошибки или null, если строку можно записывать
+         */
+        abstract String validate(T row);
+
+        abstract void bind(PreparedStatement ps, T row) throws SQLException;
+
+        /**
+         * Строка вставлена (вызывается внутри транзакции порции)
+         */
+        void inserted(T row) {}
+
+        /**
+         * Загрузка закончена, вставлено inserted строк
+         */
+        abstract void finished(int inserted);
+    }
+
+    private <T> Map<String, Object> importRows(RowSource<T> source, Target<T> target) {
+        long started = System.currentTimeMillis();
+        List<Map<String, Object>> results = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Map<String, Object>> chunkResults = new ArrayList<>(CHUNK_SIZE);
+        int inserted = 0;
+        String abortError = null;
+
+        try {
+            while (true) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("row", results.size() + 1);
+                T row;
+                try {
+                    row = source.next();
+                    if (row == null) {
+                        break;
+                    }
+                    result.put("passportNumber", target.key(row));
+                    String error = target.validate(row);
+                    if (error == null && !seenKeys.add(target.key(row))) {
+                        error = "Паспорт повторяется в загрузке";
+                    }
+                    if (error != null) {
+                        throw new IllegalArgumentException(error);
+                    }
+                } catch (IllegalArgumentException e) {
+                    result.put("success", false);
+                    result.put("error", e.getMessage());
+                    results.add(result);
+                    continue;
+                }
+
+                results.add(result);
+                chunk.add(row);
+                chunkResults.add(result);
+                if (chunk.size() == CHUNK_SIZE) {
+                    inserted += writeChunk(chunk, chunkResults, target);
+                    chunk.clear();
+                    chunkResults.clear();
+                }
+            }
+        } catch (IOException e) {
+            // Поток оборвался или CSV поврежден: уже прочитанные строки все равно записываются
+            abortError = e.getMessage();
+            logger.warn("Загрузка ({}) прервана на строке {}: {}", target.name, results.size() + 1, abortError);
+        }
+        if (!chunk.isEmpty()) {
+            inserted += writeChunk(chunk, chunkResults, target);
+        }
+        if (inserted > 0) {
+            target.finished(inserted);
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Загрузка ({}): строк {}, вставлено {} за {} мс", target.name, results.size(), inserted, elapsed);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", abortError == null);
+        response.put("total", results.size());
+        response.put("inserted", inserted);
+        response.put("failed", results.size() - inserted);
+        response.put("elapsedMs", elapsed);
+        if (abortError != null) {
+            response.put("error", abortError);
+        }
+        response.put("results", results);
+        return response;
+    }
+
+    /**
+     * Порция пишется одним batchUpdate. Если пакет падает (например, из-за внешнего ключа),
+     * транзакция откатывается и порция повторяется по одной строке, чтобы найти виновную
+     */
+    private <T> int writeChunk(List<T> chunk, List<Map<String, Object>> results, Target<T> target) {
+        try {
+            Integer inserted = transactionTemplate.execute(status -> {
+                int[][] counts = jdbcTemplate.batchUpdate(target.sql, chunk, chunk.size(), target::bind);
+                int count = 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    count += markResult(results.get(i), counts[0][i], chunk.get(i), target);
+                }
+                return count;
+            });
+            return inserted != null ? inserted : 0;
+        } catch (DataAccessException e) {
+            logger.warn("Пакет из {} строк ({}) не записан: {}, записываем по одной",
+                    chunk.size(), target.name, e.getMostSpecificCause().getMessage());
+        }
+
+        Integer inserted = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                T row = chunk.get(i);
+                try {
+                    int updated = jdbcTemplate.update(target.sql, ps -> target.bind(ps, row));
+                    count += markResult(results.get(i), updated, row, target);
+                } catch (DataAccessException e) {
+                    results.get(i).put("success", false);
+                    results.get(i).put("error", e.getMostSpecificCause().getMessage());
+                }
+            }
+            return count;
+        });
+        return inserted != null ? inserted : 0;
+    }
+
+    private static <T> int markResult(Map<String, Object> result, int updated, T row, Target<T> target) {
+        // 0 - строка с таким паспортом уже есть (ON CONFLICT DO NOTHING)
+        if (updated == 0) {
+            result.put("success", false);
+            result.put("error", "Запись с таким паспортом уже существует");
+            return 0;
+        }
+        result.put("success", true);
+        target.inserted(row);
+        return 1;
+    }
+
+    private final class ClientTarget extends Target<Client> {
+        private final Set<Integer> roomNumbers = new HashSet<>(
+                readJdbcTemplate.queryForList(ROOMS_SELECT_NUMBERS, Integer.class));
+
+        ClientTarget() {
+            super("клиенты", CLIENT_IMPORT);
+        }
+
+        @Override
+        String key(Client client) {
+            return client.getPassportNumber() == null ? null : client.getPassportNumber().trim();
+        }
+
+        @Override
+        String validate(Client client) {
+            if (isBlank(client.getPassportNumber())) return "Не указан номер паспорта";
+            if (isBlank(client.getFirstName())) return "Не указано имя";
+            if (isBlank(client.getLastName())) return "Не указана фамилия";
+            if (client.getRoomNumber() == null) return "Не указан номер комнаты";
+            if (!roomNumbers.contains(client.getRoomNumber())) return "Номер " + client.getRoomNumber() + " не найден";
+
+            LocalDate checkIn = parseDate(client.getCheckInDate());
+            LocalDate checkOut = parseDate(client.getCheckOutDate());
+            if (checkIn == null || checkOut == null) return "Даты заезда и выезда должны быть в формате yyyy-MM-dd";
+            if (!checkOut.isAfter(checkIn)) return "Дата выезда должна быть позже даты заезда";
+            return null;
+        }
+
+        @Override
+        void bind(PreparedStatement ps, Client client) throws SQLException {
+            ps.setString(1, client.getPassportNumber().trim());
+            ps.setString(2, client.getFirstName());
+            ps.setString(3, client.getLastName());
+            ps.setString(4, client.getPhoneNumber());
+            ps.setString(5, client.getEmail());
+            ps.setString(6, client.getCheckInDate().trim());
+            ps.setString(7, client.getCheckOutDate().trim());
+            ps.setInt(8, client.getRoomNumber());
+        }
+
+        @Override
+        void inserted(Client client) {
+            searchIndex.clientSaved(key(client), client.getFirstName(), client.getLastName());
+        }
+
+        @Override
+        void finished(int inserted) {
+            counters.bulkChanged();
+            // Клиентов слишком много для отдельных событий: подписчики перечитывают список целиком
+            events.publish(ChangeEventPublisher.CLIENTS_RESET, Map.of());
+        }
+    }
+
+    private final class StaffTarget extends Target<Staff> {
+        StaffTarget() {
+            super("персонал", STAFF_IMPORT);
+        }
+
+        @Override
+        String key(Staff staff) {
+            return staff.getPassportNumber() == null ? null : staff.getPassportNumber().trim();
+        }
+
+        @Override
+        String validate(Staff staff) {
+            if (isBlank(staff.getPassportNumber())) return "Не указан номер паспорта";
+            if (isBlank(staff.getFirstName())) return "Не указано имя";
+            if (isBlank(staff.getLastName())) return "Не указана фамилия";
+            if (isBlank(staff.getPosition())) return "Не указана должность";
+            if (isBlank(staff.getDepartment())) return "Не указан отдел";
+            if (parseDate(staff.getHireDate()) == null) return "Дата приема должна быть в формате yyyy-MM-dd";
+            if (staff.getSalary() == null || staff.getSalary() < 0) return "Не указана зарплата";
+            return null;
+        }
+
+        @Override
+        void bind(PreparedStatement ps, Staff staff) throws SQLException {
+            ps.setString(1, staff.getPassportNumber().trim());
+            ps.setString(2, staff.getFirstName());
+            ps.setString(3, staff.getLastName());
+            ps.setString(4, staff.getPosition());
+            ps.setString(5, staff.getPhoneNumber());
+            ps.setString(6, staff.getEmail());
+            ps.setString(7, staff.getHireDate().trim());
+            ps.setDouble(8, staff.getSalary());
+            ps.setString(9, staff.getDepartment());
+        }
+
+        @Override
+        void finished(int inserted) {
+            counters.bulkChanged();
+            events.publish(ChangeEventPublisher.STAFF_RESET, Map.of());
+        }
+    }
+
+    private static Reader reader(InputStream body, String encoding) {
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(body, charset));
+    }
+
+    private static <T> RowSource<T> listSource(List<T> rows) {
+        Iterator<T> iterator = rows.iterator();
+        return () -> {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            T row = iterator.next();
+            if (row == null) {
+                throw new IllegalArgumentException("Пустая строка");
+            }
+            return row;
+        };
+    }
+
+    private static <N> N parseNumber(String value, String column, Function<String, N> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное значение " + column + ": " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return date == null ? null : LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
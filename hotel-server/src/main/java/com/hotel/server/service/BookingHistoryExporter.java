@@ -0,0 +1,164 @@
+package com.hotel.server.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.BOOKING_SELECT_HISTORY;
+
+/**
+ * Потоковая выгрузка истории бронирований: строки пишутся в ответ прямо из курсора JDBC,
+ * поэтому расход памяти не зависит от размера истории.
+ */
+@Service
+public class BookingHistoryExporter {
+    private static final Logger logger = LogManager.getLogger(BookingHistoryExporter.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String CSV_HEADER = "id,roomNumber,clientPassport,checkInDate,checkOutDate,totalPrice,status";
+
+    /**
+     * Формат выгрузки
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        /**
+         * @throws IllegalArgumentException если формат не поддерживается
+         */
+        public static Format parse(String value) {
+            return Format.valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    private final JdbcTemplate readJdbcTemplate;
+
+    public BookingHistoryExporter(@Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate) {
+        this.readJdbcTemplate = readJdbcTemplate;
+    }
+
+    /**
+     * Записывает всю историю бронирований в поток в заданном формате
+     */
+    public void export(Format format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long rows;
+        try {
+            rows = format == Format.CSV ? exportCsv(out) : exportNdjson(out);
+        } catch (UncheckedIOException e) {
+            // Клиент закрыл соединение посреди выгрузки
+            throw e.getCause();
+        }
+        logger.info("Выгружено {} записей истории ({}) за {} мс",
+                rows, format, System.currentTimeMillis() - started);
+    }
+
+    private long exportNdjson(OutputStream out) throws IOException {
+        long[] rows = {0};
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            readJdbcTemplate.query(BOOKING_SELECT_HISTORY, (RowCallbackHandler) rs -> {
+                try {
+                    writeJsonRow(generator, rs);
+                    generator.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return rows[0];
+    }
+
+    private long exportCsv(OutputStream out) throws IOException {
+        long[] rows = {0};
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+            readJdbcTemplate.query(BOOKING_SELECT_HISTORY, (RowCallbackHandler) rs -> {
+                try {
+                    writeCsvRow(writer, rs);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return rows[0];
+    }
+
+    private void writeJsonRow(JsonGenerator generator, ResultSet rs) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong("id"));
+        generator.writeNumberField("roomNumber", rs.getInt("room_number"));
+        generator.writeStringField("clientPassport", rs.getString("client_passport"));
+        generator.writeStringField("checkInDate", rs.getString("check_in_date"));
+        generator.writeStringField("checkOutDate", rs.getString("check_out_date"));
+        generator.writeNumberField("totalPrice", rs.getDouble("total_price"));
+        generator.writeStringField("status", rs.getString("status"));
+        generator.writeEndObject();
+    }
+
+    private void writeCsvRow(Writer writer, ResultSet rs) throws IOException, SQLException {
+        writer.write(Long.toString(rs.getLong("id")));
+        writer.write(',');
+        writer.write(Integer.toString(rs.getInt("room_number")));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("client_passport"));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("check_in_date"));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("check_out_date"));
+        writer.write(',');
+        writer.write(Double.toString(rs.getDouble("total_price")));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("status"));
+        writer.write("\r\n");
+    }
+
+    /**
+     * Поле CSV по RFC 4180: кавычки только там, где они нужны
+     */
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
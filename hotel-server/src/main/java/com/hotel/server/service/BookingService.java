@@ -1,92 +1,296 @@
 package com.hotel.server.service;
 
 import com.hotel.server.model.Client;
+import com.hotel.server.model.Page;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import static com.hotel.server.config.SqlQueries.*;
+
 @Service
 public class BookingService {
     private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
     private final RoomService roomService;
     private final ClientService clientService;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomLocks roomLocks;
+    private final ChangeEventPublisher events;
+    private final RateCalendar rateCalendar;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger logger = LogManager.getLogger(BookingService.class);
 
-    public BookingService(JdbcTemplate jdbcTemplate, RoomService roomService, ClientService clientService) {
+    /** Максимум гостей в одном групповом заселении */
+    public static final int MAX_GROUP_SIZE = 100;
+
+    public BookingService(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                          RoomService roomService, ClientService clientService,
+                          RoomAvailabilityIndex availabilityIndex, RoomLocks roomLocks,
+                          ChangeEventPublisher events, RateCalendar rateCalendar,
+                          PlatformTransactionManager transactionManager) {
         this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
         this.roomService = roomService;
         this.clientService = clientService;
+        this.availabilityIndex = availabilityIndex;
+        this.roomLocks = roomLocks;
+        this.events = events;
+        this.rateCalendar = rateCalendar;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
-     * Заселение клиента
+     * Заселение клиента.
+     * Номер блокируется на время всей транзакции, поэтому параллельные заселения
+     * в один номер выполняются по очереди, а в разные - одновременно.
+     * Сбой БД (блокировка, ошибка фиксации) выбрасывается, а не возвращается отказом:
+     * это не результат заселения, и повтор запроса должен выполнить его заново
      */
-    @Transactional
     public Map<String, Object> checkInClient(Client client) {
-        Map<String, Object> result = new HashMap<>();
+        ReentrantLock lock = roomLocks.lockFor(client.getRoomNumber());
+        lock.lock();
         try {
+            return transactionTemplate.execute(status -> checkInClientInTransaction(client, status));
+        } catch (DataAccessException | TransactionException e) {
+            logger.error("Сбой БД при заселении клиента: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Ошибка при заселении клиента: {}", e.getMessage());
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", false);
+            result.put("error", e.getMessage());
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            //Проверяем доступность номера
-            logger.trace("Попытка заселить клиента: {}", client);
-            System.out.println(client.getPassportNumber());
-            System.out.println(client.getStatus());
-            boolean roomAvailable = roomService.isRoomAvailable(
-                    client.getRoomNumber(), client.getCheckInDate(), client.getCheckOutDate());
+    private Map<String, Object> checkInClientInTransaction(Client client, TransactionStatus status) {
+        Map<String, Object> result = new HashMap<>();
 
-            if (!roomAvailable) {
-                result.put("success", false);
-                result.put("error", "Номер недоступен в указанные даты");
-                return result;
-            }
+        //Проверяем доступность номера
+        logger.trace("Попытка заселить клиента: {}", client);
+        boolean roomAvailable = roomService.isRoomAvailable(
+                client.getRoomNumber(), client.getCheckInDate(), client.getCheckOutDate());
 
-            //Проверяем, не заселен ли уже клиент
-            if (clientService.isNotClientAvailableForCheckIn(client.getPassportNumber())) {
-                result.put("success", false);
-                result.put("error", "Клиент с таким паспортом уже заселен");
-                return result;
-            }
-            //Добавляем клиента
-            System.out.println("ПОПЫТКА ЗАСЕЛИТЬ КЛИЕНАТ ФШАГЕЩГИАНВФЩГФФЩФЕАПЩФАФНАПГШФАФРАЩФАРФАФ");
-            boolean clientAdded = clientService.reseatClient(client);
+        if (!roomAvailable) {
+            result.put("success", false);
+            result.put("error", "Номер недоступен в указанные даты");
+            return result;
+        }
+
+        //Проверяем, не заселен ли уже клиент
+        if (clientService.isNotClientAvailableForCheckIn(client.getPassportNumber())) {
+            result.put("success", false);
+            result.put("error", "Клиент с таким паспортом уже заселен");
+            return result;
+        }
+        //Добавляем клиента
+        boolean clientAdded = clientService.reseatClient(client);
 
+        if (!clientAdded) {
+            result.put("success", false);
+            result.put("error", "Ошибка при добавлении клиента");
+            return result;
+        }
 
-            if (clientAdded) {
-                //Добавляем в историю бронирований
-                addToBookingHistory(client.getRoomNumber(), client.getPassportNumber(),
-                        client.getCheckInDate(), client.getCheckOutDate(), "active");
+        //Добавляем в историю бронирований (вставка не пройдет, если период уже занят)
+        double totalPrice = calculatePrice(client.getRoomNumber(), client.getCheckInDate(), client.getCheckOutDate());
+        boolean booked = addToBookingHistory(client.getRoomNumber(), client.getPassportNumber(),
+                client.getCheckInDate(), client.getCheckOutDate(), totalPrice);
+        if (!booked) {
+            status.setRollbackOnly();
+            result.put("success", false);
+            result.put("error", "Номер недоступен в указанные даты");
+            return result;
+        }
 
-                //Обновляем статус комнаты, если сегодня дата заезда
-                String today = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
-                if (today.equals(client.getCheckInDate())) {
-                    roomService.updateRoomStatus(client.getRoomNumber(), "occupied");
-                }
+        //Обновляем статус комнаты, если сегодня дата заезда
+        String today = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+        if (today.equals(client.getCheckInDate())) {
+            roomService.updateRoomStatus(client.getRoomNumber(), "occupied");
+        }
 
-                result.put("success", true);
-            } else {
-                result.put("success", false);
-                result.put("error", "Ошибка при добавлении клиента");
-            }
+        result.put("success", true);
+        result.put("totalPrice", totalPrice);
+        return result;
+    }
 
-            return result;
+    /**
+     * Групповое заселение: все гости группы заселяются в одной транзакции или не заселяется никто.
+     * Номера группы блокируются до конца транзакции (RoomLocks.lockAll), доступность
+     * всех номеров проверяется до первой записи
+     */
+    public Map<String, Object> checkInGroup(List<Client> guests) {
+        List<Map<String, Object>> conflicts = validateGroup(guests);
+        if (!conflicts.isEmpty()) {
+            return groupFailure("Группа не может быть заселена", conflicts);
+        }
+
+        Set<Integer> roomNumbers = new HashSet<>();
+        guests.forEach(guest -> roomNumbers.add(guest.getRoomNumber()));
+        List<ReentrantLock> locks = roomLocks.lockAll(roomNumbers);
+        try {
+            return transactionTemplate.execute(status -> checkInGroupInTransaction(guests, status));
+        } catch (DataAccessException | TransactionException e) {
+            logger.error("Сбой БД при групповом заселении: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            logger.error("Ошибка при заселении клиента: {}", e.getMessage());
+            logger.error("Ошибка при групповом заселении: {}", e.getMessage());
+            Map<String, Object> result = new HashMap<>();
             result.put("success", false);
             result.put("error", e.getMessage());
             return result;
+        } finally {
+            RoomLocks.unlockAll(locks);
         }
     }
 
+    private Map<String, Object> checkInGroupInTransaction(List<Client> guests, TransactionStatus status) {
+        // Все проверки до первой записи: в ответе сразу все конфликты группы
+        List<Map<String, Object>> conflicts = new ArrayList<>();
+        for (int i = 0; i < guests.size(); i++) {
+            Client guest = guests.get(i);
+            if (!roomService.isRoomAvailable(guest.getRoomNumber(), guest.getCheckInDate(), guest.getCheckOutDate())) {
+                conflicts.add(groupConflict(i, guest, "Номер недоступен в указанные даты"));
+            } else if (clientService.isNotClientAvailableForCheckIn(guest.getPassportNumber())) {
+                conflicts.add(groupConflict(i, guest, "Клиент с таким паспортом уже заселен"));
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            return groupFailure("Группа не может быть заселена", conflicts);
+        }
+
+        List<Map<String, Object>> checkedIn = new ArrayList<>(guests.size());
+        double totalPrice = 0;
+        for (int i = 0; i < guests.size(); i++) {
+            Client guest = guests.get(i);
+            Map<String, Object> guestResult = checkInClientInTransaction(guest, status);
+            if (!Boolean.TRUE.equals(guestResult.get("success"))) {
+                // Уже записанные гости группы откатываются вместе с этим
+                status.setRollbackOnly();
+                return groupFailure("Группа не заселена, изменения отменены",
+                        List.of(groupConflict(i, guest, String.valueOf(guestResult.get("error")))));
+            }
+            double guestPrice = ((Number) guestResult.get("totalPrice")).doubleValue();
+            totalPrice += guestPrice;
+            checkedIn.add(Map.of(
+                    "passportNumber", guest.getPassportNumber(),
+                    "roomNumber", guest.getRoomNumber(),
+                    "totalPrice", guestPrice));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("guests", checkedIn);
+        result.put("totalPrice", Math.round(totalPrice * 100) / 100.0);
+        logger.info("Группа из {} гостей заселена в номера {}", guests.size(),
+                checkedIn.stream().map(guest -> guest.get("roomNumber")).toList());
+        return result;
+    }
+
     /**
-     * Выселение клиента
+     * Проверки группы без обращения к БД: состав, даты, повторы паспортов и номеров
+     */
+    private static List<Map<String, Object>> validateGroup(List<Client> guests) {
+        List<Map<String, Object>> conflicts = new ArrayList<>();
+        if (guests == null || guests.isEmpty() || guests.size() > MAX_GROUP_SIZE) {
+            conflicts.add(Map.of("error", "В группе должно быть от 1 до " + MAX_GROUP_SIZE + " гостей"));
+            return conflicts;
+        }
+
+        Set<String> passports = new HashSet<>();
+        long[][] periods = new long[guests.size()][];
+        for (int i = 0; i < guests.size(); i++) {
+            Client guest = guests.get(i);
+            if (guest == null || guest.getPassportNumber() == null || guest.getRoomNumber() == null) {
+                conflicts.add(groupConflict(i, guest, "Не указан паспорт или номер"));
+                continue;
+            }
+            if (!passports.add(guest.getPassportNumber())) {
+                conflicts.add(groupConflict(i, guest, "Паспорт повторяется в группе"));
+                continue;
+            }
+            try {
+                long checkInDay = EpochDays.of(guest.getCheckInDate());
+                long checkOutDay = EpochDays.of(guest.getCheckOutDate());
+                if (checkOutDay <= checkInDay) {
+                    conflicts.add(groupConflict(i, guest, "Дата выезда должна быть позже даты заезда"));
+                    continue;
+                }
+                periods[i] = new long[]{checkInDay, checkOutDay};
+            } catch (Exception e) {
+                conflicts.add(groupConflict(i, guest, "Даты должны быть в формате yyyy-MM-dd"));
+                continue;
+            }
+
+            // Условие пересечения то же, что у проверки доступности номера
+            for (int j = 0; j < i; j++) {
+                if (periods[j] != null && guest.getRoomNumber().equals(guests.get(j).getRoomNumber())
+                        && ((periods[j][0] <= periods[i][1] && periods[j][1] > periods[i][0])
+                        || (periods[j][0] < periods[i][1] && periods[j][1] >= periods[i][0]))) {
+                    conflicts.add(groupConflict(i, guest, "Номер уже занят гостем " + (j + 1) + " этой группы"));
+                    break;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private static Map<String, Object> groupConflict(int index, Client guest, String error) {
+        Map<String, Object> conflict = new HashMap<>();
+        conflict.put("guest", index + 1);
+        if (guest != null) {
+            conflict.put("passportNumber", guest.getPassportNumber());
+            conflict.put("roomNumber", guest.getRoomNumber());
+        }
+        conflict.put("error", error);
+        return conflict;
+    }
+
+    private static Map<String, Object> groupFailure(String error, List<Map<String, Object>> conflicts) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("error", error);
+        result.put("conflicts", conflicts);
+        return result;
+    }
+
+    /**
+     * Стоимость проживания по тарифам. Без тарифа заселение не блокируется, цена записывается нулевой
+     */
+    private double calculatePrice(Integer roomNumber, String checkInDate, String checkOutDate) {
+        try {
+            return rateCalendar.priceForRoom(roomNumber, checkInDate, checkOutDate);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Стоимость проживания в номере {} не рассчитана: {}", roomNumber, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Выселение клиента. Сбой БД выбрасывается (транзакция откатывается), как и при заселении
      */
     @Transactional
     public Map<String, Object> checkOutClient(String passportNumber) {
@@ -112,6 +316,9 @@ public class BookingService {
 
             result.put("success", deleted);
             return result;
+        } catch (DataAccessException e) {
+            logger.error("Сбой БД при выселении клиента: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Ошибка при выселении клиента: {}", e.getMessage());
             result.put("success", false);
@@ -124,18 +331,37 @@ public class BookingService {
      * Получает всю историю бронирований
      */
     public List<Map<String, Object>> getAllBookingHistory() {
-        String sql = "SELECT * FROM bookings ORDER BY check_in_date DESC";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Map<String, Object> history = new HashMap<>();
-            history.put("id", rs.getLong("id"));
-            history.put("roomNumber", rs.getInt("room_number"));
-            history.put("clientPassport", rs.getString("client_passport"));
-            history.put("checkInDate", rs.getString("check_in_date"));
-            history.put("checkOutDate", rs.getString("check_out_date"));
-            history.put("totalPrice", rs.getDouble("total_price"));
-            history.put("status", rs.getString("status"));
-            return history;
-        });
+        return readJdbcTemplate.query(BOOKING_SELECT_HISTORY, bookingHistoryRowMapper());
+    }
+
+    /**
+     * Страница истории бронирований, от поздних заездов к ранним
+     *
+     * @param after курсор из предыдущей страницы (null - первая страница)
+     */
+    public Page<Map<String, Object>> getBookingHistoryPage(String after, int limit) {
+        int pageSize = Page.normalizeLimit(limit);
+        // rowid нужен только для курсора, в ответ он не попадает
+        List<Object[]> rows;
+        RowMapper<Object[]> mapper = (rs, rowNum) -> new Object[]{
+                bookingHistoryRowMapper().mapRow(rs, rowNum), rs.getLong("row_id")};
+        if (after == null || after.isEmpty()) {
+            rows = readJdbcTemplate.query(BOOKING_SELECT_PAGE_FIRST, mapper, pageSize + 1);
+        } else {
+            String[] key = Page.decodeCursor(after, 2);
+            rows = readJdbcTemplate.query(BOOKING_SELECT_PAGE_AFTER, mapper,
+                    key[0], Long.parseLong(key[1]), pageSize + 1);
+        }
+
+        Page<Object[]> page = Page.of(rows, pageSize,
+                row -> Page.encodeCursor(((Map<?, ?>) row[0]).get("checkInDate"), row[1]));
+        List<Map<String, Object>> items = new ArrayList<>(page.getItems().size());
+        for (Object[] row : page.getItems()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> history = (Map<String, Object>) row[0];
+            items.add(history);
+        }
+        return new Page<>(items, page.getNextCursor());
     }
 
     /**
@@ -143,7 +369,11 @@ public class BookingService {
      */
     public List<Map<String, Object>> getBookingHistoryByRoom(Integer roomNumber) {
         String sql = "SELECT * FROM bookings WHERE room_number = ? ORDER BY check_in_date DESC";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+        return readJdbcTemplate.query(sql, bookingHistoryRowMapper(), roomNumber);
+    }
+
+    private RowMapper<Map<String, Object>> bookingHistoryRowMapper() {
+        return (rs, rowNum) -> {
             Map<String, Object> history = new HashMap<>();
             history.put("id", rs.getLong("id"));
             history.put("roomNumber", rs.getInt("room_number"));
@@ -153,16 +383,37 @@ public class BookingService {
             history.put("totalPrice", rs.getDouble("total_price"));
             history.put("status", rs.getString("status"));
             return history;
-        }, roomNumber);
+        };
     }
 
-    private void addToBookingHistory(Integer roomNumber, String clientPassport, String checkInDate, String checkOutDate, String status) {
-        String sql = "INSERT INTO bookings (room_number, client_passport, check_in_date, check_out_date, total_price, status) VALUES (?, ?, ?, ?, 0, ?)";
-        jdbcTemplate.update(sql, roomNumber, clientPassport, checkInDate, checkOutDate, status);
+    private boolean addToBookingHistory(Integer roomNumber, String clientPassport,
+                                        String checkInDate, String checkOutDate, double totalPrice) {
+        long checkInDay = EpochDays.of(checkInDate);
+        long checkOutDay = EpochDays.of(checkOutDate);
+        int inserted = jdbcTemplate.update(BOOKING_INSERT_IF_AVAILABLE,
+                roomNumber, clientPassport, checkInDate, checkOutDate, totalPrice,
+                roomNumber, checkOutDay, checkInDay, checkOutDay, checkInDay);
+        if (inserted > 0) {
+            availabilityIndex.bookingAdded(roomNumber, clientPassport, checkInDate, checkOutDate);
+            events.publish(ChangeEventPublisher.BOOKING_ADDED, Map.of(
+                    "roomNumber", roomNumber,
+                    "clientPassport", clientPassport,
+                    "checkInDate", checkInDate,
+                    "checkOutDate", checkOutDate,
+                    "totalPrice", totalPrice));
+        }
+        return inserted > 0;
     }
 
     private void updateBookingHistoryStatus(Integer roomNumber, String clientPassport, String status) {
         String sql = "UPDATE bookings SET status = ? WHERE room_number = ? AND client_passport = ? AND status = 'active'";
-        jdbcTemplate.update(sql, status, roomNumber, clientPassport);
+        int updated = jdbcTemplate.update(sql, status, roomNumber, clientPassport);
+        availabilityIndex.bookingClosed(roomNumber, clientPassport);
+        if (updated > 0) {
+            events.publish(ChangeEventPublisher.BOOKING_COMPLETED, Map.of(
+                    "roomNumber", roomNumber,
+                    "clientPassport", clientPassport,
+                    "status", status));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.hotel.server.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.service.TransactionHooks.afterCommit;
+
+/**
+ * Лента изменений для клиентов (Server-Sent Events).
+ * События публикуются только после фиксации транзакции и рассылаются из одного потока,
+ * поэтому все подписчики получают их в порядке фиксации.
+ * Последние события хранятся для досылки после переподключения (заголовок Last-Event-ID).
+ */
+@Component
+public class ChangeEventPublisher {
+    private static final Logger logger = LogManager.getLogger(ChangeEventPublisher.class);
+
+    public static final String ROOM_STATUS = "room-status";
+    public static final String ROOM_CLEARED = "room-cleared";
+    public static final String ROOMS_RESET = "rooms-reset";
+    public static final String OCCUPANCY_CHANGED = "occupancy-changed";
+    public static final String CLIENT_SAVED = "client-saved";
+    public static final String CLIENT_REMOVED = "client-removed";
+    public static final String CLIENTS_RESET = "clients-reset";
+    public static final String BOOKING_ADDED = "booking-added";
+    public static final String BOOKING_COMPLETED = "booking-completed";
+    public static final String STAFF_ADDED = "staff-added";
+    public static final String STAFF_RESET = "staff-reset";
+    /** Досылка невозможна - клиенту нужно перечитать данные целиком */
+    public static final String RESYNC = "resync";
+
+    private static final int HISTORY_SIZE = 1000;
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    // Идентификаторы событий вида "<запуск>-<номер>": после перезапуска сервера досылка не выполняется
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final CollectionVersions versions;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    // Доступ к истории и счетчику - только из потока рассылки
+    private final Deque<Event> history = new ArrayDeque<>();
+    private long sequence = 0;
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "change-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChangeEventPublisher(CollectionVersions versions) {
+        this.versions = versions;
+        dispatcher.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Публикует событие после фиксации текущей транзакции (сразу, если транзакции нет).
+     * Версия измененной коллекции увеличивается сразу после коммита, до ответа на запрос
+     */
+    public void publish(String type, Map<String, Object> data) {
+        afterCommit(() -> {
+            versions.changed(type);
+            dispatcher.execute(() -> broadcast(type, data));
+        });
+    }
+
+    /**
+     * Новая подписка на ленту
+     *
+     * @param lastEventId последнее полученное клиентом событие (null - досылка не нужна)
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        // Досылка и добавление в список в потоке рассылки: между ними не проскочит ни одно событие
+        dispatcher.execute(() -> {
+            if (replay(emitter, lastEventId)) {
+                emitters.add(emitter);
+            }
+        });
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private void broadcast(String type, Map<String, Object> data) {
+        Event event = new Event(instance + "-" + (++sequence), type, data);
+        history.addLast(event);
+        if (history.size() > HISTORY_SIZE) {
+            history.removeFirst();
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, event);
+        }
+    }
+
+    private boolean replay(SseEmitter emitter, String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return send(emitter, null);
+        }
+        long lastSeen = sequenceOf(lastEventId);
+        long oldest = history.isEmpty() ? sequence + 1 : sequenceOf(history.peekFirst().id);
+        if (lastSeen < 0 || lastSeen > sequence || lastSeen + 1 < oldest) {
+            logger.debug("Досылка с {} невозможна, клиенту отправлен resync", lastEventId);
+            return send(emitter, new Event(instance + "-" + sequence, RESYNC, Map.of()));
+        }
+        for (Event event : history) {
+            if (sequenceOf(event.id) > lastSeen && !send(emitter, event)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Номер события этого запуска сервера или -1
+     */
+    private long sequenceOf(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(instance)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Отправка события подписчику; null - только комментарий (сразу открывает поток)
+     */
+    private boolean send(SseEmitter emitter, Event event) {
+        try {
+            if (event == null) {
+                emitter.send(SseEmitter.event().comment("connected"));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(event.id)
+                        .name(event.type)
+                        .data(event.data, MediaType.APPLICATION_JSON));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Клиент отключился
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void heartbeat() {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        for (SseEmitter emitter : emitters) {
+            emitter.complete();
+        }
+        emitters.clear();
+    }
+
+    private static final class Event {
+        final String id;
+        final String type;
+        final Map<String, Object> data;
+
+        Event(String id, String type, Map<String, Object> data) {
+            this.id = id;
+            this.type = type;
+            this.data = data;
+        }
+    }
+}
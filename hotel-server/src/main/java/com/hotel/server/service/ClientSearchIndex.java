@@ -0,0 +1,316 @@
+package com.hotel.server.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.*;
+import static com.hotel.server.service.TransactionHooks.afterCommit;
+
+/**
+ * Индекс поиска клиентов по началу фамилии, имени или номера паспорта.
+ * Ключи ("фамилия имя", "имя фамилия", паспорт) приводятся к нижнему регистру и хранятся
+ * в отсортированном массиве, поиск по префиксу - двоичный поиск и проход по соседним ключам.
+ * Изменения после коммита попадают в небольшую добавку к массиву, которая периодически вливается в него.
+ */
+@Component
+public class ClientSearchIndex {
+    private static final Logger logger = LogManager.getLogger(ClientSearchIndex.class);
+
+    // Размер добавки, после которого она вливается в основной массив
+    private static final int COMPACT_THRESHOLD = 10_000;
+    // Отделяет текст ключа от паспорта: ключи уникальны, а префикс запроса его не содержит
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Основной массив: ключи по возрастанию и паспорта клиентов с теми же индексами
+    private String[] keys = new String[0];
+    private String[] passports = new String[0];
+    // Добавка: новые ключи и паспорта, чьи строки в основном массиве устарели
+    private final TreeMap<String, String> addedKeys = new TreeMap<>();
+    private final Map<String, List<String>> addedKeysByPassport = new HashMap<>();
+    private final Set<String> removedPassports = new HashSet<>();
+    // Изменения, пришедшие во время перезагрузки: повторяются поверх загруженных данных
+    private List<Runnable> changesDuringRebuild;
+    private volatile boolean ready = false;
+
+    public ClientSearchIndex(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Полная перезагрузка индекса из таблицы clients
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            List<String[]> entries = new ArrayList<>();
+            jdbcTemplate.query(CLIENT_SEARCH_KEYS, rs -> {
+                String passport = rs.getString("passport_number");
+                for (String key : keysOf(passport, rs.getString("first_name"), rs.getString("last_name"))) {
+                    entries.add(new String[]{key, passport});
+                }
+            });
+            entries.sort(Comparator.comparing(entry -> entry[0]));
+
+            lock.writeLock().lock();
+            try {
+                install(entries);
+                List<Runnable> changes = changesDuringRebuild;
+                changesDuringRebuild = null;
+                changes.forEach(Runnable::run);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Индекс поиска клиентов загружен: {} ключей", entries.size());
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+                ready = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Ошибка загрузки индекса поиска клиентов: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Клиент записан с указанными именем и фамилией (применяется после коммита)
+     */
+    public void clientSaved(String passportNumber, String firstName, String lastName) {
+        afterCommit(() -> apply(() -> {
+            removeFromDelta(passportNumber);
+            removedPassports.add(passportNumber);
+            List<String> clientKeys = keysOf(passportNumber, firstName, lastName);
+            for (String key : clientKeys) {
+                addedKeys.put(key, passportNumber);
+            }
+            addedKeysByPassport.put(passportNumber, clientKeys);
+        }));
+    }
+
+    public void clientRemoved(String passportNumber) {
+        afterCommit(() -> apply(() -> {
+            removeFromDelta(passportNumber);
+            removedPassports.add(passportNumber);
+        }));
+    }
+
+    public void cleared() {
+        afterCommit(() -> apply(() -> install(List.of())));
+    }
+
+    /**
+     * Изменения, которые проще перечитать из БД целиком
+     */
+    public void invalidated() {
+        afterCommit(this::rebuild);
+    }
+
+    /**
+     * Паспорта клиентов, у которых фамилия, имя или паспорт начинаются с query,
+     * в порядке ключей. Null, если индекс не загружен и искать нужно в БД
+     */
+    public List<String> search(String query, int limit) {
+        String prefix = normalizeQuery(query);
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return null;
+            }
+            if (prefix.isEmpty()) {
+                return List.of();
+            }
+
+            Set<String> found = new LinkedHashSet<>();
+            int index = lowerBound(prefix);
+            Iterator<Map.Entry<String, String>> delta = addedKeys.tailMap(prefix, true).entrySet().iterator();
+            Map.Entry<String, String> deltaEntry = nextMatch(delta, prefix);
+
+            while (found.size() < limit) {
+                while (index < keys.length && keys[index].startsWith(prefix)
+                        && removedPassports.contains(passports[index])) {
+                    index++;
+                }
+                boolean baseMatches = index < keys.length && keys[index].startsWith(prefix);
+                if (!baseMatches && deltaEntry == null) {
+                    break;
+                }
+                if (baseMatches && (deltaEntry == null || keys[index].compareTo(deltaEntry.getKey()) < 0)) {
+                    found.add(passports[index++]);
+                } else {
+                    found.add(deltaEntry.getValue());
+                    deltaEntry = nextMatch(delta, prefix);
+                }
+            }
+            return new ArrayList<>(found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Приведение текста к виду ключа: нижний регистр, е вместо ё, одиночные пробелы
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (char c : text.trim().toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isWhitespace(c)) {
+                space = true;
+            } else if (c >= ' ') {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                space = false;
+                normalized.append(c == 'ё' ? 'е' : c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static String normalizeQuery(String query) {
+        String prefix = normalize(query);
+        // "1234 567890" - паспорт с пробелом, в ключе паспорта пробелов нет
+        if (prefix.indexOf(' ') >= 0 && prefix.chars().allMatch(c -> c == ' ' || Character.isDigit(c))) {
+            prefix = prefix.replace(" ", "");
+        }
+        return prefix;
+    }
+
+    private static List<String> keysOf(String passportNumber, String firstName, String lastName) {
+        String first = normalize(firstName);
+        String last = normalize(lastName);
+        String passport = normalize(passportNumber).replace(" ", "");
+
+        List<String> texts = new ArrayList<>(3);
+        texts.add(passport);
+        if (!last.isEmpty()) {
+            texts.add(first.isEmpty() ? last : last + " " + first);
+        }
+        if (!first.isEmpty()) {
+            texts.add(last.isEmpty() ? first : first + " " + last);
+        }
+
+        List<String> clientKeys = new ArrayList<>(3);
+        for (String text : texts) {
+            String key = text + KEY_SEPARATOR + passportNumber;
+            if (!text.isEmpty() && !clientKeys.contains(key)) {
+                clientKeys.add(key);
+            }
+        }
+        return clientKeys;
+    }
+
+    private static Map.Entry<String, String> nextMatch(Iterator<Map.Entry<String, String>> delta, String prefix) {
+        if (delta.hasNext()) {
+            Map.Entry<String, String> entry = delta.next();
+            if (entry.getKey().startsWith(prefix)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private int lowerBound(String prefix) {
+        int index = Arrays.binarySearch(keys, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Изменение под блокировкой записи; во время перезагрузки оно еще и запоминается для повтора
+     */
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+            if (addedKeys.size() + removedPassports.size() > COMPACT_THRESHOLD) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeFromDelta(String passportNumber) {
+        List<String> previous = addedKeysByPassport.remove(passportNumber);
+        if (previous != null) {
+            previous.forEach(addedKeys::remove);
+        }
+    }
+
+    /**
+     * Слияние основного массива без устаревших строк с добавкой (оба отсортированы)
+     */
+    private void compact() {
+        List<String[]> merged = new ArrayList<>(keys.length + addedKeys.size());
+        Iterator<Map.Entry<String, String>> delta = addedKeys.entrySet().iterator();
+        Map.Entry<String, String> deltaEntry = delta.hasNext() ? delta.next() : null;
+        int index = 0;
+        while (index < keys.length || deltaEntry != null) {
+            if (index < keys.length && removedPassports.contains(passports[index])) {
+                index++;
+            } else if (index < keys.length && (deltaEntry == null || keys[index].compareTo(deltaEntry.getKey()) < 0)) {
+                merged.add(new String[]{keys[index], passports[index]});
+                index++;
+            } else {
+                merged.add(new String[]{deltaEntry.getKey(), deltaEntry.getValue()});
+                deltaEntry = delta.hasNext() ? delta.next() : null;
+            }
+        }
+        install(merged);
+    }
+
+    private void install(List<String[]> sortedEntries) {
+        String[] newKeys = new String[sortedEntries.size()];
+        String[] newPassports = new String[sortedEntries.size()];
+        for (int i = 0; i < newKeys.length; i++) {
+            newKeys[i] = sortedEntries.get(i)[0];
+            newPassports[i] = sortedEntries.get(i)[1];
+        }
+        keys = newKeys;
+        passports = newPassports;
+        addedKeys.clear();
+        addedKeysByPassport.clear();
+        removedPassports.clear();
+    }
+}
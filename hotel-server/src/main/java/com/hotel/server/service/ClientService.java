@@ -1,10 +1,15 @@
 package com.hotel.server.service;
 
 import com.hotel.server.model.Client;
+import com.hotel.server.model.Page;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -18,26 +23,77 @@ import static com.hotel.server.config.SqlQueries.*;
 @Service
 public class ClientService {
     private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomCache roomCache;
+    private final ChangeEventPublisher events;
+    private final OccupancyCounters counters;
+    private final ClientSearchIndex searchIndex;
     private static final Logger logger = LogManager.getLogger(ClientService.class);
 
-    public ClientService(JdbcTemplate jdbcTemplate) {
+    public ClientService(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                         RoomAvailabilityIndex availabilityIndex, RoomCache roomCache, ChangeEventPublisher events,
+                         OccupancyCounters counters, ClientSearchIndex searchIndex) {
         this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.roomCache = roomCache;
+        this.events = events;
+        this.counters = counters;
+        this.searchIndex = searchIndex;
     }
 
     public List<Client> getAllClients() {
-        return jdbcTemplate.query(CLIENT_SELECT_ALL, (rs, rowNum) -> {
-            Client client = new Client();
-            client.setPassportNumber(rs.getString("passport_number"));
-            client.setFirstName(rs.getString("first_name"));
-            client.setLastName(rs.getString("last_name"));
-            client.setPhoneNumber(rs.getString("phone_number"));
-            client.setEmail(rs.getString("email"));
-            client.setCheckInDate(rs.getString("check_in_date"));
-            client.setCheckOutDate(rs.getString("check_out_date"));
-            client.setRoomNumber(rs.getInt("room_number"));
-            client.setStatus(rs.getString("status"));
-            return client;
-        });
+        return readJdbcTemplate.query(CLIENT_SELECT_ALL, clientRowMapper());
+    }
+
+    /**
+     * Страница клиентов в порядке фамилия, имя, паспорт
+     *
+     * @param after курсор из предыдущей страницы (null - первая страница)
+     */
+    public Page<Client> getClientsPage(String after, int limit) {
+        int pageSize = Page.normalizeLimit(limit);
+        List<Client> rows;
+        if (after == null || after.isEmpty()) {
+            rows = readJdbcTemplate.query(CLIENT_SELECT_PAGE_FIRST, clientRowMapper(), pageSize + 1);
+        } else {
+            String[] key = Page.decodeCursor(after, 3);
+            rows = readJdbcTemplate.query(CLIENT_SELECT_PAGE_AFTER, clientRowMapper(),
+                    key[0], key[1], key[2], pageSize + 1);
+        }
+        return Page.of(rows, pageSize,
+                client -> Page.encodeCursor(client.getLastName(), client.getFirstName(), client.getPassportNumber()));
+    }
+
+    /**
+     * Поиск клиентов по началу фамилии, имени или номера паспорта.
+     * Совпадения ищет индекс в памяти, из БД читаются только найденные строки
+     */
+    public List<Client> searchClients(String query, int limit) {
+        int pageSize = Page.normalizeLimit(limit);
+        List<String> passports = searchIndex.search(query, pageSize);
+        if (passports == null) {
+            String prefix = (query == null ? "" : query.trim()).replaceAll("[\\\\%_]", "\\\\$0") + "%";
+            return readJdbcTemplate.query(CLIENT_SEARCH_PREFIX, clientRowMapper(), prefix, prefix, prefix, pageSize);
+        }
+        if (passports.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Client> found = new HashMap<>();
+        for (Client client : readJdbcTemplate.query(clientSelectByPassports(passports.size()), clientRowMapper(),
+                passports.toArray())) {
+            found.put(client.getPassportNumber(), client);
+        }
+        List<Client> clients = new ArrayList<>(found.size());
+        for (String passport : passports) {
+            Client client = found.get(passport);
+            if (client != null) {
+                clients.add(client);
+            }
+        }
+        return clients;
     }
 
     //TODO: либо убрать после рефакторинга, либо перенести сюда логику reseatClient
@@ -54,14 +110,22 @@ public class ClientService {
                 client.getCheckInDate(),
                 client.getCheckOutDate(),
                 client.getRoomNumber());
+        if (result > 0) {
+            counters.clientAdded("pending");
+            searchIndex.clientSaved(client.getPassportNumber(), client.getFirstName(), client.getLastName());
+            publishClientSaved(client.getPassportNumber());
+        }
         return result > 0;
     }
 
     /**
-     * Перезаселение клиента - обновление данных существующего клиента
+     * Перезаселение клиента - обновление данных существующего клиента.
+     * Строка не записывается, если клиент уже заселен или ожидает заселения
      */
     public boolean reseatClient(Client client) {
-        int result = jdbcTemplate.update(RESEAT_CLIENT,
+        // Заменяемая строка (выселенный ранее клиент) уходит из счетчиков
+        String previousStatus = getClientStatus(client.getPassportNumber());
+        int result = jdbcTemplate.update(RESEAT_CLIENT_IF_NOT_CHECKED_IN,
                 client.getPassportNumber(),
                 client.getFirstName(),
                 client.getLastName(),
@@ -69,15 +133,44 @@ public class ClientService {
                 client.getEmail(),
                 client.getCheckInDate(),
                 client.getCheckOutDate(),
-                client.getRoomNumber());
+                client.getRoomNumber(),
+                client.getPassportNumber());
+        if (result > 0) {
+            if (previousStatus != null) {
+                counters.clientRemoved(previousStatus);
+            }
+            counters.clientAdded("pending");
+            searchIndex.clientSaved(client.getPassportNumber(), client.getFirstName(), client.getLastName());
+            publishClientSaved(client.getPassportNumber());
+        }
         return result > 0;
     }
 
+    /**
+     * Событие с записанной строкой клиента (статус выставляет БД)
+     */
+    private void publishClientSaved(String passportNumber) {
+        Client saved = getClientByPassport(passportNumber);
+        if (saved != null) {
+            events.publish(ChangeEventPublisher.CLIENT_SAVED, Map.of("client", saved));
+        }
+    }
+
     /**
      * Удаление клиента - обновление данных существующего клиента
      */
     public boolean deleteClient(String passportNumber) {
+        String status = getClientStatus(passportNumber);
         int result = jdbcTemplate.update(DELETE_CLIENT, passportNumber);
+        // Бронирования клиента удаляются каскадом
+        availabilityIndex.clientRemoved(passportNumber);
+        if (result > 0) {
+            searchIndex.clientRemoved(passportNumber);
+            if (status != null) {
+                counters.clientRemoved(status);
+            }
+            events.publish(ChangeEventPublisher.CLIENT_REMOVED, Map.of("passportNumber", passportNumber));
+        }
         return result > 0;
     }
 
@@ -87,6 +180,12 @@ public class ClientService {
     public boolean clearAll() {
         jdbcTemplate.update(CLIENT_DELETE_ALL);
         jdbcTemplate.update(ROOMS_SET_FREE);
+        availabilityIndex.cleared();
+        searchIndex.cleared();
+        roomCache.invalidateAll();
+        counters.bulkChanged();
+        events.publish(ChangeEventPublisher.CLIENTS_RESET, Map.of());
+        events.publish(ChangeEventPublisher.ROOMS_RESET, Map.of());
         return true;
     }
 
@@ -113,21 +212,31 @@ public class ClientService {
      */
     public Client getClientByPassport(String passportNumber) {
         try {
-            return jdbcTemplate.queryForObject(SELECT_CLIENT_BY_PASSPORT, (rs, rowNum) -> {
-                Client client = new Client();
-                client.setPassportNumber(rs.getString("passport_number"));
-                client.setFirstName(rs.getString("first_name"));
-                client.setLastName(rs.getString("last_name"));
-                client.setPhoneNumber(rs.getString("phone_number"));
-                client.setEmail(rs.getString("email"));
-                client.setCheckInDate(rs.getString("check_in_date"));
-                client.setCheckOutDate(rs.getString("check_out_date"));
-                client.setRoomNumber(rs.getInt("room_number"));
-                client.setStatus(rs.getString("status"));
-                return client;
-            }, passportNumber);
-        } catch (Exception e) {
+            return jdbcTemplate.queryForObject(SELECT_CLIENT_BY_PASSPORT, clientRowMapper(), passportNumber);
+        } catch (EmptyResultDataAccessException e) {
+            // Прочие ошибки БД выбрасываются: сбой - не ответ "клиент не найден"
             return null;
         }
     }
+
+    private String getClientStatus(String passportNumber) {
+        List<String> statuses = jdbcTemplate.queryForList(CLIENT_SELECT_STATUS, String.class, passportNumber);
+        return statuses.isEmpty() ? null : statuses.get(0);
+    }
+
+    private RowMapper<Client> clientRowMapper() {
+        return (rs, rowNum) -> {
+            Client client = new Client();
+            client.setPassportNumber(rs.getString("passport_number"));
+            client.setFirstName(rs.getString("first_name"));
+            client.setLastName(rs.getString("last_name"));
+            client.setPhoneNumber(rs.getString("phone_number"));
+            client.setEmail(rs.getString("email"));
+            client.setCheckInDate(rs.getString("check_in_date"));
+            client.setCheckOutDate(rs.getString("check_out_date"));
+            client.setRoomNumber(rs.getInt("room_number"));
+            client.setStatus(rs.getString("status"));
+            return client;
+        };
+    }
 }
\ No newline at end of file
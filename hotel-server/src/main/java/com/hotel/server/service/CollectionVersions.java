@@ -0,0 +1,75 @@
+package com.hotel.server.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии коллекций номеров, клиентов и персонала. Любая зафиксированная запись в коллекцию
+ * увеличивает ее версию; по версии строится ETag списка, поэтому неизменившийся список
+ * не нужно ни читать, ни сериализовать, ни передавать заново.
+ * Версии считаются с нуля при каждом запуске, ETag включает метку запуска
+ */
+@Component
+public class CollectionVersions {
+    public static final String ROOMS = "rooms";
+    public static final String CLIENTS = "clients";
+    public static final String STAFF = "staff";
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, AtomicLong> versions = Map.of(
+            ROOMS, new AtomicLong(),
+            CLIENTS, new AtomicLong(),
+            STAFF, new AtomicLong()
+    );
+
+    public long current(String collection) {
+        return versions.get(collection).get();
+    }
+
+    /**
+     * Сильный ETag версии коллекции
+     */
+    public String etag(String collection, long version) {
+        return "\"" + collection + "-" + instance + "-" + version + "\"";
+    }
+
+    /**
+     * Зафиксировано изменение, о котором публикуется событие eventType.
+     * Вызывается после коммита, до рассылки события подписчикам
+     */
+    public void changed(String eventType) {
+        switch (eventType) {
+            case ChangeEventPublisher.ROOM_STATUS:
+            case ChangeEventPublisher.ROOMS_RESET:
+                bump(ROOMS);
+                break;
+            case ChangeEventPublisher.ROOM_CLEARED:
+            case ChangeEventPublisher.OCCUPANCY_CHANGED:
+                bump(ROOMS);
+                bump(CLIENTS);
+                break;
+            case ChangeEventPublisher.CLIENT_SAVED:
+            case ChangeEventPublisher.CLIENT_REMOVED:
+            case ChangeEventPublisher.CLIENTS_RESET:
+                bump(CLIENTS);
+                break;
+            case ChangeEventPublisher.STAFF_ADDED:
+            case ChangeEventPublisher.STAFF_RESET:
+                bump(STAFF);
+                break;
+            case ChangeEventPublisher.BOOKING_ADDED:
+            case ChangeEventPublisher.BOOKING_COMPLETED:
+                // История бронирований не версионируется
+                break;
+            default:
+                // Неизвестное изменение - сбрасываем все
+                versions.keySet().forEach(this::bump);
+        }
+    }
+
+    private void bump(String collection) {
+        versions.get(collection).incrementAndGet();
+    }
+}
@@ -0,0 +1,165 @@
+package com.hotel.server.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Потоковое чтение CSV по RFC 4180 с заголовком. Разделитель - запятая или точка с запятой
+ * (определяется по заголовку), поля в кавычках могут содержать разделители и переводы строк.
+ * Имена колонок сравниваются без учета регистра, '_' и пробелов: check_in_date = checkInDate
+ */
+final class CsvReader {
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private char separator = ',';
+    private int peeked = -2;
+    private long recordNumber;
+
+    /**
+     * @throws IOException если нет заголовка или поток не читается
+     */
+    CsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readHeader();
+        if (header == null) {
+            throw new IOException("Пустой CSV: нет строки заголовка");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(columnKey(header.get(i)), i);
+        }
+    }
+
+    /**
+     * Следующая запись или null в конце потока; пустые строки пропускаются
+     */
+    Row next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+        return new Row(++recordNumber, fields);
+    }
+
+    final class Row {
+        private final long number;
+        private final List<String> fields;
+
+        private Row(long number, List<String> fields) {
+            this.number = number;
+            this.fields = fields;
+        }
+
+        /**
+         * Номер записи после заголовка, начиная с 1
+         */
+        long number() {
+            return number;
+        }
+
+        /**
+         * Значение колонки без пробелов по краям или null, если колонки нет или она пустая
+         */
+        String get(String column) {
+            Integer index = columns.get(columnKey(column));
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private List<String> readHeader() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '\n' && c != '\r') {
+            line.append((char) c);
+        }
+        if (c == '\r' && peek() == '\n') {
+            read();
+        }
+        if (c == -1 && line.length() == 0) {
+            return null;
+        }
+        if (line.length() > 0 && line.charAt(0) == '\uFEFF') {
+            line.deleteCharAt(0);
+        }
+        if (line.indexOf(",") < 0 && line.indexOf(";") >= 0) {
+            separator = ';';
+        }
+        List<String> header = new ArrayList<>();
+        for (String name : line.toString().split(String.valueOf(separator), -1)) {
+            header.add(name.trim().replace("\"", ""));
+        }
+        return header;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Незакрытая кавычка в записи " + (recordNumber + 1));
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    private static String columnKey(String name) {
+        return name.replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+}
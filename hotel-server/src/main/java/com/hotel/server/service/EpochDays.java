@@ -0,0 +1,18 @@
+package com.hotel.server.service;
+
+import java.time.LocalDate;
+
+/**
+ * Перевод дат API ('yyyy-MM-dd') в дни от эпохи - формат колонок *_day в БД
+ */
+final class EpochDays {
+
+    private EpochDays() {}
+
+    /**
+     * @throws java.time.format.DateTimeParseException если дата не в формате yyyy-MM-dd
+     */
+    static long of(String date) {
+        return LocalDate.parse(date.trim()).toEpochDay();
+    }
+}
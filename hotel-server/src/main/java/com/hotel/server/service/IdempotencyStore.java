@@ -0,0 +1,293 @@
+package com.hotel.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.server.config.IdempotencyProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.*;
+
+/**
+ * Ответы на изменяющие запросы с заголовком Idempotency-Key.
+ * Повтор запроса с тем же ключом не выполняется заново, а получает сохраненный ответ;
+ * если исходный запрос еще выполняется, повтор дожидается его результата.
+ * Ответы хранятся в памяти (не больше capacity, не дольше ttl) и, если включено, в таблице idempotency_keys
+ */
+@Component
+public class IdempotencyStore {
+    private static final Logger logger = LogManager.getLogger(IdempotencyStore.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+    // Сколько повтор ждет завершения исходного запроса, прежде чем ответить 409
+    private static final long WAIT_FOR_ORIGINAL_MS = 30_000;
+    // Устаревшие строки таблицы удаляются после каждых PURGE_INTERVAL записей
+    private static final int PURGE_INTERVAL = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final long ttlMillis;
+    private final boolean persist;
+
+    // Ключи в порядке добавления в память: старые вытесняются по сроку и по размеру с головы.
+    // Запросы, которые еще выполняются, не вытесняются - иначе повтор выполнил бы их второй раз
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private int writesSincePurge;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                            ObjectMapper objectMapper, IdempotencyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.capacity = Math.max(1, properties.getCapacity());
+        this.ttlMillis = properties.getTtl() * 1000;
+        this.persist = properties.isPersist();
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (persist) {
+            purgeExpired();
+        }
+    }
+
+    /**
+     * Результат запроса: HTTP-статус, тело и признак того, что это сохраненный ответ
+     */
+    public static final class Outcome {
+        private final int status;
+        private final Map<String, Object> body;
+        private final boolean replayed;
+
+        private Outcome(int status, Map<String, Object> body, boolean replayed) {
+            this.status = status;
+            this.body = body;
+            this.replayed = replayed;
+        }
+
+        public int getStatus() { return status; }
+        public Map<String, Object> getBody() { return body; }
+        public boolean isReplayed() { return replayed; }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long createdAt;
+        private final CompletableFuture<Map<String, Object>> response = new CompletableFuture<>();
+        // Когда ключ попал в память: для ключа, прочитанного из таблицы, позже createdAt
+        private long addedAt;
+
+        private Entry(String fingerprint, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Выполнить action один раз на ключ. Без ключа action выполняется всегда.
+     * Сохраняется только ответ, который вернул action: это должен быть окончательный результат операции.
+     * Временные сбои (ошибки БД) action выбрасывает - ответ не сохраняется, и повтор выполнит его снова
+     *
+     * @param operation имя операции: один ключ нельзя использовать для разных операций
+     * @param request   тело запроса; повтор с тем же ключом и другим телом отклоняется (422)
+     */
+    public Outcome execute(String key, String operation, Object request, Supplier<Map<String, Object>> action) {
+        if (key == null || key.isBlank()) {
+            return new Outcome(200, action.get(), false);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return new Outcome(400, error("Ключ идемпотентности длиннее " + MAX_KEY_LENGTH + " символов"), false);
+        }
+
+        String fingerprint = fingerprint(operation, request);
+        while (true) {
+            Entry entry = find(key);
+            if (entry == null) {
+                Entry persisted = persist ? loadPersisted(key) : null;
+                Entry created = new Entry(fingerprint, System.currentTimeMillis());
+                synchronized (entries) {
+                    entry = entries.get(key);
+                    if (entry == null) {
+                        entry = persisted != null ? persisted : created;
+                        put(key, entry);
+                    }
+                }
+                if (entry == created) {
+                    return runOriginal(key, created, action);
+                }
+            }
+
+            if (!entry.fingerprint.equals(fingerprint)) {
+                logger.warn("Ключ идемпотентности {} повторно использован для другого запроса", key);
+                return new Outcome(422, error("Ключ идемпотентности уже использован для другого запроса"), false);
+            }
+            try {
+                Map<String, Object> body = entry.response.get(WAIT_FOR_ORIGINAL_MS, TimeUnit.MILLISECONDS);
+                logger.info("Повтор запроса {} с ключом {}: возвращен сохраненный ответ", operation, key);
+                return new Outcome(200, body, true);
+            } catch (ExecutionException e) {
+                // Исходный запрос завершился ошибкой и ключ освобожден - выполняем заново
+            } catch (TimeoutException e) {
+                return new Outcome(409, error("Запрос с этим ключом идемпотентности еще выполняется"), false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Outcome(409, error("Запрос с этим ключом идемпотентности еще выполняется"), false);
+            }
+        }
+    }
+
+    private Outcome runOriginal(String key, Entry entry, Supplier<Map<String, Object>> action) {
+        Map<String, Object> body;
+        try {
+            body = action.get();
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        entry.response.complete(body);
+        if (persist) {
+            store(key, entry, body);
+        }
+        return new Outcome(200, body, false);
+    }
+
+    private Entry find(String key) {
+        synchronized (entries) {
+            long now = System.currentTimeMillis();
+            evictExpired(now);
+            Entry entry = entries.get(key);
+            // Ключ из таблицы истекает по своему времени создания, а не по времени чтения
+            if (entry != null && entry.response.isDone() && entry.createdAt < now - ttlMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        entry.addedAt = System.currentTimeMillis();
+        entries.put(key, entry);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > capacity && eldest.hasNext()) {
+            if (eldest.next().response.isDone()) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (entry.addedAt >= now - ttlMillis) {
+                break;
+            }
+            if (entry.response.isDone()) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private Entry loadPersisted(String key) {
+        try {
+            List<Entry> found = readJdbcTemplate.query(IDEMPOTENCY_SELECT, (rs, rowNum) -> {
+                Entry entry = new Entry(rs.getString("fingerprint"), rs.getLong("created_at"));
+                try {
+                    entry.response.complete(objectMapper.readValue(rs.getString("response"),
+                            new TypeReference<Map<String, Object>>() {}));
+                } catch (JsonProcessingException e) {
+                    return null;
+                }
+                return entry;
+            }, key, System.currentTimeMillis() - ttlMillis);
+            return found.isEmpty() ? null : found.get(0);
+        } catch (Exception e) {
+            logger.warn("Не удалось прочитать ключ идемпотентности {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Запись ответа в таблицу. Ошибка записи не отменяет уже выполненную операцию:
+     * ответ остается в памяти, теряется только защита от повтора после перезапуска
+     */
+    private void store(String key, Entry entry, Map<String, Object> body) {
+        try {
+            jdbcTemplate.update(IDEMPOTENCY_INSERT, key, entry.fingerprint,
+                    objectMapper.writeValueAsString(body), entry.createdAt);
+            boolean purge;
+            synchronized (entries) {
+                purge = ++writesSincePurge >= PURGE_INTERVAL;
+                if (purge) {
+                    writesSincePurge = 0;
+                }
+            }
+            if (purge) {
+                purgeExpired();
+            }
+        } catch (Exception e) {
+            logger.warn("Не удалось сохранить ответ для ключа идемпотентности {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void purgeExpired() {
+        try {
+            int deleted = jdbcTemplate.update(IDEMPOTENCY_DELETE_EXPIRED, System.currentTimeMillis() - ttlMillis);
+            if (deleted > 0) {
+                logger.info("Удалено устаревших ключей идемпотентности: {}", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("Ошибка удаления устаревших ключей идемпотентности: {}", e.getMessage());
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            json = String.valueOf(request);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest((operation + '\n' + json).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("error", message);
+        return body;
+    }
+}
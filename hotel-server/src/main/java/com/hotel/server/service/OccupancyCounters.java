@@ -0,0 +1,251 @@
+package com.hotel.server.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.*;
+import static com.hotel.server.service.TransactionHooks.afterCommit;
+
+/**
+ * Счетчики занятости номеров, клиентов и персонала в памяти.
+ * Пути записи меняют их после фиксации транзакции, чтение статуса обходится без SQL.
+ * Массовые операции и периодическая сверка пересчитывают счетчики по таблицам.
+ */
+@Component
+public class OccupancyCounters {
+    private static final Logger logger = LogManager.getLogger(OccupancyCounters.class);
+
+    private static final long RECONCILE_MINUTES = 5;
+    // Повтор сверки после ошибки БД: от секунды с удвоением до интервала периодической сверки
+    private static final long MIN_RETRY_SECONDS = 1;
+    private static final long MAX_RETRY_SECONDS = RECONCILE_MINUTES * 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Все таблицы сверки читаются одной транзакцией чтения - из одного снимка БД
+    private final TransactionTemplate readTransaction;
+
+    // Состояние меняется только под блокировкой объекта
+    private final Map<Integer, String> roomStatuses = new HashMap<>();
+    private final Map<Integer, String> roomTypes = new HashMap<>();
+    private final Map<String, Integer> clientsByStatus = new HashMap<>();
+    private int activeStaff;
+    // Изменения, примененные во время чтения сверки (null - сверка не идет): их нет в прочитанном снимке,
+    // поэтому они применяются к нему повторно
+    private List<Runnable> changesDuringReconcile;
+    private boolean reconcileScheduled;
+    private long retrySeconds;
+    // Была массовая операция: расхождение с БД ожидаемо и не считается ошибкой
+    private boolean bulkPending;
+    private LocalDateTime lastReconciled;
+    private String lastError;
+
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "occupancy-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OccupancyCounters(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        reconcile();
+        reconciler.scheduleWithFixedDelay(this::reconcile, RECONCILE_MINUTES, RECONCILE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * Статус номера изменен
+     */
+    public void roomStatusChanged(int roomNumber, String status) {
+        change(() -> {
+            if (roomStatuses.containsKey(roomNumber)) {
+                roomStatuses.put(roomNumber, status);
+            }
+        });
+    }
+
+    /**
+     * Клиент записан со статусом status
+     */
+    public void clientAdded(String status) {
+        change(() -> clientsByStatus.merge(status, 1, Integer::sum));
+    }
+
+    /**
+     * Клиент со статусом status удален
+     */
+    public void clientRemoved(String status) {
+        change(() -> clientsByStatus.computeIfPresent(status, (s, count) -> count > 1 ? count - 1 : null));
+    }
+
+    public void staffAdded() {
+        change(() -> activeStaff++);
+    }
+
+    /**
+     * Изменено сразу много строк - счетчики пересчитываются по таблицам после фиксации
+     */
+    public void bulkChanged() {
+        afterCommit(this::scheduleReconcile);
+    }
+
+    /**
+     * Снимок счетчиков
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Map<String, Integer>> byType = new TreeMap<>();
+        int occupied = 0;
+        for (Map.Entry<Integer, String> room : roomStatuses.entrySet()) {
+            boolean isOccupied = "occupied".equals(room.getValue());
+            if (isOccupied) {
+                occupied++;
+            }
+            Map<String, Integer> type = byType.computeIfAbsent(roomTypes.get(room.getKey()),
+                    t -> new LinkedHashMap<>(Map.of("total", 0, "occupied", 0)));
+            type.merge("total", 1, Integer::sum);
+            type.merge("occupied", isOccupied ? 1 : 0, Integer::sum);
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("totalRooms", roomStatuses.size());
+        snapshot.put("occupiedRooms", occupied);
+        snapshot.put("freeRooms", roomStatuses.size() - occupied);
+        snapshot.put("occupancyRate", roomStatuses.isEmpty() ? 0.0 : occupied * 100.0 / roomStatuses.size());
+        snapshot.put("roomsByType", byType);
+        snapshot.put("activeClients", clientsByStatus.getOrDefault("active", 0));
+        snapshot.put("pendingClients", clientsByStatus.getOrDefault("pending", 0));
+        snapshot.put("activeStaff", activeStaff);
+        snapshot.put("lastReconciled", lastReconciled == null ? null : lastReconciled.withNano(0).toString());
+        snapshot.put("lastError", lastError);
+        return snapshot;
+    }
+
+    /**
+     * Последняя сверка с БД прошла успешно
+     */
+    public synchronized boolean isHealthy() {
+        return lastReconciled != null && lastError == null;
+    }
+
+    private void change(Runnable delta) {
+        afterCommit(() -> {
+            synchronized (this) {
+                delta.run();
+                if (changesDuringReconcile != null) {
+                    changesDuringReconcile.add(delta);
+                }
+            }
+        });
+    }
+
+    private synchronized void scheduleReconcile() {
+        bulkPending = true;
+        if (!reconcileScheduled) {
+            reconcileScheduled = true;
+            reconciler.execute(this::reconcile);
+        }
+    }
+
+    /**
+     * Пересчет по таблицам. Изменения, зафиксированные во время чтения, применяются поверх
+     * прочитанного снимка, поэтому сверка не откладывается при непрерывной записи.
+     * Изменение, зафиксированное между началом сверки и первым чтением, учтется дважды -
+     * окно узкое, и расхождение исправит следующая сверка.
+     * При ошибке БД сверка повторяется с растущей задержкой
+     */
+    void reconcile() {
+        synchronized (this) {
+            reconcileScheduled = false;
+            changesDuringReconcile = new ArrayList<>();
+        }
+
+        Map<Integer, String> statuses = new HashMap<>();
+        Map<Integer, String> types = new HashMap<>();
+        Map<String, Integer> clients = new HashMap<>();
+        int staff;
+        try {
+            Integer count = readTransaction.execute(status -> {
+                jdbcTemplate.query(COUNTERS_ROOMS, rs -> {
+                    statuses.put(rs.getInt("room_number"), rs.getString("status"));
+                    types.put(rs.getInt("room_number"), rs.getString("room_type"));
+                });
+                jdbcTemplate.query(COUNTERS_CLIENTS_BY_STATUS, rs -> {
+                    clients.put(rs.getString("status"), rs.getInt("count"));
+                });
+                return jdbcTemplate.queryForObject(COUNTERS_ACTIVE_STAFF, Integer.class);
+            });
+            staff = count != null ? count : 0;
+        } catch (Exception e) {
+            synchronized (this) {
+                changesDuringReconcile = null;
+                lastError = e.getMessage();
+                retrySeconds = retrySeconds == 0 ? MIN_RETRY_SECONDS : Math.min(retrySeconds * 2, MAX_RETRY_SECONDS);
+                if (!reconcileScheduled) {
+                    reconcileScheduled = true;
+                    reconciler.schedule(this::reconcile, retrySeconds, TimeUnit.SECONDS);
+                }
+                logger.error("Ошибка сверки счетчиков занятости: {}, повтор через {} с", e.getMessage(), retrySeconds);
+            }
+            return;
+        }
+
+        synchronized (this) {
+            Map<Integer, String> previousStatuses = new HashMap<>(roomStatuses);
+            Map<String, Integer> previousClients = new HashMap<>(clientsByStatus);
+            int previousStaff = activeStaff;
+
+            roomStatuses.clear();
+            roomStatuses.putAll(statuses);
+            clientsByStatus.clear();
+            clientsByStatus.putAll(clients);
+            activeStaff = staff;
+            for (Runnable delta : changesDuringReconcile) {
+                delta.run();
+            }
+            if (!changesDuringReconcile.isEmpty()) {
+                logger.debug("Поверх сверки применено изменений: {}", changesDuringReconcile.size());
+            }
+            changesDuringReconcile = null;
+
+            boolean drifted = !previousStatuses.equals(roomStatuses) || !previousClients.equals(clientsByStatus)
+                    || previousStaff != activeStaff;
+            if (drifted && lastReconciled != null && !bulkPending) {
+                logger.warn("Счетчики занятости расходились с БД, исправлены");
+            }
+            bulkPending = false;
+            roomTypes.clear();
+            roomTypes.putAll(types);
+            lastReconciled = LocalDateTime.now();
+            lastError = null;
+            retrySeconds = 0;
+        }
+    }
+}
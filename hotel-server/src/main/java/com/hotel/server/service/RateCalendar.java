@@ -0,0 +1,259 @@
+package com.hotel.server.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.*;
+
+/**
+ * Календарь цен за ночь в памяти.
+ * Для каждого типа номера сезонные тарифы сводятся в отсортированные непересекающиеся отрезки,
+ * поэтому цена ночи находится бинарным поиском без запросов к БД.
+ * Ночь с пятницы на субботу и с субботы на воскресенье считаются выходными.
+ * Загружается после DataInitializer: на новой БД типы номеров и тарифы создает он.
+ */
+@Component
+@DependsOn("dataInitializer")
+public class RateCalendar {
+    private static final Logger logger = LogManager.getLogger(RateCalendar.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    public RateCalendar(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        reload();
+    }
+
+    /**
+     * Перечитать тарифы и типы номеров из БД
+     */
+    public synchronized void reload() {
+        try {
+            Map<Integer, String> roomTypes = new HashMap<>();
+            jdbcTemplate.query(ROOMS_SELECT_TYPES, rs -> {
+                roomTypes.put(rs.getInt("room_number"), rs.getString("room_type"));
+            });
+
+            Map<String, double[]> baseRates = new HashMap<>();
+            jdbcTemplate.query(ROOM_TYPES_SELECT_ALL, rs -> {
+                baseRates.put(rs.getString("room_type"),
+                        new double[]{rs.getDouble("weekday_rate"), rs.getDouble("weekend_rate")});
+            });
+
+            Map<String, List<Season>> seasons = new HashMap<>();
+            jdbcTemplate.query(RATES_SELECT_ALL, rs -> {
+                try {
+                    seasons.computeIfAbsent(rs.getString("room_type"), t -> new ArrayList<>()).add(new Season(
+                            EpochDays.of(rs.getString("start_date")), EpochDays.of(rs.getString("end_date")),
+                            rs.getDouble("weekday_rate"), rs.getDouble("weekend_rate")));
+                } catch (Exception e) {
+                    logger.warn("Сезонный тариф {} пропущен: {}", rs.getLong("id"), e.getMessage());
+                }
+            });
+
+            Map<String, TypeRates> rates = new HashMap<>();
+            baseRates.forEach((type, base) ->
+                    rates.put(type, new TypeRates(base[0], base[1], seasons.getOrDefault(type, List.of()))));
+            snapshot = new Snapshot(roomTypes, rates);
+            logger.info("Загружены тарифы: типов номеров {}, номеров {}", rates.size(), roomTypes.size());
+        } catch (Exception e) {
+            logger.error("Ошибка загрузки тарифов: {}", e.getMessage());
+        }
+    }
+
+    public boolean hasRoomType(String roomType) {
+        return snapshot.rates.containsKey(roomType);
+    }
+
+    /**
+     * Тип номера или null, если номер неизвестен
+     */
+    public String roomTypeOf(Integer roomNumber) {
+        return snapshot.roomTypes.get(roomNumber);
+    }
+
+    /**
+     * Стоимость проживания в номере за ночи с checkInDate по день перед checkOutDate
+     *
+     * @throws IllegalArgumentException если номер или его тариф неизвестны, или даты некорректны
+     */
+    public double priceForRoom(Integer roomNumber, String checkInDate, String checkOutDate) {
+        String roomType = roomTypeOf(roomNumber);
+        if (roomType == null) {
+            throw new IllegalArgumentException("Номер " + roomNumber + " не найден");
+        }
+        return priceForType(roomType, checkInDate, checkOutDate);
+    }
+
+    /**
+     * Стоимость проживания в номере типа roomType
+     *
+     * @throws IllegalArgumentException если тариф неизвестен или даты некорректны
+     */
+    public double priceForType(String roomType, String checkInDate, String checkOutDate) {
+        TypeRates rates = snapshot.rates.get(roomType);
+        if (rates == null) {
+            throw new IllegalArgumentException("Нет тарифа для типа номера " + roomType);
+        }
+        long checkInDay = parseDay(checkInDate);
+        long checkOutDay = parseDay(checkOutDate);
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("Дата выезда должна быть позже даты заезда");
+        }
+
+        double total = 0;
+        for (long day = checkInDay; day < checkOutDay; day++) {
+            total += rates.nightly(day);
+        }
+        return Math.round(total * 100) / 100.0;
+    }
+
+    static long parseDay(String date) {
+        try {
+            return EpochDays.of(date);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Некорректная дата: " + date);
+        }
+    }
+
+    private static final class Snapshot {
+        final Map<Integer, String> roomTypes;
+        final Map<String, TypeRates> rates;
+
+        Snapshot(Map<Integer, String> roomTypes, Map<String, TypeRates> rates) {
+            this.roomTypes = roomTypes;
+            this.rates = rates;
+        }
+    }
+
+    private static final class Segment {
+        final long startDay;
+        final long endDay;
+        final Season season;
+
+        Segment(long startDay, long endDay, Season season) {
+            this.startDay = startDay;
+            this.endDay = endDay;
+            this.season = season;
+        }
+    }
+
+    private static final class Season {
+        final long startDay;
+        final long endDay;
+        final double weekdayRate;
+        final double weekendRate;
+
+        Season(long startDay, long endDay, double weekdayRate, double weekendRate) {
+            this.startDay = startDay;
+            this.endDay = endDay;
+            this.weekdayRate = weekdayRate;
+            this.weekendRate = weekendRate;
+        }
+    }
+
+    /**
+     * Цены одного типа номера: базовые и сезонные, сведенные в непересекающиеся отрезки
+     */
+    private static final class TypeRates {
+        final double weekdayRate;
+        final double weekendRate;
+        // Отрезок i: ночи startDays[i]..endDays[i] по тарифу seasons[i], отрезки отсортированы
+        final long[] startDays;
+        final long[] endDays;
+        final Season[] seasons;
+
+        TypeRates(double weekdayRate, double weekendRate, List<Season> seasons) {
+            this.weekdayRate = weekdayRate;
+            this.weekendRate = weekendRate;
+
+            // Сезоны идут в порядке добавления - добавленный позже перекрывает ранний
+            NavigableMap<Long, Segment> segments = new TreeMap<>();
+            for (Season season : seasons) {
+                if (season.endDay >= season.startDay) {
+                    overlay(segments, new Segment(season.startDay, season.endDay, season));
+                }
+            }
+
+            int size = segments.size();
+            this.startDays = new long[size];
+            this.endDays = new long[size];
+            this.seasons = new Season[size];
+            int i = 0;
+            for (Segment segment : segments.values()) {
+                startDays[i] = segment.startDay;
+                endDays[i] = segment.endDay;
+                this.seasons[i] = segment.season;
+                i++;
+            }
+        }
+
+        /**
+         * Кладет отрезок поверх уже разложенных: пересекающиеся с ним части прежних отрезков убираются
+         */
+        private static void overlay(NavigableMap<Long, Segment> segments, Segment added) {
+            Map.Entry<Long, Segment> before = segments.lowerEntry(added.startDay);
+            if (before != null && before.getValue().endDay >= added.startDay) {
+                Segment covering = before.getValue();
+                segments.put(covering.startDay, new Segment(covering.startDay, added.startDay - 1, covering.season));
+                if (covering.endDay > added.endDay) {
+                    segments.put(added.endDay + 1, new Segment(added.endDay + 1, covering.endDay, covering.season));
+                }
+            }
+            NavigableMap<Long, Segment> inside = segments.subMap(added.startDay, true, added.endDay, true);
+            Segment last = inside.isEmpty() ? null : inside.lastEntry().getValue();
+            inside.clear();
+            if (last != null && last.endDay > added.endDay) {
+                segments.put(added.endDay + 1, new Segment(added.endDay + 1, last.endDay, last.season));
+            }
+            segments.put(added.startDay, added);
+        }
+
+        double nightly(long day) {
+            // Последний отрезок, начинающийся не позже day
+            int lo = 0;
+            int hi = startDays.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (startDays[mid] <= day) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            boolean weekend = isWeekendNight(day);
+            if (found >= 0 && endDays[found] >= day) {
+                return weekend ? seasons[found].weekendRate : seasons[found].weekdayRate;
+            }
+            return weekend ? weekendRate : weekdayRate;
+        }
+
+        /**
+         * Ночь, начинающаяся в пятницу или субботу (1970-01-01 - четверг)
+         */
+        static boolean isWeekendNight(long day) {
+            int dayOfWeek = Math.floorMod(day + 3, 7); // 0 - понедельник
+            return dayOfWeek == 4 || dayOfWeek == 5;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.hotel.server.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.*;
+import static com.hotel.server.service.TransactionHooks.afterCommit;
+
+/**
+ * Тарифы по типам номеров и расчет стоимости проживания.
+ * Изменения тарифов пишутся в БД, после чего календарь цен в памяти перечитывается
+ */
+@Service
+public class RateService {
+    private static final Logger logger = LogManager.getLogger(RateService.class);
+
+    /** Максимум позиций в одном запросе расчета стоимости */
+    public static final int MAX_QUOTE_ITEMS = 1000;
+    /** Максимум ночей в одной позиции расчета: цена считается по ночам */
+    public static final int MAX_QUOTE_NIGHTS = 366;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final RateCalendar rateCalendar;
+
+    public RateService(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                       RateCalendar rateCalendar) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.rateCalendar = rateCalendar;
+    }
+
+    /**
+     * Базовые тарифы типов номеров и сезонные тарифы
+     */
+    public Map<String, Object> getTariffs() {
+        List<Map<String, Object>> roomTypes = readJdbcTemplate.query(ROOM_TYPES_SELECT_ALL, (rs, rowNum) -> {
+            Map<String, Object> type = new LinkedHashMap<>();
+            type.put("roomType", rs.getString("room_type"));
+            type.put("weekdayRate", rs.getDouble("weekday_rate"));
+            type.put("weekendRate", rs.getDouble("weekend_rate"));
+            return type;
+        });
+        List<Map<String, Object>> seasons = readJdbcTemplate.query(RATES_SELECT_ALL, (rs, rowNum) -> {
+            Map<String, Object> season = new LinkedHashMap<>();
+            season.put("id", rs.getLong("id"));
+            season.put("roomType", rs.getString("room_type"));
+            season.put("season", rs.getString("season"));
+            season.put("startDate", rs.getString("start_date"));
+            season.put("endDate", rs.getString("end_date"));
+            season.put("weekdayRate", rs.getDouble("weekday_rate"));
+            season.put("weekendRate", rs.getDouble("weekend_rate"));
+            return season;
+        });
+
+        Map<String, Object> tariffs = new LinkedHashMap<>();
+        tariffs.put("roomTypes", roomTypes);
+        tariffs.put("seasons", seasons);
+        return tariffs;
+    }
+
+    /**
+     * Задать базовый тариф типа номера (тип создается, если его нет)
+     *
+     * @throws IllegalArgumentException если цена не положительная
+     */
+    public void setRoomTypeRates(String roomType, double weekdayRate, double weekendRate) {
+        requirePositive(weekdayRate, weekendRate);
+        jdbcTemplate.update(ROOM_TYPES_UPSERT, roomType, weekdayRate, weekendRate);
+        logger.info("Тариф типа {}: будни {}, выходные {}", roomType, weekdayRate, weekendRate);
+        afterCommit(rateCalendar::reload);
+    }
+
+    /**
+     * Добавить сезонный тариф на даты startDate..endDate включительно.
+     * При пересечении сезонов действует добавленный позже
+     *
+     * @return id сезона
+     * @throws IllegalArgumentException если тип неизвестен, даты или цены некорректны
+     */
+    public long addSeason(String roomType, String season, String startDate, String endDate,
+                          double weekdayRate, double weekendRate) {
+        if (!rateCalendar.hasRoomType(roomType)) {
+            throw new IllegalArgumentException("Нет тарифа для типа номера " + roomType);
+        }
+        requirePositive(weekdayRate, weekendRate);
+        long startDay = RateCalendar.parseDay(startDate);
+        long endDay = RateCalendar.parseDay(endDate);
+        if (endDay < startDay) {
+            throw new IllegalArgumentException("Конец сезона раньше начала");
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RATES_INSERT, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, roomType);
+            ps.setString(2, season);
+            ps.setString(3, startDate.trim());
+            ps.setString(4, endDate.trim());
+            ps.setDouble(5, weekdayRate);
+            ps.setDouble(6, weekendRate);
+            return ps;
+        }, keyHolder);
+        logger.info("Добавлен сезон '{}' для типа {}: {} - {}", season, roomType, startDate, endDate);
+        afterCommit(rateCalendar::reload);
+        Number id = keyHolder.getKey();
+        return id != null ? id.longValue() : 0;
+    }
+
+    public boolean deleteSeason(long id) {
+        int deleted = jdbcTemplate.update(RATES_DELETE, id);
+        if (deleted > 0) {
+            afterCommit(rateCalendar::reload);
+        }
+        return deleted > 0;
+    }
+
+    /**
+     * Стоимость проживания для набора запросов: номер (roomNumber) или тип (roomType)
+     * и даты checkInDate/checkOutDate. Ошибка в одной позиции не мешает остальным
+     *
+     * @throws IllegalArgumentException если позиций больше MAX_QUOTE_ITEMS
+     *                                  или в какой-то позиции больше MAX_QUOTE_NIGHTS ночей
+     */
+    public List<Map<String, Object>> quote(List<Map<String, Object>> items) {
+        if (items.size() > MAX_QUOTE_ITEMS) {
+            throw new IllegalArgumentException("Не более " + MAX_QUOTE_ITEMS + " позиций в запросе");
+        }
+        for (Map<String, Object> item : items) {
+            requireQuotableStay(item);
+        }
+
+        List<Map<String, Object>> quotes = new ArrayList<>(items.size());
+        for (Map<String, Object> item : items) {
+            Map<String, Object> quote = new LinkedHashMap<>(item);
+            try {
+                String checkInDate = String.valueOf(item.get("checkInDate"));
+                String checkOutDate = String.valueOf(item.get("checkOutDate"));
+                Object roomNumber = item.get("roomNumber");
+                double totalPrice;
+                if (roomNumber != null) {
+                    totalPrice = rateCalendar.priceForRoom(
+                            Integer.valueOf(roomNumber.toString()), checkInDate, checkOutDate);
+                } else {
+                    totalPrice = rateCalendar.priceForType(
+                            String.valueOf(item.get("roomType")), checkInDate, checkOutDate);
+                }
+                quote.put("nights", RateCalendar.parseDay(checkOutDate) - RateCalendar.parseDay(checkInDate));
+                quote.put("totalPrice", totalPrice);
+            } catch (IllegalArgumentException e) {
+                quote.put("error", e.getMessage());
+            }
+            quotes.add(quote);
+        }
+        return quotes;
+    }
+
+    /**
+     * Проверка длины проживания до расчета: позиции с некорректными датами пропускаются,
+     * ошибка по ним вернется в самой позиции
+     */
+    private static void requireQuotableStay(Map<String, Object> item) {
+        long nights;
+        try {
+            nights = RateCalendar.parseDay(String.valueOf(item.get("checkOutDate")))
+                    - RateCalendar.parseDay(String.valueOf(item.get("checkInDate")));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        if (nights > MAX_QUOTE_NIGHTS) {
+            throw new IllegalArgumentException("Проживание не может быть длиннее " + MAX_QUOTE_NIGHTS + " ночей");
+        }
+    }
+
+    private static void requirePositive(double weekdayRate, double weekendRate) {
+        if (!(weekdayRate > 0) || !(weekendRate > 0)) {
+            throw new IllegalArgumentException("Цена за ночь должна быть больше нуля");
+        }
+    }
+}
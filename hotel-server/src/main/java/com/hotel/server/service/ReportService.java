@@ -0,0 +1,114 @@
+package com.hotel.server.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hotel.server.config.SqlQueries.*;
+
+/**
+ * Сводный отчет по отелю. Все агрегаты считает БД: по одному запросу на таблицу,
+ * итоги складываются из строк группировки, клиенту уходит только результат
+ */
+@Service
+public class ReportService {
+    private final JdbcTemplate readJdbcTemplate;
+
+    public ReportService(@Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate) {
+        this.readJdbcTemplate = readJdbcTemplate;
+    }
+
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("generatedAt", LocalDateTime.now().withNano(0).toString());
+        summary.put("clients", clientStats());
+
+        Map<String, Object> rooms = roomStats();
+        summary.put("rooms", rooms);
+        Map<String, Object> staff = staffStats();
+        summary.put("staff", staff);
+
+        Map<String, Object> finance = new LinkedHashMap<>();
+        finance.put("revenue", rooms.remove("revenue"));
+        finance.put("bookedNights", rooms.remove("bookedNights"));
+        finance.put("monthlyPayroll", staff.get("totalSalary"));
+        summary.put("finance", finance);
+        return summary;
+    }
+
+    private Map<String, Object> clientStats() {
+        return readJdbcTemplate.queryForObject(REPORT_CLIENT_STATS, (rs, rowNum) -> {
+            Map<String, Object> clients = new LinkedHashMap<>();
+            clients.put("total", rs.getInt("total_clients"));
+            clients.put("active", rs.getInt("active_clients"));
+            clients.put("pending", rs.getInt("pending_clients"));
+            clients.put("checkedOut", rs.getInt("checked_out_clients"));
+            clients.put("avgStayDays", rs.getDouble("avg_stay_days"));
+            return clients;
+        });
+    }
+
+    private Map<String, Object> roomStats() {
+        List<Map<String, Object>> byType = new ArrayList<>();
+        int[] totals = new int[3];
+        long[] nights = new long[1];
+        double[] revenue = new double[1];
+
+        readJdbcTemplate.query(REPORT_REVENUE_BY_ROOM_TYPE, rs -> {
+            Map<String, Object> type = new LinkedHashMap<>();
+            type.put("roomType", rs.getString("room_type"));
+            type.put("total", rs.getInt("room_count"));
+            type.put("occupied", rs.getInt("occupied_count"));
+            type.put("free", rs.getInt("free_count"));
+            type.put("bookedNights", rs.getLong("booked_nights"));
+            type.put("revenue", rs.getDouble("revenue"));
+            byType.add(type);
+
+            totals[0] += rs.getInt("room_count");
+            totals[1] += rs.getInt("occupied_count");
+            totals[2] += rs.getInt("free_count");
+            nights[0] += rs.getLong("booked_nights");
+            revenue[0] += rs.getDouble("revenue");
+        });
+
+        Map<String, Object> rooms = new LinkedHashMap<>();
+        rooms.put("total", totals[0]);
+        rooms.put("occupied", totals[1]);
+        rooms.put("free", totals[2]);
+        rooms.put("occupancyRate", totals[0] > 0 ? totals[1] * 100.0 / totals[0] : 0.0);
+        rooms.put("byType", byType);
+        rooms.put("bookedNights", nights[0]);
+        rooms.put("revenue", revenue[0]);
+        return rooms;
+    }
+
+    private Map<String, Object> staffStats() {
+        List<Map<String, Object>> byDepartment = new ArrayList<>();
+        int[] count = new int[1];
+        double[] salary = new double[1];
+
+        readJdbcTemplate.query(REPORT_STAFF_BY_DEPARTMENT, rs -> {
+            Map<String, Object> department = new LinkedHashMap<>();
+            department.put("department", rs.getString("department"));
+            department.put("count", rs.getInt("staff_count"));
+            department.put("totalSalary", rs.getDouble("total_salary"));
+            byDepartment.add(department);
+
+            count[0] += rs.getInt("staff_count");
+            salary[0] += rs.getDouble("total_salary");
+        });
+
+        Map<String, Object> staff = new LinkedHashMap<>();
+        staff.put("total", count[0]);
+        staff.put("totalSalary", salary[0]);
+        staff.put("avgSalary", count[0] > 0 ? salary[0] / count[0] : 0.0);
+        staff.put("byDepartment", byDepartment);
+        return staff;
+    }
+}
@@ -0,0 +1,387 @@
+package com.hotel.server.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.config.SqlQueries.*;
+import static com.hotel.server.service.TransactionHooks.afterCommit;
+
+/**
+ * Индекс активных бронирований в памяти: для каждого номера хранится
+ * отсортированный по дате заезда массив интервалов.
+ * Источником истины остается таблица bookings, индекс лишь ускоряет проверку доступности.
+ * Перезагрузка собирает новое состояние целиком и публикует его одной записью volatile ссылки:
+ * читатели без блокировок видят либо старое, либо новое состояние, но не частично заполненное.
+ */
+@Component
+public class RoomAvailabilityIndex {
+    private static final Logger logger = LogManager.getLogger(RoomAvailabilityIndex.class);
+
+    // Читаем через пул чтения: перезагрузка идет после коммита и видит зафиксированные данные
+    private final JdbcTemplate jdbcTemplate;
+    private volatile State state = new State(Map.of(), Set.of());
+    private volatile boolean ready = false;
+
+    public RoomAvailabilityIndex(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Полная перезагрузка индекса из таблицы bookings
+     */
+    public synchronized void rebuild() {
+        try {
+            Map<Integer, List<Booking>> loaded = new HashMap<>();
+            Set<Integer> broken = new TreeSet<>();
+            int count = loadActiveBookings(loaded, broken);
+
+            Map<Integer, RoomIntervals> rooms = new HashMap<>();
+            loaded.forEach((roomNumber, bookings) -> rooms.put(roomNumber, RoomIntervals.of(bookings)));
+            state = new State(rooms, broken);
+            ready = true;
+
+            logger.info("Индекс доступности номеров загружен: {} активных бронирований в {} номерах",
+                    count, rooms.size());
+            if (!broken.isEmpty()) {
+                logger.warn("Некорректные даты бронирований в номерах {}, проверка для них идет через БД", broken);
+            }
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Ошибка загрузки индекса доступности номеров: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Можно ли ответить на запрос по номеру из памяти
+     */
+    public boolean covers(Integer roomNumber) {
+        return ready && roomNumber != null && !state.unindexedRooms.contains(roomNumber);
+    }
+
+    /**
+     * Проверка пересечения с активными бронированиями.
+     * Условие совпадает с ROOM_CHECK_AVAILABILITY, чтобы ответы индекса и БД не расходились.
+     *
+     * @throws DateTimeParseException если даты не в формате yyyy-MM-dd
+     */
+    public boolean hasOverlap(Integer roomNumber, String checkInDate, String checkOutDate) {
+        long from = EpochDays.of(checkInDate);
+        long to = EpochDays.of(checkOutDate);
+        RoomIntervals intervals = state.rooms.get(roomNumber);
+        return intervals != null && intervals.overlaps(from, to);
+    }
+
+    /**
+     * Новое активное бронирование (применяется после коммита транзакции).
+     * Если перезагрузка успела прочитать его из БД, повторно оно не добавляется
+     */
+    public void bookingAdded(Integer roomNumber, String clientPassport, String checkInDate, String checkOutDate) {
+        afterCommit(() -> addBooking(roomNumber, clientPassport, checkInDate, checkOutDate));
+    }
+
+    /**
+     * Бронирование клиента в номере перестало быть активным
+     */
+    public void bookingClosed(Integer roomNumber, String clientPassport) {
+        afterCommit(() -> updateRoom(roomNumber, intervals -> intervals.without(b -> Objects.equals(b.passport, clientPassport))));
+    }
+
+    /**
+     * Все бронирования клиента удалены (каскадом вместе с клиентом)
+     */
+    public void clientRemoved(String clientPassport) {
+        afterCommit(() -> {
+            synchronized (this) {
+                for (Integer roomNumber : new ArrayList<>(state.rooms.keySet())) {
+                    updateRoom(roomNumber, intervals -> intervals.without(b -> Objects.equals(b.passport, clientPassport)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Завершение бронирований с датой выезда раньше указанной (аналог UPDATE в checkRoomOccupancy)
+     */
+    public void bookingsCompletedBefore(String currentDate) {
+        afterCommit(() -> {
+            synchronized (this) {
+                try {
+                    long day = EpochDays.of(currentDate);
+                    for (Integer roomNumber : new ArrayList<>(state.rooms.keySet())) {
+                        updateRoom(roomNumber, intervals -> intervals.without(b -> b.checkOutDay < day));
+                    }
+                } catch (DateTimeParseException e) {
+                    logger.warn("Некорректная дата {}, индекс перезагружается из БД", currentDate);
+                    rebuild();
+                }
+            }
+        });
+    }
+
+    /**
+     * Все активные бронирования удалены
+     */
+    public void cleared() {
+        afterCommit(() -> {
+            synchronized (this) {
+                state = new State(Map.of(), Set.of());
+            }
+        });
+    }
+
+    /**
+     * Изменения, которые проще перечитать из БД целиком
+     */
+    public void invalidated() {
+        afterCommit(this::rebuild);
+    }
+
+    /**
+     * Сравнение содержимого индекса с таблицей bookings
+     *
+     * @param repair перезагрузить индекс при расхождении
+     */
+    public synchronized Map<String, Object> verify(boolean repair) {
+        Map<Integer, List<Booking>> expected = new HashMap<>();
+        Set<Integer> broken = new TreeSet<>();
+        int sqlCount = loadActiveBookings(expected, broken);
+
+        State current = state;
+        Set<Integer> roomNumbers = new TreeSet<>(expected.keySet());
+        roomNumbers.addAll(current.rooms.keySet());
+
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        int indexedCount = 0;
+
+        for (Integer roomNumber : roomNumbers) {
+            if (broken.contains(roomNumber)) {
+                continue;
+            }
+            List<Booking> fromSql = expected.getOrDefault(roomNumber, List.of());
+            RoomIntervals intervals = current.rooms.get(roomNumber);
+            List<Booking> fromIndex = intervals != null ? intervals.bookings() : List.of();
+            indexedCount += fromIndex.size();
+
+            for (Booking booking : fromSql) {
+                if (!fromIndex.contains(booking)) {
+                    missing.add(booking.describe(roomNumber));
+                }
+            }
+            for (Booking booking : fromIndex) {
+                if (!fromSql.contains(booking)) {
+                    stale.add(booking.describe(roomNumber));
+                }
+            }
+        }
+
+        boolean consistent = ready && missing.isEmpty() && stale.isEmpty();
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("consistent", consistent);
+        report.put("ready", ready);
+        report.put("sqlActiveBookings", sqlCount);
+        report.put("indexedBookings", indexedCount);
+        report.put("missingInIndex", missing);
+        report.put("staleInIndex", stale);
+        report.put("unindexedRooms", broken);
+
+        if (!consistent) {
+            logger.warn("Индекс доступности расходится с БД: отсутствует {}, лишних {}", missing.size(), stale.size());
+            if (repair) {
+                rebuild();
+            }
+        }
+        report.put("repaired", !consistent && repair);
+        return report;
+    }
+
+    private int loadActiveBookings(Map<Integer, List<Booking>> target, Set<Integer> broken) {
+        int[] count = {0};
+        jdbcTemplate.query(BOOKING_SELECT_ACTIVE, rs -> {
+            int roomNumber = rs.getInt("room_number");
+            try {
+                Booking booking = new Booking(rs.getString("client_passport"),
+                        EpochDays.of(rs.getString("check_in_date")),
+                        EpochDays.of(rs.getString("check_out_date")));
+                target.computeIfAbsent(roomNumber, k -> new ArrayList<>()).add(booking);
+                count[0]++;
+            } catch (DateTimeParseException | NullPointerException e) {
+                broken.add(roomNumber);
+            }
+        });
+        return count[0];
+    }
+
+    private synchronized void addBooking(Integer roomNumber, String clientPassport, String checkInDate, String checkOutDate) {
+        try {
+            Booking booking = new Booking(clientPassport, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+            updateRoom(roomNumber, intervals -> intervals.with(booking));
+        } catch (DateTimeParseException | NullPointerException e) {
+            state.unindexedRooms.add(roomNumber);
+        }
+    }
+
+    private synchronized void updateRoom(Integer roomNumber, UnaryOperator<RoomIntervals> change) {
+        Map<Integer, RoomIntervals> rooms = state.rooms;
+        RoomIntervals updated = change.apply(rooms.getOrDefault(roomNumber, RoomIntervals.EMPTY));
+        if (updated.isEmpty()) {
+            rooms.remove(roomNumber);
+        } else {
+            rooms.put(roomNumber, updated);
+        }
+    }
+
+    /**
+     * Опубликованное состояние индекса. Коллекции изменяются на месте только под блокировкой индекса
+     * и по одному номеру за раз; перезагрузка заменяет состояние целиком
+     */
+    private static final class State {
+        final Map<Integer, RoomIntervals> rooms;
+        // Номера, для которых в БД есть некорректные даты - по ним проверяем через SQL
+        final Set<Integer> unindexedRooms;
+
+        State(Map<Integer, RoomIntervals> rooms, Set<Integer> unindexedRooms) {
+            this.rooms = new ConcurrentHashMap<>(rooms);
+            this.unindexedRooms = ConcurrentHashMap.newKeySet();
+            this.unindexedRooms.addAll(unindexedRooms);
+        }
+    }
+
+    /**
+     * Активное бронирование номера: даты в днях от эпохи
+     */
+    private static final class Booking {
+        final String passport;
+        final long checkInDay;
+        final long checkOutDay;
+
+        Booking(String passport, long checkInDay, long checkOutDay) {
+            this.passport = passport;
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+        }
+
+        String describe(int roomNumber) {
+            return roomNumber + ":" + passport + ":" + LocalDate.ofEpochDay(checkInDay) + ".." + LocalDate.ofEpochDay(checkOutDay);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Booking other)) return false;
+            return checkInDay == other.checkInDay && checkOutDay == other.checkOutDay
+                    && Objects.equals(passport, other.passport);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(passport, checkInDay, checkOutDay);
+        }
+    }
+
+    /**
+     * Неизменяемый отсортированный массив интервалов одного номера.
+     * maxCheckOut[i] - максимальная дата выезда среди первых i+1 интервалов,
+     * что позволяет остановить обратный просмотр после бинарного поиска.
+     */
+    private static final class RoomIntervals {
+        static final RoomIntervals EMPTY = new RoomIntervals(new Booking[0]);
+
+        private final Booking[] sorted;
+        private final long[] maxCheckOut;
+
+        private RoomIntervals(Booking[] sorted) {
+            this.sorted = sorted;
+            this.maxCheckOut = new long[sorted.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < sorted.length; i++) {
+                max = Math.max(max, sorted[i].checkOutDay);
+                maxCheckOut[i] = max;
+            }
+        }
+
+        static RoomIntervals of(List<Booking> bookings) {
+            Booking[] array = bookings.toArray(new Booking[0]);
+            Arrays.sort(array, (a, b) -> Long.compare(a.checkInDay, b.checkInDay));
+            return new RoomIntervals(array);
+        }
+
+        boolean isEmpty() {
+            return sorted.length == 0;
+        }
+
+        List<Booking> bookings() {
+            return Arrays.asList(sorted);
+        }
+
+        RoomIntervals with(Booking booking) {
+            if (bookings().contains(booking)) {
+                return this;
+            }
+            List<Booking> list = new ArrayList<>(bookings());
+            list.add(booking);
+            return of(list);
+        }
+
+        RoomIntervals without(Predicate<Booking> filter) {
+            List<Booking> list = new ArrayList<>(sorted.length);
+            for (Booking booking : sorted) {
+                if (!filter.test(booking)) {
+                    list.add(booking);
+                }
+            }
+            return list.size() == sorted.length ? this : of(list);
+        }
+
+        /**
+         * (check_in <= to AND check_out > from) OR (check_in < to AND check_out >= from)
+         */
+        boolean overlaps(long from, long to) {
+            // Последний интервал с check_in <= to
+            int lo = 0;
+            int hi = sorted.length - 1;
+            int last = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid].checkInDay <= to) {
+                    last = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+
+            for (int i = last; i >= 0 && maxCheckOut[i] >= from; i--) {
+                Booking b = sorted[i];
+                if ((b.checkInDay <= to && b.checkOutDay > from) || (b.checkInDay < to && b.checkOutDay >= from)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.hotel.server.service;
+
+import com.hotel.server.model.Room;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.hotel.server.service.TransactionHooks.afterCommit;
+
+/**
+ * Кэш списков номеров (все, свободные, занятые) с чтением при промахе.
+ * Списки сбрасываются после фиксации изменений: при смене статуса одного номера -
+ * общий список и списки по статусам.
+ */
+@Component
+public class RoomCache {
+    private static final Logger logger = LogManager.getLogger(RoomCache.class);
+
+    public static final String ALL = "all";
+    public static final String FREE = "free";
+    public static final String OCCUPIED = "occupied";
+
+    private final Map<String, Slot> slots = Map.of(
+            ALL, new Slot(),
+            FREE, new Slot(),
+            OCCUPIED, new Slot()
+    );
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Список номеров из кэша или, при промахе, из loader
+     *
+     * @param key ALL или статус номера
+     */
+    public List<Room> get(String key, Supplier<List<Room>> loader) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return loader.get();
+        }
+
+        List<Room> cached = slot.rooms;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        // Версия запоминается до чтения: если список сбросили, пока шел запрос,
+        // прочитанные данные могут быть устаревшими и в кэш не попадут
+        long version = slot.version.get();
+        List<Room> loaded = List.copyOf(loader.get());
+        synchronized (slot) {
+            if (slot.version.get() == version) {
+                slot.rooms = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Статус номера изменен.
+     * Прежний статус после коммита не известен: кэшированный список ALL мог быть перечитан
+     * уже с новым статусом. Поэтому сбрасываются оба списка по статусам
+     */
+    public void roomStatusChanged(int roomNumber, String newStatus) {
+        afterCommit(() -> {
+            invalidate(ALL);
+            invalidate(FREE);
+            invalidate(OCCUPIED);
+        });
+    }
+
+    /**
+     * Изменены статусы произвольного набора номеров
+     */
+    public void invalidateAll() {
+        afterCommit(() -> slots.keySet().forEach(this::invalidate));
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("invalidations", invalidations.get());
+        Map<String, Object> cached = new HashMap<>();
+        slots.forEach((key, slot) -> {
+            List<Room> rooms = slot.rooms;
+            cached.put(key, rooms == null ? null : rooms.size());
+        });
+        stats.put("cachedLists", cached);
+        return stats;
+    }
+
+    private void invalidate(String key) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            slot.version.incrementAndGet();
+            slot.rooms = null;
+        }
+        invalidations.incrementAndGet();
+        logger.debug("Сброшен кэш номеров: {}", key);
+    }
+
+    private static final class Slot {
+        final AtomicLong version = new AtomicLong();
+        volatile List<Room> rooms;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hotel.server.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые блокировки номеров: операции над одним номером выполняются по очереди,
+ * над разными номерами - параллельно.
+ */
+@Component
+public class RoomLocks {
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public RoomLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Блокировка, отвечающая за номер
+     */
+    public ReentrantLock lockFor(Integer roomNumber) {
+        return locks[stripeOf(roomNumber)];
+    }
+
+    /**
+     * Захватывает блокировки всех номеров по возрастанию номера полосы.
+     * Потоки с пересекающимися наборами номеров берут общие блокировки в одном порядке,
+     * поэтому не могут ждать друг друга по кругу
+     *
+     * @return захваченные блокировки - их нужно отпустить через unlockAll
+     */
+    public List<ReentrantLock> lockAll(Collection<Integer> roomNumbers) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Integer roomNumber : roomNumbers) {
+            stripes.add(stripeOf(roomNumber));
+        }
+        List<ReentrantLock> acquired = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+            acquired.add(locks[stripe]);
+        }
+        return acquired;
+    }
+
+    public static void unlockAll(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+    }
+
+    private static int stripeOf(Integer roomNumber) {
+        return Math.floorMod(roomNumber == null ? 0 : roomNumber, STRIPES);
+    }
+}
@@ -1,10 +1,20 @@
 package com.hotel.server.service;
 
 import com.hotel.server.model.Room;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,41 +24,75 @@ import static com.hotel.server.config.SqlQueries.*;
 @Service
 public class RoomService {
     private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomCache roomCache;
+    private final ChangeEventPublisher events;
+    private final OccupancyCounters counters;
+    private final ClientSearchIndex searchIndex;
     private static final Logger logger = LogManager.getLogger(RoomService.class);
 
-    public RoomService(JdbcTemplate jdbcTemplate) {
+    public RoomService(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                       RoomAvailabilityIndex availabilityIndex, RoomCache roomCache,
+                       ChangeEventPublisher events, OccupancyCounters counters, ClientSearchIndex searchIndex) {
         this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.roomCache = roomCache;
+        this.events = events;
+        this.counters = counters;
+        this.searchIndex = searchIndex;
     }
 
+    /**
+     * Списки номеров отдаются из кэша; возвращаемые списки неизменяемы
+     */
     public List<Room> getAllRooms() {
-        return jdbcTemplate.query(ROOM_SELECT_ALL, (rs, rowNum) -> {
-            Room room = new Room();
-            room.setRoomNumber(rs.getInt("room_number"));
-            room.setRoomType(rs.getString("room_type"));
-            room.setStatus(rs.getString("status"));
-            return room;
-        });
+        return roomCache.get(RoomCache.ALL, () -> readJdbcTemplate.query(ROOM_SELECT_ALL, roomRowMapper()));
     }
 
     public List<Room> getFreeRooms() {
-        return jdbcTemplate.query(ROOM_SELECT_FREE, (rs, rowNum) -> {
-            Room room = new Room();
-            room.setRoomNumber(rs.getInt("room_number"));
-            room.setRoomType(rs.getString("room_type"));
-            room.setStatus(rs.getString("status"));
-            return room;
-        });
+        return roomCache.get(RoomCache.FREE, () -> readJdbcTemplate.query(ROOM_SELECT_FREE, roomRowMapper()));
     }
 
     public List<Room> getOccupiedRooms() {
         String sql = "SELECT * FROM rooms WHERE status = 'occupied' ORDER BY room_number";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Room room = new Room();
-            room.setRoomNumber(rs.getInt("room_number"));
-            room.setRoomType(rs.getString("room_type"));
-            room.setStatus(rs.getString("status"));
-            return room;
-        });
+        return roomCache.get(RoomCache.OCCUPIED, () -> readJdbcTemplate.query(sql, roomRowMapper()));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return roomCache.getStats();
+    }
+
+    /**
+     * Номера указанного типа, свободные на весь период.
+     * Без дат возвращает все номера типа, без типа - номера всех типов
+     */
+    public List<Room> getAvailableRooms(String roomType, String checkInDate, String checkOutDate) {
+        String type = (roomType == null || roomType.isBlank()) ? null : roomType;
+        List<Room> candidates = type == null ? getAllRooms() : readJdbcTemplate.query(ROOM_SELECT_BY_TYPE, roomRowMapper(), type);
+        if (checkInDate == null || checkOutDate == null) {
+            return candidates;
+        }
+
+        if (candidates.stream().allMatch(room -> availabilityIndex.covers(room.getRoomNumber()))) {
+            try {
+                List<Room> available = new ArrayList<>();
+                for (Room room : candidates) {
+                    if (!availabilityIndex.hasOverlap(room.getRoomNumber(), checkInDate, checkOutDate)) {
+                        available.add(room);
+                    }
+                }
+                return available;
+            } catch (Exception e) {
+                logger.warn("Индекс не смог подобрать номера ({}), выполняем запрос к БД", e.getMessage());
+            }
+        }
+
+        long checkInDay = EpochDays.of(checkInDate);
+        long checkOutDay = EpochDays.of(checkOutDate);
+        return readJdbcTemplate.query(ROOM_SELECT_AVAILABLE, roomRowMapper(),
+                type, type, checkOutDay, checkInDay, checkOutDay, checkInDay);
     }
 
     public boolean clearRoom(int roomNumber) {
@@ -58,6 +102,11 @@ public class RoomService {
 
         // Освобождаем комнату
         int result = jdbcTemplate.update(ROOM_FREE, roomNumber);
+        availabilityIndex.invalidated();
+        searchIndex.invalidated();
+        roomCache.roomStatusChanged(roomNumber, "free");
+        counters.bulkChanged();
+        events.publish(ChangeEventPublisher.ROOM_CLEARED, Map.of("roomNumber", roomNumber));
         return result > 0;
     }
 
@@ -66,46 +115,22 @@ public class RoomService {
         jdbcTemplate.update("DELETE FROM clients");
         // Освобождаем все комнаты`
         jdbcTemplate.update("UPDATE rooms SET status = 'free'");
+        availabilityIndex.cleared();
+        searchIndex.cleared();
+        roomCache.invalidateAll();
+        counters.bulkChanged();
+        events.publish(ChangeEventPublisher.CLIENTS_RESET, Map.of());
+        events.publish(ChangeEventPublisher.ROOMS_RESET, Map.of());
         return true;
     }
 
+    /**
+     * Проверка занятости на дату без известной предыдущей даты
+     */
+    @Transactional
     public void checkRoomOccupancy(String currentDate) {
         try {
-            // 1. Заселяем клиентов (pending → active)
-            String checkInClientsSql = "UPDATE clients SET status = 'active' " +
-                    "WHERE status = 'pending' AND check_in_date <= ?";
-            int checkedInClients = jdbcTemplate.update(checkInClientsSql, currentDate);
-
-            // 2. Занимаем комнаты для новых заездов
-            String occupyRoomsSql = "UPDATE rooms SET status = 'occupied' WHERE room_number IN (" +
-                    "SELECT room_number FROM clients WHERE status = 'active' " +
-                    "AND check_in_date <= ? AND check_out_date > ?)";
-            int occupiedRooms = jdbcTemplate.update(occupyRoomsSql, currentDate, currentDate);
-
-            // 3. Выселяем клиентов (active → checked_out)
-            String checkOutClientsSql = "UPDATE clients SET status = 'checked_out' " +
-                    "WHERE status = 'active' AND check_out_date < ?";
-            int checkedOutClients = jdbcTemplate.update(checkOutClientsSql, currentDate);
-
-            // 4. Освобождаем комнаты, где бронирование ЗАВЕРШИЛОСЬ
-            String freeRoomsSql = "UPDATE rooms SET status = 'free' WHERE room_number IN (" +
-                    "SELECT room_number FROM clients WHERE status = 'checked_out' " +
-                    "AND check_out_date < ?)";
-            int freedRooms = jdbcTemplate.update(freeRoomsSql, currentDate);
-
-            // 5. Обновляем статус завершенных бронирований (если нужно)
-            String completeBookingsSql = "UPDATE bookings SET status = 'completed' " +
-                    "WHERE status = 'active' AND check_out_date < ?";
-            int completedBookings = jdbcTemplate.update(completeBookingsSql, currentDate);
-
-            logger.info("Обновление занятости: " +
-                            "заселено {} клиентов, " +
-                            "занято {} комнат, " +
-                            "выселено {} клиентов, " +
-                            "освобождено {} комнат, " +
-                            "завершено {} бронирований",
-                    checkedInClients, occupiedRooms, checkedOutClients, freedRooms, completedBookings);
-
+            applyOccupancy(null, EpochDays.of(currentDate), currentDate);
         } catch (Exception e) {
             logger.error("Ошибка обновления занятости комнат: {}", e.getMessage());
             throw new RuntimeException("Ошибка обновления занятости", e);
@@ -113,25 +138,165 @@ public class RoomService {
     }
 
     /**
-     * Проверка доступности номера для бронирования
+     * Переход с даты fromDate (уже обработанной) на toDate одной транзакцией.
+     * Статусы меняются сразу на конечное состояние, а в отчете переходы разложены по дням периода
+     *
+     * @throws IllegalArgumentException если toDate не позже fromDate
+     */
+    @Transactional
+    public Map<String, Object> advanceToDate(String fromDate, String toDate) {
+        long fromDay = EpochDays.of(fromDate);
+        long toDay = EpochDays.of(toDate);
+        if (toDay <= fromDay) {
+            throw new IllegalArgumentException("Новая дата должна быть позже текущей");
+        }
+
+        long started = System.nanoTime();
+        Map<String, Object> result = applyOccupancy(fromDay, toDay, toDate);
+        result.put("success", true);
+        result.put("fromDate", fromDate);
+        result.put("toDate", toDate);
+        result.put("elapsedMs", (System.nanoTime() - started) / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * @param fromDay последний обработанный день или null, если он неизвестен
+     */
+    private Map<String, Object> applyOccupancy(Long fromDay, long toDay, String toDate) {
+        long firstDay = fromDay == null ? toDay : fromDay + 1;
+
+        // Переходы по дням считаются до обновления, пока у строк прежние статусы
+        Map<Long, Map<String, Object>> days = new TreeMap<>();
+        countByDay(days, "checkedIn", OCCUPANCY_CHECK_INS_BY_DAY, firstDay, toDay);
+        countByDay(days, "checkedOut", OCCUPANCY_CHECK_OUTS_BY_DAY, firstDay, toDay, toDay);
+        countByDay(days, "completedBookings", OCCUPANCY_COMPLETED_BOOKINGS_BY_DAY, firstDay, toDay);
+
+        // 1. Заселяем клиентов (pending → active)
+        int checkedInClients = jdbcTemplate.update(OCCUPANCY_CHECK_IN_CLIENTS, toDay);
+
+        // 2. Выселяем клиентов (active → checked_out)
+        int checkedOutClients = jdbcTemplate.update(OCCUPANCY_CHECK_OUT_CLIENTS, toDay);
+
+        // 3. Освобождаем комнаты выехавших за период (раньше занятия, чтобы не освободить номер нового гостя)
+        int freedRooms = jdbcTemplate.update(OCCUPANCY_FREE_ROOMS,
+                fromDay == null ? Long.MIN_VALUE : fromDay, toDay);
+
+        // 4. Занимаем комнаты проживающих
+        int occupiedRooms = jdbcTemplate.update(OCCUPANCY_OCCUPY_ROOMS, toDay, toDay);
+
+        // 5. Завершаем бронирования
+        int completedBookings = jdbcTemplate.update(OCCUPANCY_COMPLETE_BOOKINGS, toDay);
+
+        availabilityIndex.bookingsCompletedBefore(toDate);
+        if (occupiedRooms > 0 || freedRooms > 0) {
+            roomCache.invalidateAll();
+        }
+        if (checkedInClients + checkedOutClients + occupiedRooms + freedRooms + completedBookings > 0) {
+            // Статусы меняются пачкой - клиенты перечитывают номера и клиентов целиком
+            counters.bulkChanged();
+            events.publish(ChangeEventPublisher.OCCUPANCY_CHANGED, Map.of("date", toDate));
+        }
+
+        logger.info("Обновление занятости: " +
+                        "заселено {} клиентов, " +
+                        "занято {} комнат, " +
+                        "выселено {} клиентов, " +
+                        "освобождено {} комнат, " +
+                        "завершено {} бронирований",
+                checkedInClients, occupiedRooms, checkedOutClients, freedRooms, completedBookings);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("checkedInClients", checkedInClients);
+        result.put("checkedOutClients", checkedOutClients);
+        result.put("occupiedRooms", occupiedRooms);
+        result.put("freedRooms", freedRooms);
+        result.put("completedBookings", completedBookings);
+        result.put("days", new ArrayList<>(days.values()));
+        return result;
+    }
+
+    private void countByDay(Map<Long, Map<String, Object>> days, String key, String sql, Object... params) {
+        readTransitions(sql, params).forEach((day, count) -> days.computeIfAbsent(day, d -> {
+            Map<String, Object> transitions = new LinkedHashMap<>();
+            transitions.put("date", LocalDate.ofEpochDay(d).toString());
+            transitions.put("checkedIn", 0);
+            transitions.put("checkedOut", 0);
+            transitions.put("completedBookings", 0);
+            return transitions;
+        }).put(key, count));
+    }
+
+    private Map<Long, Integer> readTransitions(String sql, Object... params) {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getLong("day"), rs.getInt("count"));
+        }, params);
+        return counts;
+    }
+
+    /**
+     * Проверка доступности номера для бронирования.
+     * Отвечает из индекса в памяти, при его недоступности - запросом к БД
      */
     public boolean isRoomAvailable(Integer roomNumber, String checkInDate, String checkOutDate) {
+        if (availabilityIndex.covers(roomNumber)) {
+            try {
+                return !availabilityIndex.hasOverlap(roomNumber, checkInDate, checkOutDate);
+            } catch (Exception e) {
+                logger.warn("Индекс не смог проверить номер {} ({}), проверяем через БД", roomNumber, e.getMessage());
+            }
+        }
+        return isRoomAvailableInDatabase(roomNumber, checkInDate, checkOutDate);
+    }
+
+    /**
+     * Проверка доступности номера запросом к таблице bookings
+     */
+    public boolean isRoomAvailableInDatabase(Integer roomNumber, String checkInDate, String checkOutDate) {
         try {
+            long checkInDay = EpochDays.of(checkInDate);
+            long checkOutDay = EpochDays.of(checkOutDate);
             int overlappingBookings = jdbcTemplate.queryForObject(ROOM_CHECK_AVAILABILITY, Integer.class,
-                    roomNumber, checkOutDate, checkInDate, checkOutDate, checkInDate);
+                    roomNumber, checkOutDay, checkInDay, checkOutDay, checkInDay);
 
             return overlappingBookings == 0;
+        } catch (DataAccessException e) {
+            // Сбой БД - не ответ "номер занят"
+            throw e;
         } catch (Exception e) {
             logger.error("Ошибка проверки доступности номера {}: {}", roomNumber, e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Сверка индекса доступности с таблицей bookings
+     */
+    public Map<String, Object> verifyAvailabilityIndex(boolean repair) {
+        return availabilityIndex.verify(repair);
+    }
+
     /**
      * Обновление статуса комнаты
      */
     public boolean updateRoomStatus(int roomNumber, String status) {
         int result = jdbcTemplate.update(ROOMS_UPDATE_STATUS, status, roomNumber);
+        if (result > 0) {
+            roomCache.roomStatusChanged(roomNumber, status);
+            counters.roomStatusChanged(roomNumber, status);
+            events.publish(ChangeEventPublisher.ROOM_STATUS, Map.of("roomNumber", roomNumber, "status", status));
+        }
         return result > 0;
     }
+
+    private RowMapper<Room> roomRowMapper() {
+        return (rs, rowNum) -> {
+            Room room = new Room();
+            room.setRoomNumber(rs.getInt("room_number"));
+            room.setRoomType(rs.getString("room_type"));
+            room.setStatus(rs.getString("status"));
+            return room;
+        };
+    }
 }
\ No newline at end of file
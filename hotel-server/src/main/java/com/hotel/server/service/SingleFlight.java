@@ -0,0 +1,143 @@
+package com.hotel.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Объединение одинаковых одновременных чтений: пока запрос с ключом key выполняется,
+ * остальные вызовы с тем же ключом не идут в БД, а ждут его результат.
+ * Результат не кэшируется - следующий вызов после завершения запроса выполнит его заново
+ */
+@Component
+public class SingleFlight {
+    private static final Logger logger = LogManager.getLogger(SingleFlight.class);
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public SingleFlight(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Результат loader, общий для всех одновременных вызовов с этим ключом.
+     * Исключение loader получают все ожидавшие его вызовы
+     */
+    public <T> T execute(String key, Supplier<T> loader) {
+        return execute(key, "", loader);
+    }
+
+    /**
+     * То же, но вызовы с разными generation (например, версиями данных) не объединяются;
+     * счетчики ведутся по key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String generation, Supplier<T> loader) {
+        Counters keyCounters = counters.computeIfAbsent(key, k -> new Counters());
+        keyCounters.calls.increment();
+
+        String flightKey = generation.isEmpty() ? key : key + '@' + generation;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            keyCounters.coalesced.increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        keyCounters.executions.increment();
+        T result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(flightKey, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Ключ освобождается до раздачи результата: вызов, пришедший позже, выполнит запрос заново
+        inFlight.remove(flightKey, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    /**
+     * Результат loader, сериализованный в JSON один раз на все одновременные вызовы
+     */
+    public byte[] executeJson(String key, Supplier<?> loader) {
+        return executeJson(key, "", loader);
+    }
+
+    public byte[] executeJson(String key, String generation, Supplier<?> loader) {
+        return execute(key, generation, () -> {
+            try {
+                return objectMapper.writeValueAsBytes(loader.get());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Ошибка сериализации ответа " + key, e);
+            }
+        });
+    }
+
+    /**
+     * Счетчики по ключам: вызовы, запросы к источнику и вызовы, получившие чужой результат
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        long totalCalls = 0;
+        long totalCoalesced = 0;
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters keyCounters = entry.getValue();
+            long calls = keyCounters.calls.sum();
+            long coalesced = keyCounters.coalesced.sum();
+            Map<String, Object> keyStats = new LinkedHashMap<>();
+            keyStats.put("calls", calls);
+            keyStats.put("executions", keyCounters.executions.sum());
+            keyStats.put("coalesced", coalesced);
+            stats.put(entry.getKey(), keyStats);
+            totalCalls += calls;
+            totalCoalesced += coalesced;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("calls", totalCalls);
+        result.put("coalesced", totalCoalesced);
+        result.put("coalescedRatio", totalCalls == 0 ? 0.0 : (double) totalCoalesced / totalCalls);
+        result.put("inFlight", inFlight.size());
+        result.put("keys", stats);
+        return result;
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        logger.warn("Ошибка объединенного запроса: {}", String.valueOf(cause));
+        return e;
+    }
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder executions = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+    }
+}
@@ -1,12 +1,15 @@
 package com.hotel.server.service;
 
 import com.hotel.server.config.SqlQueries;
+import com.hotel.server.model.Page;
 import com.hotel.server.model.Staff;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,14 +17,40 @@ import org.apache.logging.log4j.Logger;
 @Service
 public class StaffService {
     private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final ChangeEventPublisher events;
+    private final OccupancyCounters counters;
     private static final Logger logger = LogManager.getLogger(StaffService.class);
 
-    public StaffService(JdbcTemplate jdbcTemplate) {
+    public StaffService(JdbcTemplate jdbcTemplate, @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate,
+                        ChangeEventPublisher events, OccupancyCounters counters) {
         this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = readJdbcTemplate;
+        this.events = events;
+        this.counters = counters;
     }
 
     public List<Staff> getAllStaff() {
-        return jdbcTemplate.query(SqlQueries.STAFF_SELECT_ALL, staffRowMapper());
+        return readJdbcTemplate.query(SqlQueries.STAFF_SELECT_ALL, staffRowMapper());
+    }
+
+    /**
+     * Страница активных сотрудников в порядке фамилия, имя, паспорт
+     *
+     * @param after курсор из предыдущей страницы (null - первая страница)
+     */
+    public Page<Staff> getStaffPage(String after, int limit) {
+        int pageSize = Page.normalizeLimit(limit);
+        List<Staff> rows;
+        if (after == null || after.isEmpty()) {
+            rows = readJdbcTemplate.query(SqlQueries.STAFF_SELECT_PAGE_FIRST, staffRowMapper(), pageSize + 1);
+        } else {
+            String[] key = Page.decodeCursor(after, 3);
+            rows = readJdbcTemplate.query(SqlQueries.STAFF_SELECT_PAGE_AFTER, staffRowMapper(),
+                    key[0], key[1], key[2], pageSize + 1);
+        }
+        return Page.of(rows, pageSize,
+                staff -> Page.encodeCursor(staff.getLastName(), staff.getFirstName(), staff.getPassportNumber()));
     }
 
     public boolean addStaff(Staff staff) {
@@ -37,6 +66,10 @@ public class StaffService {
                     staff.getSalary(),
                     staff.getDepartment()
             );
+            if (result > 0) {
+                counters.staffAdded();
+                events.publish(ChangeEventPublisher.STAFF_ADDED, Map.of("staff", staff));
+            }
             return result > 0;
         } catch (Exception e) {
             System.err.println("Ошибка добавления сотрудника: " + e.getMessage());
@@ -65,6 +98,8 @@ public class StaffService {
         try {
             int deletedStaff = jdbcTemplate.update(SqlQueries.STAFF_DELETE_ALL);
             logger.info("✅ Удалено сотрудников: {}", deletedStaff);
+            counters.bulkChanged();
+            events.publish(ChangeEventPublisher.STAFF_RESET, Map.of());
             return true;
         } catch (Exception e) {
             logger.error("❌ Ошибка очистки персонала: {}", e.getMessage(), e);
@@ -0,0 +1,124 @@
+package com.hotel.server.service;
+
+import com.hotel.server.config.AuthProperties;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Выдача и проверка подписанных токенов доступа.
+ * Пароль (BCrypt) проверяется один раз при выдаче токена, дальше каждый запрос
+ * проверяется по HMAC-SHA256 - это микросекунды вместо десятков миллисекунд.
+ *
+ * Формат токена: base64url(имя|роли|срок действия) . base64url(HMAC)
+ */
+@Service
+public class TokenService {
+    private static final Logger logger = LogManager.getLogger(TokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char FIELD_SEPARATOR = '|';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+
+    // Mac не потокобезопасен, а создавать его на каждый запрос дорого
+    private final ThreadLocal<Mac> mac;
+
+    public TokenService(AuthProperties properties) {
+        byte[] secret;
+        if (properties.getTokenSecret() == null || properties.getTokenSecret().isEmpty()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            logger.info("Ключ подписи токенов не задан, сгенерирован временный");
+        } else {
+            secret = properties.getTokenSecret().getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttlSeconds = properties.getTokenTtl();
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC недоступен", e);
+            }
+        });
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Выдает токен для уже аутентифицированного пользователя
+     */
+    public String issue(Authentication authentication) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        String roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = authentication.getName() + FIELD_SEPARATOR + roles + FIELD_SEPARATOR + expiresAt;
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + '.' + ENCODER.encodeToString(sign(encodedPayload));
+    }
+
+    /**
+     * Проверяет токен
+     *
+     * @return аутентификация владельца или null, если токен поврежден, подделан или просрочен
+     */
+    public Authentication verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String encodedPayload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return null;
+            }
+
+            String payload = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8);
+            int expiresSeparator = payload.lastIndexOf(FIELD_SEPARATOR);
+            int rolesSeparator = payload.lastIndexOf(FIELD_SEPARATOR, expiresSeparator - 1);
+            if (rolesSeparator <= 0) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(payload.substring(expiresSeparator + 1));
+            if (expiresAt < System.currentTimeMillis() / 1000) {
+                return null;
+            }
+
+            String username = payload.substring(0, rolesSeparator);
+            String roles = payload.substring(rolesSeparator + 1, expiresSeparator);
+            return UsernamePasswordAuthenticationToken.authenticated(
+                    username, null, AuthorityUtils.commaSeparatedStringToAuthorityList(roles));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return mac.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,55 @@
+package com.hotel.server.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Отложенные действия над кэшами в памяти: применяются только после фиксации транзакции
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {}
+
+    /**
+     * Выполняет действие после фиксации текущей транзакции (сразу, если транзакции нет)
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Выполняет onCommit после фиксации, а onCompletion - после любого завершения транзакции
+     * (сразу оба, если транзакции нет)
+     */
+    static void afterCompletion(Runnable onCommit, Runnable onCompletion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            onCommit.run();
+                        }
+                    } finally {
+                        onCompletion.run();
+                    }
+                }
+            });
+        } else {
+            try {
+                onCommit.run();
+            } finally {
+                onCompletion.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hotel.server.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Сериализованные списки по версиям коллекций: пока версия не изменилась, ответ отдается
+ * готовыми байтами без запроса к БД и без Jackson. Чтение новой версии выполняется один раз
+ * на все одновременные запросы (SingleFlight), запрос, пришедший после записи, ждет уже новую версию
+ */
+@Component
+public class VersionedResponses {
+    private final SingleFlight singleFlight;
+    private final CollectionVersions versions;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public VersionedResponses(SingleFlight singleFlight, CollectionVersions versions) {
+        this.singleFlight = singleFlight;
+        this.versions = versions;
+    }
+
+    /**
+     * Сериализованный список и его ETag
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String etag;
+        private final byte[] json;
+
+        private Snapshot(long version, String etag, byte[] json) {
+            this.version = version;
+            this.etag = etag;
+            this.json = json;
+        }
+
+        public String getEtag() { return etag; }
+        public byte[] getJson() { return json; }
+    }
+
+    /**
+     * ETag текущей версии коллекции: если он совпадает с If-None-Match, список можно не загружать
+     */
+    public String currentEtag(String collection) {
+        return versions.etag(collection, versions.current(collection));
+    }
+
+    /**
+     * Список key из коллекции collection в текущей версии.
+     * Данные, прочитанные позже увеличения версии, не старше нее, поэтому ETag не может указывать на устаревший список
+     */
+    public Snapshot get(String key, String collection, Supplier<?> loader) {
+        long version = versions.current(collection);
+        Snapshot cached = snapshots.get(key);
+        if (cached != null && cached.version == version) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        byte[] json = singleFlight.executeJson(key, Long.toString(version), loader);
+        Snapshot loaded = new Snapshot(version, versions.etag(collection, version), json);
+        snapshots.merge(key, loaded, (previous, next) -> next.version >= previous.version ? next : previous);
+        return loaded;
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new TreeMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        Map<String, Object> cached = new TreeMap<>();
+        snapshots.forEach((key, snapshot) -> cached.put(key, Map.of(
+                "version", snapshot.version, "bytes", snapshot.json.length)));
+        stats.put("cached", cached);
+        return stats;
+    }
+}
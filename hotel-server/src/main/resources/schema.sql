@@ -36,9 +36,39 @@ CREATE TABLE IF NOT EXISTS clients (
     check_out_date TEXT NOT NULL,
     room_number INTEGER NOT NULL,
     status TEXT DEFAULT 'active',
+    -- Даты в днях от эпохи для сравнений по индексу (вычисляются из строковых дат)
+    check_in_day INTEGER GENERATED ALWAYS AS (CAST(julianday(check_in_date) - 2440587.5 AS INTEGER)) VIRTUAL,
+    check_out_day INTEGER GENERATED ALWAYS AS (CAST(julianday(check_out_date) - 2440587.5 AS INTEGER)) VIRTUAL,
     FOREIGN KEY (room_number) REFERENCES rooms(room_number) ON DELETE CASCADE
 );
 
+-- Тарифы по типам номеров: цена за ночь в будни и в выходные (ночи на субботу и воскресенье)
+CREATE TABLE IF NOT EXISTS room_types (
+    room_type TEXT PRIMARY KEY,
+    weekday_rate REAL NOT NULL,
+    weekend_rate REAL NOT NULL
+);
+
+-- Сезонные тарифы: на ночи с start_date по end_date включительно заменяют базовые
+CREATE TABLE IF NOT EXISTS rates (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    room_type TEXT NOT NULL,
+    season TEXT NOT NULL,
+    start_date TEXT NOT NULL,
+    end_date TEXT NOT NULL,
+    weekday_rate REAL NOT NULL,
+    weekend_rate REAL NOT NULL,
+    FOREIGN KEY (room_type) REFERENCES room_types(room_type) ON DELETE CASCADE
+);
+
+-- Ответы на запросы бронирования с заголовком Idempotency-Key (время создания - мс от эпохи)
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key TEXT PRIMARY KEY,
+    fingerprint TEXT NOT NULL,
+    response TEXT NOT NULL,
+    created_at INTEGER NOT NULL
+);
+
 -- Таблица истории бронирований
 CREATE TABLE IF NOT EXISTS bookings (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -48,6 +78,8 @@ CREATE TABLE IF NOT EXISTS bookings (
     check_out_date TEXT NOT NULL,
     total_price REAL NOT NULL,
     status TEXT DEFAULT 'completed',
+    check_in_day INTEGER GENERATED ALWAYS AS (CAST(julianday(check_in_date) - 2440587.5 AS INTEGER)) VIRTUAL,
+    check_out_day INTEGER GENERATED ALWAYS AS (CAST(julianday(check_out_date) - 2440587.5 AS INTEGER)) VIRTUAL,
     FOREIGN KEY (client_passport) REFERENCES clients(passport_number) ON DELETE CASCADE,
     FOREIGN KEY (room_number) REFERENCES rooms(room_number) ON DELETE CASCADE
 );
@@ -57,4 +89,15 @@ CREATE INDEX IF NOT EXISTS idx_clients_room_number ON clients(room_number);
 CREATE INDEX IF NOT EXISTS idx_clients_status ON clients(status);
 CREATE INDEX IF NOT EXISTS idx_rooms_status ON rooms(status);
 CREATE INDEX IF NOT EXISTS idx_bookings_client ON bookings(client_passport);
-CREATE INDEX IF NOT EXISTS idx_bookings_room ON bookings(room_number);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_bookings_room ON bookings(room_number);
+
+-- Индексы под ключи постраничной выборки (rowid входит в каждый индекс неявно)
+CREATE INDEX IF NOT EXISTS idx_clients_name_key ON clients(last_name, first_name, passport_number);
+CREATE INDEX IF NOT EXISTS idx_staff_status_name_key ON staff(status, last_name, first_name, passport_number);
+CREATE INDEX IF NOT EXISTS idx_bookings_check_in ON bookings(check_in_date);
+
+-- Индексы по датам в днях от эпохи: проверка пересечения бронирований и смена статусов по дате
+CREATE INDEX IF NOT EXISTS idx_bookings_overlap ON bookings(room_number, status, check_in_day, check_out_day);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_check_out ON bookings(status, check_out_day);
+CREATE INDEX IF NOT EXISTS idx_clients_status_check_in ON clients(status, check_in_day);
+CREATE INDEX IF NOT EXISTS idx_clients_status_check_out ON clients(status, check_out_day);
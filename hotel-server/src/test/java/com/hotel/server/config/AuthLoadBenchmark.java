@@ -0,0 +1,98 @@
+package com.hotel.server.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Нагрузка на запущенный сервер: GET /api/rooms с Basic (BCrypt на каждый запрос) и с Bearer-токеном.
+ * Печатает среднее время последовательного запроса и пропускную способность в несколько потоков,
+ * затем проверяет, что поддельный токен получает 401, а токеном нельзя получить новый токен.
+ * Запуск: java -cp <тестовые классы сервера> com.hotel.server.config.AuthLoadBenchmark [адрес] [потоков]
+ */
+public class AuthLoadBenchmark {
+    private static final int WARMUP_REQUESTS = 20;
+    private static final int SEQUENTIAL_REQUESTS = 200;
+    private static final int REQUESTS_PER_THREAD = 100;
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        // HTTP/1.1 с keep-alive: меряется проверка учетных данных, а не установка соединения
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        String basic = "Basic " + Base64.getEncoder().encodeToString("admin:hotel123".getBytes(StandardCharsets.UTF_8));
+        HttpResponse<String> issued = send(httpClient, HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/token"))
+                .header("Authorization", basic).POST(HttpRequest.BodyPublishers.noBody()).build());
+        Matcher matcher = TOKEN.matcher(issued.body());
+        if (issued.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Токен не выдан: " + issued.statusCode() + " " + issued.body());
+        }
+        String token = matcher.group(1);
+        String bearer = "Bearer " + token;
+
+        for (String authorization : List.of(basic, bearer)) {
+            String name = authorization.substring(0, authorization.indexOf(' ')).toLowerCase();
+            run(httpClient, baseUrl, authorization, WARMUP_REQUESTS, 1);
+            long elapsed = run(httpClient, baseUrl, authorization, SEQUENTIAL_REQUESTS, 1);
+            System.out.printf("%s последовательно: %.2f мс/запрос%n", name, elapsed / 1e6 / SEQUENTIAL_REQUESTS);
+            elapsed = run(httpClient, baseUrl, authorization, REQUESTS_PER_THREAD, threads);
+            System.out.printf("%s в %d потоков: %.0f запросов/с%n", name, threads,
+                    REQUESTS_PER_THREAD * threads / (elapsed / 1e9));
+        }
+
+        String tampered = "Bearer " + token.substring(0, token.length() - 2) + "xx";
+        System.out.println("Поддельный токен: " + send(httpClient, rooms(baseUrl, tampered)).statusCode());
+        System.out.println("Токен по токену: " + send(httpClient,
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/token"))
+                        .header("Authorization", bearer).POST(HttpRequest.BodyPublishers.noBody()).build()).statusCode());
+    }
+
+    /**
+     * @return время выполнения всех запросов, нс
+     */
+    private static long run(HttpClient httpClient, String baseUrl, String authorization,
+                            int requests, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < requests; i++) {
+                        int status = send(httpClient, rooms(baseUrl, authorization)).statusCode();
+                        if (status != 200) {
+                            throw new IllegalStateException("Ответ " + status);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HttpRequest rooms(String baseUrl, String authorization) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/rooms")).header("Authorization", authorization).build();
+    }
+
+    private static HttpResponse<String> send(HttpClient httpClient, HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotel.server.config;
+
+import com.hotel.server.service.TokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Токен аутентифицирует обычные запросы, но не запрос выдачи нового токена
+ */
+class BearerTokenFilterTest {
+    private TokenService tokenService;
+    private BearerTokenFilter filter;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService(new AuthProperties());
+        filter = new BearerTokenFilter(tokenService, new AntPathRequestMatcher("/api/auth/token"));
+        token = tokenService.issue(UsernamePasswordAuthenticationToken.authenticated("admin", null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenAuthenticatesApiRequest() throws Exception {
+        filter.doFilter(request("GET", "/api/rooms", "Bearer " + token), new MockHttpServletResponse(),
+                new MockFilterChain());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals("admin", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    void tamperedTokenIsIgnored() throws Exception {
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+        filter.doFilter(request("GET", "/api/rooms", "Bearer " + tampered), new MockHttpServletResponse(),
+                new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void tokenCannotIssueToken() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("POST", "/api/auth/token", "Bearer " + token), new MockHttpServletResponse(), chain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication(),
+                "выдача токена только по паролю - дальше запрос получит 401");
+        assertNotNull(chain.getRequest(), "запрос передается дальше по цепочке");
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotel.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пул записи после SQLITE_BUSY при начале транзакции
+ */
+class StorageConfigTest {
+    @TempDir
+    Path tempDir;
+
+    private String url;
+    private HikariDataSource writeDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        url = "jdbc:sqlite:" + tempDir.resolve("hotel.db");
+        StorageProperties properties = new StorageProperties();
+        properties.setUrl(url);
+        properties.setBusyTimeout(200);
+        StorageConfig storageConfig = new StorageConfig();
+        writeDataSource = storageConfig.writeDataSource(properties);
+        jdbcTemplate = new JdbcTemplate(writeDataSource);
+        transactionTemplate = new TransactionTemplate(storageConfig.transactionManager(writeDataSource));
+        jdbcTemplate.execute("CREATE TABLE items (id INTEGER PRIMARY KEY)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeDataSource.close();
+    }
+
+    @Test
+    void transactionsStayAtomicAfterBusyBegin() throws Exception {
+        try (Connection blocker = DriverManager.getConnection(url);
+             Statement statement = blocker.createStatement()) {
+            statement.execute("BEGIN IMMEDIATE");
+            assertThrows(CannotCreateTransactionException.class,
+                    () -> transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO items VALUES (1)")));
+            statement.execute("ROLLBACK");
+        }
+
+        // Откатываемая транзакция не должна оставить записей: соединение снова начинает транзакции
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO items VALUES (2)");
+            status.setRollbackOnly();
+        });
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO items VALUES (3)"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+    }
+}
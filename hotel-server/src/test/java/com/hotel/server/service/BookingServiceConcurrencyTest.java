@@ -0,0 +1,149 @@
+package com.hotel.server.service;
+
+import com.hotel.server.model.Client;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочная проверка заселения: параллельные запросы не должны приводить к двойному бронированию
+ */
+class BookingServiceConcurrencyTest {
+    private static final int ROOMS = 8;
+    private static final int SLOTS = 7;
+    private static final int ATTEMPTS = 800;
+    private static final int THREADS = 32;
+
+    @TempDir
+    Path tempDir;
+
+    private TestHotel hotel;
+    private JdbcTemplate jdbcTemplate;
+    private RoomAvailabilityIndex availabilityIndex;
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hotel = new TestHotel(tempDir, ROOMS, 5000);
+        jdbcTemplate = hotel.jdbcTemplate;
+        availabilityIndex = hotel.availabilityIndex;
+        bookingService = hotel.bookingService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotel.close();
+    }
+
+    @Test
+    void concurrentCheckInsNeverDoubleBookRoom() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Каждая пара (номер, период) запрашивается несколькими потоками одновременно
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Client client = clientFor(i);
+            results.add(executor.submit(() -> {
+                start.await();
+                Map<String, Object> result = bookingService.checkInClient(client);
+                return Boolean.TRUE.equals(result.get("success"));
+            }));
+        }
+        start.countDown();
+
+        int successes = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(60, TimeUnit.SECONDS)) {
+                successes++;
+            }
+        }
+        executor.shutdown();
+
+        Integer overlapping = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM bookings a JOIN bookings b
+                  ON a.room_number = b.room_number AND a.rowid < b.rowid
+                WHERE a.status = 'active' AND b.status = 'active'
+                  AND ((a.check_in_date <= b.check_out_date AND a.check_out_date > b.check_in_date)
+                    OR (a.check_in_date < b.check_out_date AND a.check_out_date >= b.check_in_date))
+                """, Integer.class);
+        Integer activeBookings = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE status = 'active'", Integer.class);
+
+        assertEquals(0, overlapping, "в одном номере не должно быть пересекающихся бронирований");
+        assertEquals(successes, activeBookings, "каждое успешное заселение - ровно одно бронирование");
+        assertEquals(ROOMS * SLOTS, successes, "каждая свободная пара (номер, период) заселяется ровно один раз");
+        assertEquals(true, availabilityIndex.verify(false).get("consistent"));
+    }
+
+    @Test
+    void concurrentGroupCheckInsAreAllOrNothing() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<List<Client>> groups = new ArrayList<>();
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Группы по три номера с пересекающимися наборами, номера перечислены в разном порядке
+        for (int g = 0; g < ATTEMPTS / 4; g++) {
+            List<Client> group = new ArrayList<>();
+            int[] offsets = g % 2 == 0 ? new int[]{0, 1, 3} : new int[]{3, 1, 0};
+            for (int k = 0; k < offsets.length; k++) {
+                Client guest = clientFor(g * 3 + k);
+                guest.setRoomNumber(101 + (g + offsets[k]) % ROOMS);
+                guest.setCheckInDate(LocalDate.of(2030, 1, 1).plusDays((g % SLOTS) * 3L).toString());
+                guest.setCheckOutDate(LocalDate.of(2030, 1, 3).plusDays((g % SLOTS) * 3L).toString());
+                group.add(guest);
+            }
+            groups.add(group);
+            results.add(executor.submit(() -> {
+                start.await();
+                return Boolean.TRUE.equals(bookingService.checkInGroup(group).get("success"));
+            }));
+        }
+        start.countDown();
+
+        int successfulGroups = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            boolean success = results.get(g).get(60, TimeUnit.SECONDS);
+            if (success) {
+                successfulGroups++;
+            }
+            for (Client guest : groups.get(g)) {
+                Integer bookings = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM bookings WHERE client_passport = ?", Integer.class,
+                        guest.getPassportNumber());
+                assertEquals(success ? 1 : 0, bookings, "группа заселяется целиком или не заселяется совсем");
+            }
+        }
+        executor.shutdown();
+
+        Integer activeBookings = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE status = 'active'", Integer.class);
+        assertEquals(successfulGroups * 3, activeBookings);
+        assertTrue(successfulGroups > 0);
+        assertEquals(true, availabilityIndex.verify(false).get("consistent"));
+    }
+
+    private static Client clientFor(int attempt) {
+        int room = 101 + attempt % ROOMS;
+        int slot = (attempt / ROOMS) % SLOTS;
+        LocalDate checkIn = LocalDate.of(2030, 1, 1).plusDays(slot * 3L);
+        return new Client(String.format("%010d", attempt), "Иван", "Петров", "+70000000000",
+                "guest@example.com", checkIn.toString(), checkIn.plusDays(2).toString(), room, null);
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotel.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.server.config.IdempotencyProperties;
+import com.hotel.server.model.Client;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ключи идемпотентности: сохраняется только окончательный результат операции
+ */
+class IdempotencyStoreTest {
+    @TempDir
+    Path tempDir;
+
+    private TestHotel hotel;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hotel = new TestHotel(tempDir, 2, 200);
+        store = new IdempotencyStore(hotel.jdbcTemplate, hotel.readJdbcTemplate, new ObjectMapper(),
+                new IdempotencyProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotel.close();
+    }
+
+    @Test
+    void retryAfterTransientFailureExecutesAgain() {
+        AtomicInteger executions = new AtomicInteger();
+        Map<String, Object> request = Map.of("passportNumber", "1");
+
+        assertThrows(CannotAcquireLockException.class, () -> store.execute("key-1", "check-out", request, () -> {
+            executions.incrementAndGet();
+            throw new CannotAcquireLockException("[SQLITE_BUSY] The database file is locked");
+        }));
+
+        IdempotencyStore.Outcome retried = store.execute("key-1", "check-out", request, () -> {
+            executions.incrementAndGet();
+            return Map.of("success", true);
+        });
+        assertEquals(2, executions.get(), "повтор после сбоя должен выполнить операцию");
+        assertEquals(200, retried.getStatus());
+        assertFalse(retried.isReplayed());
+
+        IdempotencyStore.Outcome replayed = store.execute("key-1", "check-out", request, () -> {
+            executions.incrementAndGet();
+            return Map.of("success", false);
+        });
+        assertEquals(2, executions.get(), "успешный ответ сохранен и не выполняется заново");
+        assertTrue(replayed.isReplayed());
+        assertEquals(true, replayed.getBody().get("success"));
+    }
+
+    @Test
+    void checkInRetriedAfterDatabaseLockExecutesAgain() throws Exception {
+        Client client = new Client("0000000001", "Иван", "Петров", "+70000000000", "guest@example.com",
+                "2030-01-01", "2030-01-03", 101, null);
+
+        // Другое соединение держит блокировку записи дольше, чем запись ждет ее (busy timeout)
+        try (Connection blocker = DriverManager.getConnection(hotel.url);
+             Statement statement = blocker.createStatement()) {
+            statement.execute("BEGIN IMMEDIATE");
+            RuntimeException failure = assertThrows(RuntimeException.class,
+                    () -> store.execute("key-2", "check-in", client, () -> hotel.bookingService.checkInClient(client)));
+            assertTrue(failure instanceof DataAccessException || failure instanceof TransactionException,
+                    "сбой БД не должен превращаться в отказ в заселении: " + failure);
+            statement.execute("ROLLBACK");
+        }
+
+        IdempotencyStore.Outcome retried = store.execute("key-2", "check-in", client,
+                () -> hotel.bookingService.checkInClient(client));
+        assertFalse(retried.isReplayed());
+        assertEquals(true, retried.getBody().get("success"));
+        assertEquals(1, hotel.jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE client_passport = ?", Integer.class, client.getPassportNumber()));
+    }
+
+    @Test
+    void businessRejectionIsReplayed() {
+        Client first = new Client("0000000001", "Иван", "Петров", "+70000000000", "guest@example.com",
+                "2030-01-01", "2030-01-03", 101, null);
+        Client second = new Client("0000000002", "Петр", "Иванов", "+70000000001", "guest@example.com",
+                "2030-01-02", "2030-01-04", 101, null);
+        assertEquals(true, hotel.bookingService.checkInClient(first).get("success"));
+
+        AtomicInteger executions = new AtomicInteger();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IdempotencyStore.Outcome outcome = store.execute("key-3", "check-in", second, () -> {
+                executions.incrementAndGet();
+                return hotel.bookingService.checkInClient(second);
+            });
+            assertEquals(false, outcome.getBody().get("success"));
+            assertEquals(attempt == 1, outcome.isReplayed());
+        }
+        assertEquals(1, executions.get(), "отказ \"номер занят\" - окончательный результат, он сохраняется");
+    }
+
+    @Test
+    void requestInFlightIsNotEvictedByCapacity() throws Exception {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setCapacity(1);
+        IdempotencyStore small = new IdempotencyStore(hotel.jdbcTemplate, hotel.readJdbcTemplate, new ObjectMapper(),
+                properties);
+        Map<String, Object> request = Map.of("passportNumber", "1");
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<IdempotencyStore.Outcome> original = CompletableFuture.supplyAsync(() ->
+                small.execute("slow", "check-in", request, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Map.of("success", true);
+                }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // Другие ключи переполняют хранилище, пока исходный запрос выполняется
+        small.execute("other-1", "check-in", request, () -> Map.of("success", true));
+        small.execute("other-2", "check-in", request, () -> Map.of("success", true));
+
+        CompletableFuture<IdempotencyStore.Outcome> retry = CompletableFuture.supplyAsync(() ->
+                small.execute("slow", "check-in", request, () -> {
+                    executions.incrementAndGet();
+                    return Map.of("success", true);
+                }));
+        release.countDown();
+
+        assertFalse(original.get(10, TimeUnit.SECONDS).isReplayed());
+        assertTrue(retry.get(10, TimeUnit.SECONDS).isReplayed(), "повтор должен дождаться исходного запроса");
+        assertEquals(1, executions.get());
+    }
+}
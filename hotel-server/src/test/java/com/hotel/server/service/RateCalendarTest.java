@@ -0,0 +1,81 @@
+package com.hotel.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сезонные тарифы: добавленный позже сезон перекрывает ранний, далекие сезоны не мешают друг другу
+ */
+class RateCalendarTest {
+    private static final String TYPE = "Стандарт";
+
+    @TempDir
+    Path tempDir;
+
+    private TestHotel hotel;
+    private RateCalendar rateCalendar;
+    private RateService rateService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hotel = new TestHotel(tempDir, 1, 5000);
+        rateCalendar = hotel.rateCalendar;
+        rateService = new RateService(hotel.jdbcTemplate, hotel.readJdbcTemplate, rateCalendar);
+        // Одинаковые цены в будни и выходные, чтобы сумма не зависела от дня недели
+        rateService.setRoomTypeRates(TYPE, 100, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotel.close();
+    }
+
+    @Test
+    void laterSeasonOverridesEarlierOne() {
+        rateService.addSeason(TYPE, "Январь", "2030-01-01", "2030-01-10", 200, 200);
+        rateService.addSeason(TYPE, "Праздники", "2030-01-04", "2030-01-05", 300, 300);
+
+        // 1-3 и 6-10 января по 200, 4-5 января по 300
+        assertEquals(2200, rateCalendar.priceForType(TYPE, "2030-01-01", "2030-01-11"));
+        assertEquals(100, rateCalendar.priceForType(TYPE, "2029-12-31", "2030-01-01"));
+
+        rateService.addSeason(TYPE, "Перекрытие", "2030-01-03", "2030-01-04", 400, 400);
+        // 1-2 по 200, 3-4 по 400, 5 по 300, 6-10 по 200
+        assertEquals(2500, rateCalendar.priceForType(TYPE, "2030-01-01", "2030-01-11"));
+    }
+
+    @Test
+    void distantSeasonsAreBothApplied() {
+        rateService.addSeason(TYPE, "Ранний", "2030-01-01", "2030-01-02", 200, 200);
+        rateService.addSeason(TYPE, "Поздний", "2090-06-01", "2090-06-02", 500, 500);
+
+        assertEquals(500, rateCalendar.priceForType(TYPE, "2029-12-31", "2030-01-03"));
+        assertEquals(1100, rateCalendar.priceForType(TYPE, "2090-06-01", "2090-06-04"));
+        assertEquals(100, rateCalendar.priceForType(TYPE, "2060-01-01", "2060-01-02"));
+    }
+
+    @Test
+    void longSeasonIsAccepted() {
+        rateService.addSeason(TYPE, "Реконструкция", "2030-01-01", "2032-12-31", 50, 50);
+
+        assertEquals(150, rateCalendar.priceForType(TYPE, "2031-06-01", "2031-06-04"));
+        assertEquals(100, rateCalendar.priceForType(TYPE, "2033-01-01", "2033-01-02"));
+    }
+
+    @Test
+    void quoteRejectsTooLongStay() {
+        Map<String, Object> year = Map.of("roomType", TYPE, "checkInDate", "2030-01-01", "checkOutDate", "2031-01-02");
+        Map<String, Object> decade = Map.of("roomType", TYPE, "checkInDate", "2030-01-01", "checkOutDate", "2040-01-01");
+
+        assertEquals(36600.0, rateService.quote(List.of(year)).get(0).get("totalPrice"));
+        assertThrows(IllegalArgumentException.class, () -> rateService.quote(List.of(year, decade)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.hotel.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Индекс доступности должен отвечать так же, как запрос ROOM_CHECK_AVAILABILITY к БД
+ */
+class RoomAvailabilityIndexTest {
+    private static final LocalDate BASE = LocalDate.of(2030, 3, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private TestHotel hotel;
+    private JdbcTemplate jdbcTemplate;
+    private RoomAvailabilityIndex availabilityIndex;
+    private RoomService roomService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hotel = new TestHotel(tempDir, 2, 5000);
+        jdbcTemplate = hotel.jdbcTemplate;
+        availabilityIndex = hotel.availabilityIndex;
+        roomService = hotel.roomService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotel.close();
+    }
+
+    @Test
+    void boundaryDaysMatchDatabasePredicate() {
+        // Номер 101: обычное бронирование, однодневное и соседнее с первым
+        insertBooking(101, "0000000001", 5, 10);
+        insertBooking(101, "0000000002", 14, 14);
+        insertBooking(101, "0000000003", 10, 12);
+        // Номер 102: одно длинное бронирование
+        insertBooking(102, "0000000004", 3, 20);
+        availabilityIndex.rebuild();
+
+        for (int room = 101; room <= 102; room++) {
+            for (int from = 0; from <= 24; from++) {
+                for (int to = from; to <= 24; to++) {
+                    String checkIn = day(from);
+                    String checkOut = day(to);
+                    assertTrue(availabilityIndex.covers(room));
+                    assertEquals(roomService.isRoomAvailableInDatabase(room, checkIn, checkOut),
+                            !availabilityIndex.hasOverlap(room, checkIn, checkOut),
+                            "номер " + room + " на " + checkIn + ".." + checkOut);
+                }
+            }
+        }
+    }
+
+    @Test
+    void checkInAndCheckOutDaysAreOccupied() {
+        insertBooking(101, "0000000001", 5, 10);
+        availabilityIndex.rebuild();
+
+        assertTrue(availabilityIndex.hasOverlap(101, day(10), day(11)), "заезд в день выезда");
+        assertTrue(availabilityIndex.hasOverlap(101, day(4), day(5)), "выезд в день заезда");
+        assertTrue(availabilityIndex.hasOverlap(101, day(6), day(7)), "внутри периода");
+        assertFalse(availabilityIndex.hasOverlap(101, day(11), day(12)));
+        assertFalse(availabilityIndex.hasOverlap(101, day(0), day(4)));
+        assertFalse(availabilityIndex.hasOverlap(102, day(5), day(10)));
+    }
+
+    @Test
+    void bookingReadByRebuildIsNotAddedTwice() {
+        // Бронирование зафиксировано до перезагрузки, а его событие применяется после нее
+        insertBooking(101, "0000000001", 5, 10);
+        availabilityIndex.rebuild();
+        availabilityIndex.bookingAdded(101, "0000000001", day(5), day(10));
+
+        assertEquals(1, availabilityIndex.verify(false).get("indexedBookings"));
+        assertEquals(true, availabilityIndex.verify(false).get("consistent"));
+
+        jdbcTemplate.update("UPDATE bookings SET status = 'completed' WHERE client_passport = ?", "0000000001");
+        availabilityIndex.bookingClosed(101, "0000000001");
+        assertFalse(availabilityIndex.hasOverlap(101, day(5), day(10)));
+    }
+
+    private void insertBooking(int room, String passport, int checkIn, int checkOut) {
+        jdbcTemplate.update("""
+                INSERT INTO clients (passport_number, first_name, last_name, check_in_date, check_out_date, room_number)
+                VALUES (?, 'Иван', 'Петров', ?, ?, ?)
+                """, passport, day(checkIn), day(checkOut), room);
+        jdbcTemplate.update("""
+                INSERT INTO bookings (room_number, client_passport, check_in_date, check_out_date, total_price, status)
+                VALUES (?, ?, ?, ?, 0, 'active')
+                """, room, passport, day(checkIn), day(checkOut));
+    }
+
+    private static String day(int offset) {
+        return BASE.plusDays(offset).toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.hotel.server.service;
+
+import com.hotel.server.config.SqlQueries;
+import com.hotel.server.config.StorageConfig;
+import com.hotel.server.config.StorageProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Сервисы сервера поверх временной БД SQLite со схемой приложения и номерами 101, 102, ...
+ * типа "Стандарт" - так же, как они связываются в приложении
+ */
+final class TestHotel implements AutoCloseable {
+    final String url;
+    final HikariDataSource writeDataSource;
+    final HikariDataSource readDataSource;
+    final JdbcTemplate jdbcTemplate;
+    final JdbcTemplate readJdbcTemplate;
+    final RoomAvailabilityIndex availabilityIndex;
+    final RoomCache roomCache;
+    final ChangeEventPublisher events;
+    final ClientSearchIndex searchIndex;
+    final RateCalendar rateCalendar;
+    final RoomService roomService;
+    final ClientService clientService;
+    final BookingService bookingService;
+
+    /**
+     * @param busyTimeout сколько запись ждет блокировку БД, мс
+     */
+    TestHotel(Path directory, int rooms, int busyTimeout) throws SQLException {
+        url = "jdbc:sqlite:" + directory.resolve("hotel.db");
+        StorageProperties properties = new StorageProperties();
+        properties.setUrl(url);
+        properties.setBusyTimeout(busyTimeout);
+        StorageConfig storageConfig = new StorageConfig();
+        writeDataSource = storageConfig.writeDataSource(properties);
+        readDataSource = storageConfig.readDataSource(properties, writeDataSource);
+
+        try (Connection connection = writeDataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        }
+        jdbcTemplate = new JdbcTemplate(writeDataSource);
+        readJdbcTemplate = new JdbcTemplate(readDataSource);
+        for (int i = 0; i < rooms; i++) {
+            jdbcTemplate.update("INSERT INTO rooms (room_number, room_type) VALUES (?, 'Стандарт')", 101 + i);
+        }
+        jdbcTemplate.update(SqlQueries.ROOM_TYPES_INSERT_DEFAULTS);
+
+        availabilityIndex = new RoomAvailabilityIndex(readJdbcTemplate);
+        availabilityIndex.initialize();
+        roomCache = new RoomCache();
+        events = new ChangeEventPublisher(new CollectionVersions());
+        OccupancyCounters counters = new OccupancyCounters(readJdbcTemplate);
+        searchIndex = new ClientSearchIndex(readJdbcTemplate);
+        searchIndex.initialize();
+        roomService = new RoomService(jdbcTemplate, readJdbcTemplate, availabilityIndex, roomCache,
+                events, counters, searchIndex);
+        clientService = new ClientService(jdbcTemplate, readJdbcTemplate, availabilityIndex, roomCache,
+                events, counters, searchIndex);
+        rateCalendar = new RateCalendar(readJdbcTemplate);
+        rateCalendar.initialize();
+        bookingService = new BookingService(jdbcTemplate, readJdbcTemplate, roomService, clientService,
+                availabilityIndex, new RoomLocks(), events, rateCalendar,
+                storageConfig.transactionManager(writeDataSource));
+    }
+
+    @Override
+    public void close() {
+        events.shutdown();
+        readDataSource.close();
+        writeDataSource.close();
+    }
+}